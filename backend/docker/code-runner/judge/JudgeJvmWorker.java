@@ -0,0 +1,417 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.FileDescriptor;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.FilePermission;
+import java.io.InputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ManagementPermission;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.ThreadMXBean;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.ReflectPermission;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.AccessController;
+import java.security.Permission;
+import java.security.Policy;
+import java.security.ProtectionDomain;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TimeZone;
+
+/**
+ * Long-lived JVM that runs compiled Java submissions without paying JVM startup per test.
+ *
+ * Protocol (one line per message, over stdin/stdout):
+ *   backend -> worker: first line is a session token, then
+ *                      RUN <class dir> <input file> <output file> <error file> <time limit ms> <output limit bytes>
+ *   worker -> backend: <token> READY
+ *                      <token> DONE <exit code> <wall ms> <cpu ms> <reason> <peak heap bytes> <retiring>
+ *
+ * {@code <retiring>} is 1 when the worker exits right after the reply, 0 otherwise.
+ * Every run loads Solution in a fresh class loader with stdin/stdout/stderr redirected to
+ * the given files. A run that exceeds its CPU or wall limit is reported with exit code
+ * 124 and the worker exits, since a runaway thread cannot be stopped safely; the same
+ * happens after an OutOfMemoryError. The backend then starts a fresh worker. The peak
+ * heap is the sum of the heap pool peaks during the run; it includes the worker's own
+ * small footprint.
+ *
+ * Submission code may start threads: CPU time is summed over every thread that appeared
+ * during the run. A run that leaves threads running, or changes JVM-wide state (system
+ * properties, default locale or time zone), is judged as usual but the worker exits after
+ * it, so the next run never shares a JVM with anything the submission left behind.
+ * Submission code cannot replace the security manager, the standard streams or exit the
+ * worker. The container only confines what the worker does to the host; the worker's own
+ * state lives in the JVM that later submissions share, so submission code also may not
+ * suppress access checks, start processes, load native code, or reach the worker's file
+ * descriptors, /proc entries or management interface. The JDK keeps whatever of these it
+ * needs internally, inside privileged blocks.
+ *
+ * Output and error together may not exceed the output limit. The write that crosses it
+ * fails with an Error, like a process killed by SIGXFSZ, and the run is reported with
+ * exit code 153.
+ */
+public final class JudgeJvmWorker {
+
+    private static final int TIMEOUT_EXIT_CODE = 124;
+    private static final int OUTPUT_LIMIT_EXIT_CODE = 153;
+    private static final long POLL_MILLIS = 5;
+    private static final long THREAD_GRACE_MILLIS = 50;
+
+    private static volatile boolean exitAllowed;
+    private static Thread workerThread;
+
+    public static void main(String[] args) throws Exception {
+        BufferedReader commands = new BufferedReader(new InputStreamReader(new FileInputStream(FileDescriptor.in)));
+        PrintStream replies = new PrintStream(new FileOutputStream(FileDescriptor.out), true);
+        String token = commands.readLine();
+        if (token == null) {
+            return;
+        }
+
+        workerThread = Thread.currentThread();
+        Policy.setPolicy(new WorkerPolicy(Policy.getPolicy()));
+        System.setSecurityManager(new ExitTrap());
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        replies.println(token + " READY");
+
+        String line;
+        while ((line = commands.readLine()) != null) {
+            String[] parts = line.trim().split(" ");
+            if (parts.length != 7 || !"RUN".equals(parts[0])) {
+                replies.println(token + " ERROR bad-command");
+                continue;
+            }
+            Outcome outcome = run(threads, Paths.get(parts[1]), Paths.get(parts[2]), Paths.get(parts[3]),
+                    Paths.get(parts[4]), Long.parseLong(parts[5]), Long.parseLong(parts[6]));
+            replies.println(token + " DONE " + outcome.exitCode + " " + outcome.wallMillis + " "
+                    + outcome.cpuMillis + " " + outcome.reason + " " + outcome.peakHeapBytes + " "
+                    + (outcome.fatal ? 1 : 0));
+            if (outcome.fatal) {
+                exitAllowed = true;
+                Runtime.getRuntime().halt(0);
+            }
+        }
+    }
+
+    private static Outcome run(ThreadMXBean threads, Path classDir, Path input, Path output, Path error,
+            long timeLimitMillis, long outputLimitBytes) {
+        PrintStream originalOut = System.out;
+        PrintStream originalErr = System.err;
+        InputStream originalIn = System.in;
+        Outcome outcome = new Outcome();
+        OutputBudget budget = new OutputBudget(outputLimitBytes);
+        List<MemoryPoolMXBean> heapPools = ManagementFactory.getMemoryPoolMXBeans().stream()
+                .filter(pool -> pool.getType() == MemoryType.HEAP)
+                .toList();
+        heapPools.forEach(MemoryPoolMXBean::resetPeakUsage);
+        Set<Long> workerThreads = new HashSet<>();
+        for (long id : threads.getAllThreadIds()) {
+            workerThreads.add(id);
+        }
+        GlobalState stateBefore = new GlobalState();
+
+        try (URLClassLoader loader = new URLClassLoader(new URL[] { classDir.toUri().toURL() },
+                ClassLoader.getPlatformClassLoader());
+             InputStream in = new BufferedInputStream(new FileInputStream(input.toFile()));
+             PrintStream out = new PrintStream(new BufferedOutputStream(
+                     new LimitedOutputStream(new FileOutputStream(output.toFile()), budget), 1 << 16), false);
+             PrintStream err = new PrintStream(new BufferedOutputStream(
+                     new LimitedOutputStream(new FileOutputStream(error.toFile()), budget)), true)) {
+
+            System.setIn(in);
+            System.setOut(out);
+            System.setErr(err);
+
+            Throwable[] failure = new Throwable[1];
+            Thread solution = new Thread(() -> {
+                try {
+                    Class<?> mainClass = Class.forName("Solution", true, loader);
+                    Method main = mainClass.getMethod("main", String[].class);
+                    main.invoke(null, (Object) new String[0]);
+                } catch (InvocationTargetException e) {
+                    failure[0] = e.getCause();
+                } catch (Throwable t) {
+                    failure[0] = t;
+                }
+            }, "solution");
+            solution.setDaemon(true);
+
+            long start = System.nanoTime();
+            solution.start();
+            // Last CPU time seen per thread of the run; a thread that ended keeps its last sample
+            Map<Long, Long> runThreadCpu = new HashMap<>();
+            long cpuNanos = 0;
+            while (solution.isAlive()) {
+                solution.join(POLL_MILLIS);
+                cpuNanos = runCpuNanos(threads, workerThreads, runThreadCpu);
+                long wallMillis = (System.nanoTime() - start) / 1_000_000;
+                // CPU limit as given, wall limit with slack for I/O waits
+                if (cpuNanos / 1_000_000 > timeLimitMillis || wallMillis > 2 * timeLimitMillis) {
+                    outcome.exitCode = TIMEOUT_EXIT_CODE;
+                    outcome.reason = "time-limit";
+                    outcome.fatal = true;
+                    break;
+                }
+            }
+            if (!outcome.fatal) {
+                outcome.fatal = leavesThreadsBehind(workerThreads);
+                cpuNanos = runCpuNanos(threads, workerThreads, runThreadCpu);
+            }
+            outcome.wallMillis = (System.nanoTime() - start) / 1_000_000;
+            outcome.cpuMillis = cpuNanos / 1_000_000;
+            outcome.peakHeapBytes = heapPools.stream().mapToLong(pool -> pool.getPeakUsage().getUsed()).sum();
+            out.flush();
+
+            if (outcome.exitCode == 0 && budget.exceeded) {
+                outcome.exitCode = OUTPUT_LIMIT_EXIT_CODE;
+                outcome.reason = "output-limit";
+            } else if (outcome.exitCode == 0 && failure[0] != null) {
+                Throwable cause = failure[0];
+                if (cause instanceof ExitException exit) {
+                    outcome.exitCode = exit.status;
+                    outcome.reason = "exit";
+                } else {
+                    cause.printStackTrace(err);
+                    outcome.exitCode = 1;
+                    outcome.reason = cause.getClass().getSimpleName();
+                    outcome.fatal = cause instanceof OutOfMemoryError;
+                }
+            }
+        } catch (Throwable t) {
+            outcome.exitCode = 1;
+            outcome.reason = "worker-error";
+            outcome.fatal = true;
+        } finally {
+            System.setIn(originalIn);
+            System.setOut(originalOut);
+            System.setErr(originalErr);
+        }
+        if (!stateBefore.equals(new GlobalState())) {
+            outcome.fatal = true;
+        }
+        return outcome;
+    }
+
+    private static long runCpuNanos(ThreadMXBean threads, Set<Long> workerThreads, Map<Long, Long> runThreadCpu) {
+        for (long id : threads.getAllThreadIds()) {
+            if (!workerThreads.contains(id)) {
+                long threadCpu = threads.getThreadCpuTime(id);
+                if (threadCpu > 0) {
+                    runThreadCpu.put(id, threadCpu);
+                }
+            }
+        }
+        return runThreadCpu.values().stream().mapToLong(Long::longValue).sum();
+    }
+
+    /**
+     * Whether threads started during the run are still alive once the solution returned,
+     * after giving them a moment to wind down.
+     */
+    private static boolean leavesThreadsBehind(Set<Long> workerThreads) throws InterruptedException {
+        long deadline = System.nanoTime() + THREAD_GRACE_MILLIS * 1_000_000;
+        for (Thread thread : Thread.getAllStackTraces().keySet()) {
+            if (workerThreads.contains(thread.getId())) {
+                continue;
+            }
+            long remainingMillis = (deadline - System.nanoTime()) / 1_000_000;
+            if (remainingMillis > 0) {
+                thread.join(remainingMillis);
+            }
+            if (thread.isAlive()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /** Bytes a run may still write to stdout and stderr together. */
+    private static final class OutputBudget {
+        private long remaining;
+        private volatile boolean exceeded;
+
+        OutputBudget(long limit) {
+            this.remaining = limit;
+        }
+
+        /**
+         * Returns whether the bytes may be written. The write that crosses the limit
+         * throws; once over it, further writes (including the final flush) are dropped.
+         */
+        synchronized boolean take(int bytes) {
+            if (exceeded) {
+                return false;
+            }
+            remaining -= bytes;
+            if (remaining < 0) {
+                exceeded = true;
+                throw new OutputLimitError();
+            }
+            return true;
+        }
+    }
+
+    private static final class LimitedOutputStream extends OutputStream {
+        private final OutputStream target;
+        private final OutputBudget budget;
+
+        LimitedOutputStream(OutputStream target, OutputBudget budget) {
+            this.target = target;
+            this.budget = budget;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            if (budget.take(1)) {
+                target.write(b);
+            }
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            if (budget.take(len)) {
+                target.write(b, off, len);
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            target.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            target.close();
+        }
+    }
+
+    /** An Error rather than an IOException, which PrintStream would silently swallow. */
+    private static final class OutputLimitError extends Error {
+        private static final long serialVersionUID = 1L;
+
+        OutputLimitError() {
+            super("output limit exceeded");
+        }
+    }
+
+    private static final class Outcome {
+        int exitCode;
+        long wallMillis;
+        long cpuMillis;
+        long peakHeapBytes;
+        String reason = "ok";
+        boolean fatal;
+    }
+
+    /** JVM-wide settings a submission could change for the runs after it. */
+    private static final class GlobalState {
+        // Read first: the first lookup of the default time zone sets user.timezone
+        private final Locale locale = Locale.getDefault();
+        private final TimeZone timeZone = TimeZone.getDefault();
+        private final Properties properties = (Properties) System.getProperties().clone();
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof GlobalState state && properties.equals(state.properties)
+                    && locale.equals(state.locale) && timeZone.equals(state.timeZone);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(properties, locale, timeZone);
+        }
+    }
+
+    /**
+     * Turns System.exit in a submission into an exception carrying the status, and keeps
+     * submission code from removing the trap, taking over the worker's streams or reaching
+     * into the worker (see {@link #isWorkerState}).
+     */
+    private static final class ExitTrap extends SecurityManager {
+        @Override
+        public void checkPermission(Permission permission) {
+            if (Thread.currentThread() != workerThread && isWorkerState(permission)) {
+                // Everything a submission runs is on other threads; its classes have no grants
+                // (see WorkerPolicy), so this only passes inside a privileged block of the JDK
+                AccessController.checkPermission(permission);
+            }
+            if (!(permission instanceof RuntimePermission)) {
+                return;
+            }
+            String name = permission.getName();
+            if (name.equals("setSecurityManager")
+                    || (name.startsWith("exitVM") && !exitAllowed)
+                    || (name.equals("setIO") && Thread.currentThread() != workerThread)) {
+                throw new SecurityException("Not allowed in submissions: " + name);
+            }
+        }
+
+        /**
+         * Permissions that would let a submission tamper with the worker or the runs after
+         * it: private fields through reflection, processes, native code, the worker's own
+         * stdin/stdout and memory.
+         */
+        private static boolean isWorkerState(Permission permission) {
+            String name = permission.getName();
+            if (permission instanceof FilePermission) {
+                return permission.getActions().contains("execute") || name.startsWith("/proc/");
+            }
+            return permission instanceof ReflectPermission
+                    || permission instanceof ManagementPermission
+                    || (permission instanceof RuntimePermission && (name.startsWith("loadLibrary.")
+                            || name.equals("readFileDescriptor") || name.equals("writeFileDescriptor")));
+        }
+
+        @Override
+        public void checkExit(int status) {
+            if (!exitAllowed) {
+                throw new ExitException(status);
+            }
+        }
+    }
+
+    /**
+     * The JDK's policy, plus everything for the worker's own classes: they are on the stack
+     * of every check the trap makes. Submission classes get nothing beyond the JDK's policy.
+     */
+    private static final class WorkerPolicy extends Policy {
+        private final Policy defaults;
+
+        WorkerPolicy(Policy defaults) {
+            this.defaults = defaults;
+        }
+
+        @Override
+        public boolean implies(ProtectionDomain domain, Permission permission) {
+            return domain == JudgeJvmWorker.class.getProtectionDomain() || defaults.implies(domain, permission);
+        }
+    }
+
+    private static final class ExitException extends SecurityException {
+        private static final long serialVersionUID = 1L;
+        final int status;
+
+        ExitException(int status) {
+            super("System.exit(" + status + ")");
+            this.status = status;
+        }
+    }
+}
@@ -0,0 +1,197 @@
+"""
+Long-lived Python interpreter that runs submissions without paying interpreter startup and
+module imports per test.
+
+Protocol (one line per message, over stdin/stdout), the same as JudgeJvmWorker's:
+  backend -> zygote: first line is a session token, then
+                     RUN <work dir> <input file> <output file> <error file> <time limit ms> <output limit bytes>
+  zygote -> backend: <token> READY
+                     <token> DONE <exit code> <wall ms> <cpu ms> <reason> <peak rss bytes> <retiring>
+
+<retiring> is always 0: runs happen in forked children, so the zygote never has to retire.
+
+Common standard library modules are imported once, up front. Every run forks a child that
+redirects stdin/stdout/stderr to the given files, applies the CPU time and file size
+limits and runs <work dir>/solution.py as __main__, so nothing a submission changes
+survives into the next run. Each child starts its own session; once it ends, or when it
+exceeds its time limit, the whole process group is killed, so processes it started never
+outlive the run. A child that exceeds its time limit is reported with exit code 124; one
+killed by SIGXFSZ at the output limit with exit code 153. The peak is the child's maximum
+resident set size minus what it had right after the fork, which is the zygote's own
+footprint, so only memory the submission used is counted.
+"""
+
+import os
+import resource
+import signal
+import sys
+import threading
+import time
+
+# Preloaded for submissions; forked children find them in sys.modules
+import array  # noqa: F401
+import bisect  # noqa: F401
+import collections  # noqa: F401
+import copy  # noqa: F401
+import decimal  # noqa: F401
+import fractions  # noqa: F401
+import functools  # noqa: F401
+import heapq  # noqa: F401
+import io
+import itertools  # noqa: F401
+import math  # noqa: F401
+import operator  # noqa: F401
+import random  # noqa: F401
+import re  # noqa: F401
+import runpy
+import statistics  # noqa: F401
+import string  # noqa: F401
+import traceback
+import typing  # noqa: F401
+
+TIMEOUT_EXIT_CODE = 124
+OUTPUT_LIMIT_EXIT_CODE = 153
+
+
+def run_child(baseline_pipe, work_dir, input_file, output_file, error_file, time_limit_ms, output_limit):
+    """Runs in the forked child and never returns."""
+    code = 1
+    try:
+        os.setsid()
+        # Resident set inherited from the zygote; closed before any submission code runs
+        os.write(baseline_pipe, str(resource.getrusage(resource.RUSAGE_SELF).ru_maxrss).encode())
+        os.close(baseline_pipe)
+        for fd, path, flags in ((0, input_file, os.O_RDONLY),
+                                (1, output_file, os.O_WRONLY | os.O_CREAT | os.O_TRUNC),
+                                (2, error_file, os.O_WRONLY | os.O_CREAT | os.O_TRUNC)):
+            opened = os.open(path, flags, 0o644)
+            os.dup2(opened, fd)
+            os.close(opened)
+        sys.stdin = io.TextIOWrapper(io.FileIO(0, "r", closefd=False))
+        sys.stdout = io.TextIOWrapper(io.FileIO(1, "w", closefd=False), write_through=False)
+        sys.stderr = io.TextIOWrapper(io.FileIO(2, "w", closefd=False), line_buffering=True)
+
+        cpu_seconds = time_limit_ms // 1000 + 1
+        resource.setrlimit(resource.RLIMIT_CPU, (cpu_seconds, cpu_seconds + 1))
+        # One extra block, so the backend can tell an over-long output from one that exactly fits
+        resource.setrlimit(resource.RLIMIT_FSIZE, (output_limit + 1024, output_limit + 1024))
+        # The interpreter ignores SIGXFSZ at startup; a write past the limit has to kill the child
+        signal.signal(signal.SIGXFSZ, signal.SIG_DFL)
+
+        os.chdir(work_dir)
+        sys.path[0] = work_dir
+        sys.argv = ["solution.py"]
+        try:
+            runpy.run_path(os.path.join(work_dir, "solution.py"), run_name="__main__")
+            code = 0
+        except SystemExit as e:
+            if e.code is None:
+                code = 0
+            elif isinstance(e.code, int):
+                code = e.code & 0xff
+            else:
+                print(e.code, file=sys.stderr)
+                code = 1
+        except BaseException:
+            traceback.print_exc()
+            code = 1
+        sys.stdout.flush()
+        sys.stderr.flush()
+    except BaseException:
+        try:
+            traceback.print_exc()
+        except BaseException:
+            pass
+        code = 1
+    os._exit(code)
+
+
+def run(args):
+    work_dir, input_file, output_file, error_file = args[0:4]
+    time_limit_ms, output_limit = int(args[4]), int(args[5])
+
+    baseline_read, baseline_write = os.pipe()
+    start = time.monotonic()
+    pid = os.fork()
+    if pid == 0:
+        os.close(baseline_read)
+        run_child(baseline_write, work_dir, input_file, output_file, error_file, time_limit_ms, output_limit)
+    os.close(baseline_write)
+
+    timed_out = threading.Event()
+
+    def kill():
+        timed_out.set()
+        kill_group(pid)
+
+    timer = threading.Timer(time_limit_ms / 1000.0, kill)
+    timer.start()
+    _, status, usage = os.wait4(pid, 0)
+    timer.cancel()
+    # Whatever the child left running in its session goes with it
+    kill_group(pid)
+    reap_orphans()
+
+    wall = int((time.monotonic() - start) * 1000)
+    cpu = int((usage.ru_utime + usage.ru_stime) * 1000)
+    peak = max(0, usage.ru_maxrss - read_baseline(baseline_read)) * 1024
+    if timed_out.is_set() or (os.WIFSIGNALED(status) and os.WTERMSIG(status) == signal.SIGXCPU):
+        return TIMEOUT_EXIT_CODE, wall, cpu, "time-limit", peak
+    if os.WIFSIGNALED(status):
+        sig = os.WTERMSIG(status)
+        if sig == signal.SIGXFSZ:
+            return OUTPUT_LIMIT_EXIT_CODE, wall, cpu, "output-limit", peak
+        return 128 + sig, wall, cpu, signal.Signals(sig).name, peak
+    code = os.WEXITSTATUS(status)
+    return code, wall, cpu, "ok" if code == 0 else "exit", peak
+
+
+def kill_group(pid):
+    try:
+        os.killpg(pid, signal.SIGKILL)
+    except (ProcessLookupError, PermissionError):
+        pass
+
+
+def reap_orphans():
+    """The zygote is the container's init, so processes orphaned by a run end up as its children."""
+    while True:
+        try:
+            pid, _ = os.waitpid(-1, os.WNOHANG)
+        except ChildProcessError:
+            return
+        if pid == 0:
+            return
+
+
+def read_baseline(pipe):
+    """Resident set size in KiB the child reported right after the fork, 0 if it never did."""
+    try:
+        data = os.read(pipe, 32)
+        return int(data) if data else 0
+    except (OSError, ValueError):
+        return 0
+    finally:
+        os.close(pipe)
+
+
+def main():
+    commands = sys.stdin
+    token = commands.readline().strip()
+    if not token:
+        return
+    print(token + " READY", flush=True)
+    for line in commands:
+        parts = line.split()
+        if len(parts) != 7 or parts[0] != "RUN":
+            continue
+        try:
+            code, wall, cpu, reason, peak = run(parts[1:])
+        except Exception as e:
+            code, wall, cpu, reason, peak = 1, 0, 0, "worker-error", 0
+            print(repr(e), file=sys.stderr, flush=True)
+        print("%s DONE %d %d %d %s %d 0" % (token, code, wall, cpu, reason, peak), flush=True)
+
+
+if __name__ == "__main__":
+    main()
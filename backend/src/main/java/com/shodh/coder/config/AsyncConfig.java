@@ -2,13 +2,16 @@ package com.shodh.coder.config;
 
 import java.util.concurrent.Executor;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
 @Configuration
 @EnableAsync
+@EnableScheduling
 public class AsyncConfig {
 
     @Bean(name = "taskExecutor")
@@ -21,4 +24,29 @@ public class AsyncConfig {
         executor.initialize();
         return executor;
     }
+
+    // Judge-wide sandbox slots for parallel test case execution
+    @Bean(name = "testCaseExecutor")
+    public ThreadPoolTaskExecutor testCaseExecutor(@Value("${app.judge.parallel.slots:4}") int slots) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(slots);
+        executor.setMaxPoolSize(slots);
+        executor.setQueueCapacity(Integer.MAX_VALUE);
+        executor.setThreadNamePrefix("TestCaseRunner-");
+        executor.initialize();
+        return executor;
+    }
+
+    // Run-only requests, apart from judging; a full queue rejects instead of making callers wait
+    @Bean(name = "runExecutor")
+    public ThreadPoolTaskExecutor runExecutor(@Value("${app.run.concurrency:2}") int concurrency,
+            @Value("${app.run.queue-capacity:10}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(concurrency);
+        executor.setMaxPoolSize(concurrency);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("CodeRunner-");
+        executor.initialize();
+        return executor;
+    }
 } 
\ No newline at end of file
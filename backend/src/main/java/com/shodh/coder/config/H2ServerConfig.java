@@ -0,0 +1,32 @@
+package com.shodh.coder.config;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.h2.tools.Server;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Exposes the H2 database of an API node over TCP, so worker nodes can share its tables
+ * and judge queue. Workers address it by the API node's {@code app.h2.database} path.
+ * Start the API node before its workers.
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.h2.tcp-server.enabled", havingValue = "true")
+public class H2ServerConfig {
+
+    @Bean(initMethod = "start", destroyMethod = "stop")
+    public Server h2TcpServer(@Value("${app.h2.tcp-server.port:9092}") int port,
+            @Value("${app.h2.tcp-server.allow-others:false}") boolean allowOthers) throws SQLException {
+        List<String> args = new ArrayList<>(List.of("-tcp", "-tcpPort", String.valueOf(port)));
+        if (allowOthers) {
+            // Needed when workers run on other hosts or in other containers
+            args.add("-tcpAllowOthers");
+        }
+        return Server.createTcpServer(args.toArray(new String[0]));
+    }
+}
@@ -0,0 +1,28 @@
+package com.shodh.coder.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * What this process does, from {@code app.node.role}: {@code all} serves the API and judges
+ * (a single-node setup), {@code api} only serves the API and enqueues submissions,
+ * {@code worker} only judges submissions from the shared queue.
+ */
+@Component
+public class NodeRole {
+
+    @Value("${app.node.role:all}")
+    private String role;
+
+    public String getRole() {
+        return role.toLowerCase();
+    }
+
+    public boolean servesApi() {
+        return !"worker".equalsIgnoreCase(role);
+    }
+
+    public boolean judges() {
+        return !"api".equalsIgnoreCase(role);
+    }
+}
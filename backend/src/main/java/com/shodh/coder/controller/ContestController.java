@@ -8,17 +8,24 @@ import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import com.shodh.coder.dto.ContestResponseDto;
 import com.shodh.coder.dto.LeaderboardEntryDto;
 import com.shodh.coder.service.ContestService;
+import com.shodh.coder.service.LeaderboardService;
 
 @RestController
 @RequestMapping("/api/contests")
 @CrossOrigin(origins = {"http://localhost:3000", "http://localhost:3001"})
 public class ContestController {
 
+    private static final String TOTAL_COUNT_HEADER = "X-Total-Count";
+
+    private static final int MAX_PAGE_SIZE = 200;
+    private static final int MAX_AROUND_RADIUS = 50;
+
     @Autowired
     private ContestService contestService;
 
@@ -35,13 +42,43 @@ public class ContestController {
         return ResponseEntity.ok(contests);
     }
 
+    // Without a page the whole ranking is returned; with one, X-Total-Count carries the number of ranked users
     @GetMapping("/{contestId}/leaderboard")
-    public ResponseEntity<List<LeaderboardEntryDto>> getLeaderboard(@PathVariable Long contestId) {
+    public ResponseEntity<List<LeaderboardEntryDto>> getLeaderboard(@PathVariable Long contestId,
+            @RequestParam(required = false) Integer page, @RequestParam(defaultValue = "50") int size) {
         if (!contestService.contestExists(contestId)) {
             return ResponseEntity.notFound().build();
         }
+        if (page == null) {
+            List<LeaderboardEntryDto> leaderboard = contestService.getLeaderboard(contestId);
+            return ResponseEntity.ok(leaderboard);
+        }
+        if (page < 0 || size < 1 || size > MAX_PAGE_SIZE) {
+            return ResponseEntity.badRequest().build();
+        }
 
-        List<LeaderboardEntryDto> leaderboard = contestService.getLeaderboard(contestId);
-        return ResponseEntity.ok(leaderboard);
+        LeaderboardService.LeaderboardPage leaderboard = contestService.getLeaderboardPage(contestId, page, size);
+        return ResponseEntity.ok()
+                .header(TOTAL_COUNT_HEADER, String.valueOf(leaderboard.getTotal()))
+                .body(leaderboard.getEntries());
+    }
+
+    @GetMapping("/{contestId}/leaderboard/rank-of/{userId}")
+    public ResponseEntity<LeaderboardEntryDto> getRankOf(@PathVariable Long contestId, @PathVariable Long userId) {
+        return contestService.getRankOf(contestId, userId)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    // The user's standing with up to radius users above and below it
+    @GetMapping("/{contestId}/leaderboard/around/{userId}")
+    public ResponseEntity<List<LeaderboardEntryDto>> getLeaderboardAround(@PathVariable Long contestId,
+            @PathVariable Long userId, @RequestParam(defaultValue = "5") int radius) {
+        if (radius < 0 || radius > MAX_AROUND_RADIUS) {
+            return ResponseEntity.badRequest().build();
+        }
+        return contestService.getLeaderboardAround(contestId, userId, radius)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
     }
 }
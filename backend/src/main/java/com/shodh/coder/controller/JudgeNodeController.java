@@ -0,0 +1,37 @@
+package com.shodh.coder.controller;
+
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.shodh.coder.dto.JudgeNodeDto;
+import com.shodh.coder.dto.JudgeQueueStatsDto;
+import com.shodh.coder.service.JudgeQueueService;
+import com.shodh.coder.service.NodeHeartbeatService;
+
+@RestController
+@RequestMapping("/api/judge")
+@CrossOrigin(origins = {"http://localhost:3000", "http://localhost:3001"})
+public class JudgeNodeController {
+
+    @Autowired
+    private NodeHeartbeatService nodeHeartbeatService;
+
+    @Autowired
+    private JudgeQueueService judgeQueueService;
+
+    @GetMapping("/nodes")
+    public ResponseEntity<List<JudgeNodeDto>> getNodes() {
+        return ResponseEntity.ok(nodeHeartbeatService.getNodes());
+    }
+
+    @GetMapping("/queue")
+    public ResponseEntity<List<JudgeQueueStatsDto>> getQueueStats() {
+        return ResponseEntity.ok(judgeQueueService.getQueueStats());
+    }
+}
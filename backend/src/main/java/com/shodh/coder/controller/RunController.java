@@ -0,0 +1,48 @@
+package com.shodh.coder.controller;
+
+import java.util.concurrent.TimeoutException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.shodh.coder.dto.RunRequestDto;
+import com.shodh.coder.dto.RunResponseDto;
+import com.shodh.coder.service.RunService;
+
+import jakarta.validation.Valid;
+
+@RestController
+@RequestMapping("/api/runs")
+@CrossOrigin(origins = {"http://localhost:3000", "http://localhost:3001"})
+public class RunController {
+
+    private static final Logger logger = LoggerFactory.getLogger(RunController.class);
+
+    @Autowired
+    private RunService runService;
+
+    @PostMapping
+    public ResponseEntity<RunResponseDto> run(@Valid @RequestBody RunRequestDto request) throws InterruptedException {
+        try {
+            return ResponseEntity.ok(runService.run(request));
+        } catch (IllegalArgumentException e) {
+            logger.info("Rejecting run for problem {}: {}", request.getProblemId(), e.getMessage());
+            return ResponseEntity.badRequest().build();
+        } catch (TaskRejectedException e) {
+            logger.info("Run lane full, rejecting run for problem {}", request.getProblemId());
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).build();
+        } catch (TimeoutException e) {
+            logger.info("Run for problem {} did not finish in time", request.getProblemId());
+            return ResponseEntity.status(HttpStatus.GATEWAY_TIMEOUT).build();
+        }
+    }
+}
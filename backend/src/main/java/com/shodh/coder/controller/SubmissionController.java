@@ -5,6 +5,7 @@ import java.util.List;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -14,10 +15,15 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import com.shodh.coder.dto.SubmissionRequestDto;
 import com.shodh.coder.dto.SubmissionResponseDto;
+import com.shodh.coder.dto.SubmissionStatusDto;
 import com.shodh.coder.service.SubmissionService;
+import com.shodh.coder.service.SubmissionStatusCache;
+import com.shodh.coder.service.SubmissionStreamService;
 
 import jakarta.validation.Valid;
 
@@ -28,21 +34,44 @@ public class SubmissionController {
 
     private static final Logger logger = LoggerFactory.getLogger(SubmissionController.class);
 
+    private static final int MAX_STATUS_IDS = 100;
+
     @Autowired
     private SubmissionService submissionService;
 
+    @Autowired
+    private SubmissionStreamService submissionStreamService;
+
+    @Autowired
+    private SubmissionStatusCache submissionStatusCache;
+
     @PostMapping
     public ResponseEntity<SubmissionResponseDto> createSubmission(@Valid @RequestBody SubmissionRequestDto request) {
         try {
             SubmissionResponseDto response = submissionService.createSubmission(request);
             logger.info("Submission created: {}", response);
-            return ResponseEntity.ok(response);
+            // Judged in the background once the submission is committed; poll it for the verdict
+            return ResponseEntity.accepted().body(response);
         } catch (RuntimeException e) {
             logger.info("Failed to create submission: {}", e.getMessage());
             return ResponseEntity.badRequest().build();
         }
     }
 
+    // Compact statuses for pollers, answered from memory; If-None-Match gets a 304 while nothing changed
+    @GetMapping("/status")
+    public ResponseEntity<List<SubmissionStatusDto>> getStatuses(@RequestParam List<Long> ids, WebRequest request) {
+        if (ids.size() > MAX_STATUS_IDS) {
+            return ResponseEntity.badRequest().build();
+        }
+        List<SubmissionStatusDto> statuses = submissionStatusCache.getStatuses(ids);
+        String etag = SubmissionStatusCache.etag(statuses);
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
+        return ResponseEntity.ok().eTag(etag).body(statuses);
+    }
+
     @GetMapping("/{submissionId}")
     public ResponseEntity<SubmissionResponseDto> getSubmission(@PathVariable Long submissionId) {
         return submissionService.getSubmissionById(submissionId)
@@ -57,4 +86,17 @@ public class SubmissionController {
         List<SubmissionResponseDto> submissions = submissionService.getSubmissionsByUser(userId, contestId);
         return ResponseEntity.ok(submissions);
     }
-}
\ No newline at end of file
+
+    // Server-Sent Events: "submission" on status changes, "progress" per judged test case
+    @GetMapping(value = "/{submissionId}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamSubmission(@PathVariable Long submissionId) {
+        return submissionStreamService.subscribeToSubmission(submissionId);
+    }
+
+    @GetMapping(value = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamSubmissions(
+            @RequestParam Long userId,
+            @RequestParam Long contestId) {
+        return submissionStreamService.subscribeToUser(userId, contestId);
+    }
+}
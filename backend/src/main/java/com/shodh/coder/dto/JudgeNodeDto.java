@@ -0,0 +1,54 @@
+package com.shodh.coder.dto;
+
+import java.time.LocalDateTime;
+
+import com.shodh.coder.entity.JudgeNode;
+
+public class JudgeNodeDto {
+    private String nodeId;
+    private String role;
+    private String host;
+    private Integer capacity;
+    private Integer activeJobs;
+    private LocalDateTime startedAt;
+    private LocalDateTime lastHeartbeat;
+    private boolean alive;
+
+    public JudgeNodeDto() {}
+
+    public JudgeNodeDto(JudgeNode node, boolean alive) {
+        this.nodeId = node.getNodeId();
+        this.role = node.getRole();
+        this.host = node.getHost();
+        this.capacity = node.getCapacity();
+        this.activeJobs = node.getActiveJobs();
+        this.startedAt = node.getStartedAt();
+        this.lastHeartbeat = node.getLastHeartbeat();
+        this.alive = alive;
+    }
+
+    // Getters and Setters
+    public String getNodeId() { return nodeId; }
+    public void setNodeId(String nodeId) { this.nodeId = nodeId; }
+
+    public String getRole() { return role; }
+    public void setRole(String role) { this.role = role; }
+
+    public String getHost() { return host; }
+    public void setHost(String host) { this.host = host; }
+
+    public Integer getCapacity() { return capacity; }
+    public void setCapacity(Integer capacity) { this.capacity = capacity; }
+
+    public Integer getActiveJobs() { return activeJobs; }
+    public void setActiveJobs(Integer activeJobs) { this.activeJobs = activeJobs; }
+
+    public LocalDateTime getStartedAt() { return startedAt; }
+    public void setStartedAt(LocalDateTime startedAt) { this.startedAt = startedAt; }
+
+    public LocalDateTime getLastHeartbeat() { return lastHeartbeat; }
+    public void setLastHeartbeat(LocalDateTime lastHeartbeat) { this.lastHeartbeat = lastHeartbeat; }
+
+    public boolean isAlive() { return alive; }
+    public void setAlive(boolean alive) { this.alive = alive; }
+}
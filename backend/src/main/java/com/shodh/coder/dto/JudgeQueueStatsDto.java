@@ -0,0 +1,57 @@
+package com.shodh.coder.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.shodh.coder.entity.JudgeJobStatus;
+
+/**
+ * Judge queue load of one contest, or of one user in a contest ({@code userId} set).
+ */
+public class JudgeQueueStatsDto {
+    private Long contestId;
+    private Long userId;
+    private long queued;
+    private long inFlight;
+    private long oldestWaitMillis;
+    private List<JudgeQueueStatsDto> users;
+
+    public JudgeQueueStatsDto() {}
+
+    public JudgeQueueStatsDto(Long contestId, Long userId) {
+        this.contestId = contestId;
+        this.userId = userId;
+        this.users = userId == null ? new ArrayList<>() : null;
+    }
+
+    /**
+     * Adds open jobs; the wait of the oldest one only counts while it is still queued.
+     */
+    public void add(JudgeJobStatus status, long jobs, long oldestAgeMillis) {
+        if (status == JudgeJobStatus.QUEUED) {
+            queued += jobs;
+            oldestWaitMillis = Math.max(oldestWaitMillis, oldestAgeMillis);
+        } else {
+            inFlight += jobs;
+        }
+    }
+
+    // Getters and Setters
+    public Long getContestId() { return contestId; }
+    public void setContestId(Long contestId) { this.contestId = contestId; }
+
+    public Long getUserId() { return userId; }
+    public void setUserId(Long userId) { this.userId = userId; }
+
+    public long getQueued() { return queued; }
+    public void setQueued(long queued) { this.queued = queued; }
+
+    public long getInFlight() { return inFlight; }
+    public void setInFlight(long inFlight) { this.inFlight = inFlight; }
+
+    public long getOldestWaitMillis() { return oldestWaitMillis; }
+    public void setOldestWaitMillis(long oldestWaitMillis) { this.oldestWaitMillis = oldestWaitMillis; }
+
+    public List<JudgeQueueStatsDto> getUsers() { return users; }
+    public void setUsers(List<JudgeQueueStatsDto> users) { this.users = users; }
+}
@@ -4,6 +4,8 @@ public class LeaderboardEntryDto {
     private String username;
     private Long score;
     private Integer problemsSolved;
+    // Minutes to each first accepted submission plus the per-attempt penalty, over solved problems
+    private Long penalty;
     private Integer rank;
 
     public LeaderboardEntryDto() {}
@@ -14,6 +16,11 @@ public class LeaderboardEntryDto {
         this.problemsSolved = problemsSolved;
     }
 
+    public LeaderboardEntryDto(String username, Long score, Integer problemsSolved, Long penalty) {
+        this(username, score, problemsSolved);
+        this.penalty = penalty;
+    }
+
     // Getters and Setters
     public String getUsername() { return username; }
     public void setUsername(String username) { this.username = username; }
@@ -24,6 +31,9 @@ public class LeaderboardEntryDto {
     public Integer getProblemsSolved() { return problemsSolved; }
     public void setProblemsSolved(Integer problemsSolved) { this.problemsSolved = problemsSolved; }
     
+    public Long getPenalty() { return penalty; }
+    public void setPenalty(Long penalty) { this.penalty = penalty; }
+    
     public Integer getRank() { return rank; }
     public void setRank(Integer rank) { this.rank = rank; }
 } 
\ No newline at end of file
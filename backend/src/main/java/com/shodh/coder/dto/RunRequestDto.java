@@ -0,0 +1,34 @@
+package com.shodh.coder.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+
+public class RunRequestDto {
+    @NotNull(message = "Problem ID is required")
+    private Long problemId;
+    
+    @NotBlank(message = "Code is required")
+    private String code;
+    
+    @NotBlank(message = "Language is required")
+    private String language;
+    
+    // Custom stdin; the problem's sample tests are run when absent
+    private String input;
+
+    // Constructors
+    public RunRequestDto() {}
+
+    // Getters and Setters
+    public Long getProblemId() { return problemId; }
+    public void setProblemId(Long problemId) { this.problemId = problemId; }
+    
+    public String getCode() { return code; }
+    public void setCode(String code) { this.code = code; }
+    
+    public String getLanguage() { return language; }
+    public void setLanguage(String language) { this.language = language; }
+    
+    public String getInput() { return input; }
+    public void setInput(String input) { this.input = input; }
+}
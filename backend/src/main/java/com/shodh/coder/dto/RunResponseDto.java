@@ -0,0 +1,87 @@
+package com.shodh.coder.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.shodh.coder.entity.SubmissionStatus;
+import com.shodh.coder.service.CodeJudgeService;
+
+public class RunResponseDto {
+    private SubmissionStatus status;
+    private String compilationError;
+    private List<RunCaseDto> cases;
+
+    public RunResponseDto() {}
+
+    public RunResponseDto(CodeJudgeService.CodeRunResult result, List<String> inputs, List<String> expectedOutputs) {
+        this.status = result.getStatus();
+        this.compilationError = result.getCompilationError();
+        this.cases = new ArrayList<>();
+        for (int i = 0; i < result.getCases().size(); i++) {
+            cases.add(new RunCaseDto(result.getCases().get(i), inputs.get(i), expectedOutputs.get(i)));
+        }
+    }
+
+    // Getters and Setters
+    public SubmissionStatus getStatus() { return status; }
+    public void setStatus(SubmissionStatus status) { this.status = status; }
+
+    public String getCompilationError() { return compilationError; }
+    public void setCompilationError(String compilationError) { this.compilationError = compilationError; }
+
+    public List<RunCaseDto> getCases() { return cases; }
+    public void setCases(List<RunCaseDto> cases) { this.cases = cases; }
+
+    public static class RunCaseDto {
+        private String input;
+        private String expectedOutput; // null for custom input
+        private String output;
+        private String errorOutput;
+        private SubmissionStatus status; // ACCEPTED for a clean run on custom input
+        private String message;
+        private long executionTime;
+        private long cpuTime;
+        private long memoryUsed;
+
+        public RunCaseDto() {}
+
+        public RunCaseDto(CodeJudgeService.CodeRunCase runCase, String input, String expectedOutput) {
+            this.input = input;
+            this.expectedOutput = expectedOutput;
+            this.output = runCase.getOutput();
+            this.errorOutput = runCase.getErrorOutput();
+            this.status = runCase.getResult().getStatus();
+            this.message = runCase.getResult().getErrorMessage();
+            this.executionTime = runCase.getResult().getExecutionTime();
+            this.cpuTime = runCase.getResult().getCpuTime();
+            this.memoryUsed = runCase.getResult().getMemoryUsed();
+        }
+
+        public String getInput() { return input; }
+        public void setInput(String input) { this.input = input; }
+
+        public String getExpectedOutput() { return expectedOutput; }
+        public void setExpectedOutput(String expectedOutput) { this.expectedOutput = expectedOutput; }
+
+        public String getOutput() { return output; }
+        public void setOutput(String output) { this.output = output; }
+
+        public String getErrorOutput() { return errorOutput; }
+        public void setErrorOutput(String errorOutput) { this.errorOutput = errorOutput; }
+
+        public SubmissionStatus getStatus() { return status; }
+        public void setStatus(SubmissionStatus status) { this.status = status; }
+
+        public String getMessage() { return message; }
+        public void setMessage(String message) { this.message = message; }
+
+        public long getExecutionTime() { return executionTime; }
+        public void setExecutionTime(long executionTime) { this.executionTime = executionTime; }
+
+        public long getCpuTime() { return cpuTime; }
+        public void setCpuTime(long cpuTime) { this.cpuTime = cpuTime; }
+
+        public long getMemoryUsed() { return memoryUsed; }
+        public void setMemoryUsed(long memoryUsed) { this.memoryUsed = memoryUsed; }
+    }
+}
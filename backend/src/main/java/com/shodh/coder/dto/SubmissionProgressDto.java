@@ -0,0 +1,41 @@
+package com.shodh.coder.dto;
+
+import com.shodh.coder.entity.SubmissionStatus;
+
+/**
+ * One test case of a running submission was judged.
+ */
+public class SubmissionProgressDto {
+    private Long submissionId;
+    private int testCase;
+    private int totalTestCases;
+    private int testCasesPassed;
+    private SubmissionStatus testCaseStatus;
+
+    public SubmissionProgressDto() {}
+
+    public SubmissionProgressDto(Long submissionId, int testCase, int totalTestCases, int testCasesPassed,
+            SubmissionStatus testCaseStatus) {
+        this.submissionId = submissionId;
+        this.testCase = testCase;
+        this.totalTestCases = totalTestCases;
+        this.testCasesPassed = testCasesPassed;
+        this.testCaseStatus = testCaseStatus;
+    }
+
+    // Getters and Setters
+    public Long getSubmissionId() { return submissionId; }
+    public void setSubmissionId(Long submissionId) { this.submissionId = submissionId; }
+
+    public int getTestCase() { return testCase; }
+    public void setTestCase(int testCase) { this.testCase = testCase; }
+
+    public int getTotalTestCases() { return totalTestCases; }
+    public void setTotalTestCases(int totalTestCases) { this.totalTestCases = totalTestCases; }
+
+    public int getTestCasesPassed() { return testCasesPassed; }
+    public void setTestCasesPassed(int testCasesPassed) { this.testCasesPassed = testCasesPassed; }
+
+    public SubmissionStatus getTestCaseStatus() { return testCaseStatus; }
+    public void setTestCaseStatus(SubmissionStatus testCaseStatus) { this.testCaseStatus = testCaseStatus; }
+}
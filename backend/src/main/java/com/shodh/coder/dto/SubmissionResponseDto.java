@@ -10,6 +10,7 @@ public class SubmissionResponseDto {
     private SubmissionStatus status;
     private String result;
     private Long executionTime;
+    private Long cpuTime;
     private Long memoryUsed;
     private Integer testCasesPassed;
     private Integer totalTestCases;
@@ -27,6 +28,7 @@ public class SubmissionResponseDto {
         this.status = submission.getStatus();
         this.result = submission.getResult();
         this.executionTime = submission.getExecutionTime();
+        this.cpuTime = submission.getCpuTime();
         this.memoryUsed = submission.getMemoryUsed();
         this.testCasesPassed = submission.getTestCasesPassed();
         this.totalTestCases = submission.getTotalTestCases();
@@ -51,6 +53,9 @@ public class SubmissionResponseDto {
     public Long getExecutionTime() { return executionTime; }
     public void setExecutionTime(Long executionTime) { this.executionTime = executionTime; }
     
+    public Long getCpuTime() { return cpuTime; }
+    public void setCpuTime(Long cpuTime) { this.cpuTime = cpuTime; }
+    
     public Long getMemoryUsed() { return memoryUsed; }
     public void setMemoryUsed(Long memoryUsed) { this.memoryUsed = memoryUsed; }
     
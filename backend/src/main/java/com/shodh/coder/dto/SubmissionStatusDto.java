@@ -0,0 +1,32 @@
+package com.shodh.coder.dto;
+
+import com.shodh.coder.entity.SubmissionStatus;
+
+public class SubmissionStatusDto {
+    private Long id;
+    private SubmissionStatus status;
+    private int testCasesPassed;
+    private int totalTestCases;
+
+    public SubmissionStatusDto() {}
+
+    public SubmissionStatusDto(Long id, SubmissionStatus status, int testCasesPassed, int totalTestCases) {
+        this.id = id;
+        this.status = status;
+        this.testCasesPassed = testCasesPassed;
+        this.totalTestCases = totalTestCases;
+    }
+
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public SubmissionStatus getStatus() { return status; }
+    public void setStatus(SubmissionStatus status) { this.status = status; }
+
+    public int getTestCasesPassed() { return testCasesPassed; }
+    public void setTestCasesPassed(int testCasesPassed) { this.testCasesPassed = testCasesPassed; }
+
+    public int getTotalTestCases() { return totalTestCases; }
+    public void setTotalTestCases(int totalTestCases) { this.totalTestCases = totalTestCases; }
+}
@@ -0,0 +1,10 @@
+package com.shodh.coder.entity;
+
+public enum CheckerMode {
+    // Character-exact, ignoring only whitespace before and after the whole output
+    EXACT,
+    // Compares whitespace-separated tokens, layout does not matter
+    WHITESPACE_INSENSITIVE,
+    // Like WHITESPACE_INSENSITIVE, numeric tokens may differ by the problem's float tolerance
+    FLOAT_TOLERANCE
+}
@@ -0,0 +1,158 @@
+package com.shodh.coder.entity;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import jakarta.persistence.Version;
+
+/**
+ * A user's standing on one contest problem, folded from their verdicts in the verdict's own
+ * transaction, so scoring reads one row per user and problem instead of the submission
+ * history. Attempts are the rejected submissions made before the first accepted one; the
+ * penalty is the minutes from the contest start to that submission plus a penalty per
+ * attempt. Both are recomputed under the row lock, so verdicts may arrive in any order.
+ */
+@Entity
+@Table(name = "contest_user_problem_result",
+    uniqueConstraints = @UniqueConstraint(name = "uk_contest_user_problem", columnNames = {"contest_id", "user_id", "problem_id"}),
+    indexes = @Index(name = "idx_contest_user_problem_contest", columnList = "contest_id"))
+public class ContestUserProblemResult {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "contest_id", nullable = false)
+    private Long contestId;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "problem_id", nullable = false)
+    private Long problemId;
+
+    // Rejected submissions made before the first accepted one; compilation and system errors don't count
+    @Column(nullable = false)
+    private Integer attempts = 0;
+
+    @Column(name = "first_accepted_at")
+    private LocalDateTime firstAcceptedAt;
+
+    @Column(name = "best_score", nullable = false)
+    private Integer bestScore = 0;
+
+    @Column(name = "penalty_minutes", nullable = false)
+    private Long penaltyMinutes = 0L;
+
+    // Bumped on every change, so readers can tell which of two copies is newer
+    @Version
+    private Long version;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    // Constructors
+    public ContestUserProblemResult() {
+        this.updatedAt = LocalDateTime.now();
+    }
+
+    public ContestUserProblemResult(Long contestId, Long userId, Long problemId) {
+        this();
+        this.contestId = contestId;
+        this.userId = userId;
+        this.problemId = problemId;
+    }
+
+    public boolean isSolved() {
+        return firstAcceptedAt != null;
+    }
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getContestId() {
+        return contestId;
+    }
+
+    public void setContestId(Long contestId) {
+        this.contestId = contestId;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
+
+    public Long getProblemId() {
+        return problemId;
+    }
+
+    public void setProblemId(Long problemId) {
+        this.problemId = problemId;
+    }
+
+    public Integer getAttempts() {
+        return attempts;
+    }
+
+    public void setAttempts(Integer attempts) {
+        this.attempts = attempts;
+        this.updatedAt = LocalDateTime.now();
+    }
+
+    public LocalDateTime getFirstAcceptedAt() {
+        return firstAcceptedAt;
+    }
+
+    public void setFirstAcceptedAt(LocalDateTime firstAcceptedAt) {
+        this.firstAcceptedAt = firstAcceptedAt;
+        this.updatedAt = LocalDateTime.now();
+    }
+
+    public Integer getBestScore() {
+        return bestScore;
+    }
+
+    public void setBestScore(Integer bestScore) {
+        this.bestScore = bestScore;
+    }
+
+    public Long getPenaltyMinutes() {
+        return penaltyMinutes;
+    }
+
+    public void setPenaltyMinutes(Long penaltyMinutes) {
+        this.penaltyMinutes = penaltyMinutes;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
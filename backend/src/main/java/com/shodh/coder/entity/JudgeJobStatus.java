@@ -0,0 +1,8 @@
+package com.shodh.coder.entity;
+
+public enum JudgeJobStatus {
+    QUEUED,
+    LEASED,
+    DONE,
+    FAILED
+}
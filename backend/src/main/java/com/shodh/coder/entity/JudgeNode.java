@@ -0,0 +1,102 @@
+package com.shodh.coder.entity;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+/**
+ * Heartbeat row of one backend process, refreshed periodically while it runs.
+ */
+@Entity
+@Table(name = "judge_nodes")
+public class JudgeNode {
+    @Id
+    @Column(name = "node_id")
+    private String nodeId;
+
+    @Column(nullable = false)
+    private String role;
+
+    private String host;
+
+    // Submissions the node judges at once, 0 for API nodes
+    @Column(nullable = false)
+    private Integer capacity = 0;
+
+    @Column(name = "active_jobs", nullable = false)
+    private Integer activeJobs = 0;
+
+    @Column(name = "started_at")
+    private LocalDateTime startedAt;
+
+    @Column(name = "last_heartbeat")
+    private LocalDateTime lastHeartbeat;
+
+    // Constructors
+    public JudgeNode() {}
+
+    public JudgeNode(String nodeId) {
+        this.nodeId = nodeId;
+        this.startedAt = LocalDateTime.now();
+    }
+
+    // Getters and Setters
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    public void setNodeId(String nodeId) {
+        this.nodeId = nodeId;
+    }
+
+    public String getRole() {
+        return role;
+    }
+
+    public void setRole(String role) {
+        this.role = role;
+    }
+
+    public String getHost() {
+        return host;
+    }
+
+    public void setHost(String host) {
+        this.host = host;
+    }
+
+    public Integer getCapacity() {
+        return capacity;
+    }
+
+    public void setCapacity(Integer capacity) {
+        this.capacity = capacity;
+    }
+
+    public Integer getActiveJobs() {
+        return activeJobs;
+    }
+
+    public void setActiveJobs(Integer activeJobs) {
+        this.activeJobs = activeJobs;
+    }
+
+    public LocalDateTime getStartedAt() {
+        return startedAt;
+    }
+
+    public void setStartedAt(LocalDateTime startedAt) {
+        this.startedAt = startedAt;
+    }
+
+    public LocalDateTime getLastHeartbeat() {
+        return lastHeartbeat;
+    }
+
+    public void setLastHeartbeat(LocalDateTime lastHeartbeat) {
+        this.lastHeartbeat = lastHeartbeat;
+    }
+}
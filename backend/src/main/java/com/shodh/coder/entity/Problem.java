@@ -38,9 +38,19 @@ public class Problem {
     @Column(name = "memory_limit")
     private Integer memoryLimit; // in MB
 
+    @Column(name = "output_limit")
+    private Integer outputLimit; // in MB, app.judge.output.default-limit-mb when not set
+
     @NotNull(message = "Points are required")
     private Integer points;
 
+    @Enumerated(EnumType.STRING)
+    @Column(name = "checker_mode")
+    private CheckerMode checkerMode = CheckerMode.EXACT;
+
+    @Column(name = "float_tolerance")
+    private Double floatTolerance = 1e-6; // absolute or relative, for FLOAT_TOLERANCE
+
     @Column(name = "created_at")
     private LocalDateTime createdAt;
 
@@ -121,6 +131,14 @@ public class Problem {
         this.memoryLimit = memoryLimit;
     }
 
+    public Integer getOutputLimit() {
+        return outputLimit;
+    }
+
+    public void setOutputLimit(Integer outputLimit) {
+        this.outputLimit = outputLimit;
+    }
+
     public Integer getPoints() {
         return points;
     }
@@ -129,6 +147,22 @@ public class Problem {
         this.points = points;
     }
 
+    public CheckerMode getCheckerMode() {
+        return checkerMode;
+    }
+
+    public void setCheckerMode(CheckerMode checkerMode) {
+        this.checkerMode = checkerMode;
+    }
+
+    public Double getFloatTolerance() {
+        return floatTolerance;
+    }
+
+    public void setFloatTolerance(Double floatTolerance) {
+        this.floatTolerance = floatTolerance;
+    }
+
     public LocalDateTime getCreatedAt() {
         return createdAt;
     }
@@ -10,13 +10,16 @@ import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.Table;
 import jakarta.validation.constraints.NotBlank;
 
 @Entity
-@Table(name = "submissions")
+@Table(name = "submissions", indexes = {
+    @Index(name = "idx_submissions_completed_at", columnList = "completed_at")
+})
 public class Submission {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -38,7 +41,10 @@ public class Submission {
     private String result;
 
     @Column(name = "execution_time")
-    private Long executionTime; // in milliseconds
+    private Long executionTime; // in milliseconds, wall time of the test runs
+
+    @Column(name = "cpu_time")
+    private Long cpuTime; // in milliseconds
 
     @Column(name = "memory_used")
     private Long memoryUsed; // in bytes
@@ -128,6 +134,14 @@ public class Submission {
         this.executionTime = executionTime;
     }
 
+    public Long getCpuTime() {
+        return cpuTime;
+    }
+
+    public void setCpuTime(Long cpuTime) {
+        this.cpuTime = cpuTime;
+    }
+
     public Long getMemoryUsed() {
         return memoryUsed;
     }
@@ -214,6 +228,7 @@ public class Submission {
                status == SubmissionStatus.WRONG_ANSWER ||
                status == SubmissionStatus.TIME_LIMIT_EXCEEDED ||
                status == SubmissionStatus.MEMORY_LIMIT_EXCEEDED ||
+               status == SubmissionStatus.OUTPUT_LIMIT_EXCEEDED ||
                status == SubmissionStatus.RUNTIME_ERROR ||
                status == SubmissionStatus.COMPILATION_ERROR;
     }
@@ -7,7 +7,15 @@ public enum SubmissionStatus {
     WRONG_ANSWER,
     TIME_LIMIT_EXCEEDED,
     MEMORY_LIMIT_EXCEEDED,
+    OUTPUT_LIMIT_EXCEEDED,
     RUNTIME_ERROR,
     COMPILATION_ERROR,
-    SYSTEM_ERROR
+    SYSTEM_ERROR;
+
+    /**
+     * Whether judging is over, i.e. this is a verdict.
+     */
+    public boolean isFinal() {
+        return this != PENDING && this != RUNNING;
+    }
 } 
\ No newline at end of file
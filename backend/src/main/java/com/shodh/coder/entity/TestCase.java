@@ -4,6 +4,7 @@ import java.time.LocalDateTime;
 
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
@@ -11,24 +12,35 @@ import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.Table;
-import jakarta.validation.constraints.NotBlank;
 
 
 @Entity
 @Table(name = "test_cases")
+@EntityListeners({ TestCaseBlobListener.class, TestCaseChangeListener.class })
 public class TestCase {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
-    @NotBlank(message = "Input is required")
-    @Column(columnDefinition = "TEXT", nullable = false)
+    // Inline data is moved to the test data blob store on save and only kept for sample tests
+    @Column(columnDefinition = "TEXT")
     private String input;
 
-    @NotBlank(message = "Expected output is required")
-    @Column(name = "expected_output", columnDefinition = "TEXT", nullable = false)
+    @Column(name = "expected_output", columnDefinition = "TEXT")
     private String expectedOutput;
 
+    @Column(name = "input_hash", length = 64, nullable = false)
+    private String inputHash;
+
+    @Column(name = "input_size", nullable = false)
+    private Long inputSize;
+
+    @Column(name = "expected_output_hash", length = 64, nullable = false)
+    private String expectedOutputHash;
+
+    @Column(name = "expected_output_size", nullable = false)
+    private Long expectedOutputSize;
+
     @Column(name = "is_sample")
     private Boolean isSample = false;
 
@@ -76,6 +88,38 @@ public class TestCase {
         this.expectedOutput = expectedOutput;
     }
 
+    public String getInputHash() {
+        return inputHash;
+    }
+
+    public void setInputHash(String inputHash) {
+        this.inputHash = inputHash;
+    }
+
+    public Long getInputSize() {
+        return inputSize;
+    }
+
+    public void setInputSize(Long inputSize) {
+        this.inputSize = inputSize;
+    }
+
+    public String getExpectedOutputHash() {
+        return expectedOutputHash;
+    }
+
+    public void setExpectedOutputHash(String expectedOutputHash) {
+        this.expectedOutputHash = expectedOutputHash;
+    }
+
+    public Long getExpectedOutputSize() {
+        return expectedOutputSize;
+    }
+
+    public void setExpectedOutputSize(Long expectedOutputSize) {
+        this.expectedOutputSize = expectedOutputSize;
+    }
+
     public Boolean getIsSample() {
         return isSample;
     }
@@ -0,0 +1,61 @@
+package com.shodh.coder.entity;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+
+import com.shodh.coder.service.TestCaseBlobStore;
+
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreUpdate;
+
+/**
+ * Moves inline test data into the {@link TestCaseBlobStore} before a test case is written,
+ * recording hash and size on the row. Only sample tests, which are shown with the problem,
+ * keep their data inline as well.
+ */
+@Component
+public class TestCaseBlobListener {
+
+    @Autowired
+    @Lazy
+    private TestCaseBlobStore blobStore;
+
+    @PrePersist
+    @PreUpdate
+    public void storeTestData(TestCase testCase) {
+        if (testCase.getInput() != null && testCase.getInput().isBlank()) {
+            throw new IllegalArgumentException("Input is required");
+        }
+        if (testCase.getExpectedOutput() != null && testCase.getExpectedOutput().isBlank()) {
+            throw new IllegalArgumentException("Expected output is required");
+        }
+        try {
+            if (testCase.getInput() != null) {
+                TestCaseBlobStore.Blob blob = blobStore.put(testCase.getInput());
+                testCase.setInputHash(blob.getHash());
+                testCase.setInputSize(blob.getSize());
+            }
+            if (testCase.getExpectedOutput() != null) {
+                TestCaseBlobStore.Blob blob = blobStore.put(testCase.getExpectedOutput());
+                testCase.setExpectedOutputHash(blob.getHash());
+                testCase.setExpectedOutputSize(blob.getSize());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not store test data", e);
+        }
+        if (testCase.getInputHash() == null) {
+            throw new IllegalArgumentException("Input is required");
+        }
+        if (testCase.getExpectedOutputHash() == null) {
+            throw new IllegalArgumentException("Expected output is required");
+        }
+        if (!Boolean.TRUE.equals(testCase.getIsSample())) {
+            testCase.setInput(null);
+            testCase.setExpectedOutput(null);
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.shodh.coder.entity;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.shodh.coder.service.TestDataStager;
+import com.shodh.coder.service.VerdictCacheService;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+
+/**
+ * Invalidates cached verdicts and the staged test data of a problem whenever one of its
+ * test cases changes. Entity callbacks fire at flush, before the change is visible to
+ * other transactions, so the invalidation waits for the commit; otherwise a judge still
+ * reading the old rows could cache and stage them again right after the invalidation.
+ * Bulk JPQL/SQL updates bypass entity listeners and need an explicit invalidation.
+ */
+@Component
+public class TestCaseChangeListener {
+
+    @Autowired
+    @Lazy
+    private VerdictCacheService verdictCacheService;
+
+    @Autowired
+    @Lazy
+    private TestDataStager testDataStager;
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void onTestCaseChanged(TestCase testCase) {
+        if (testCase.getProblem() == null || testCase.getProblem().getId() == null) {
+            return;
+        }
+        Long problemId = testCase.getProblem().getId();
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            invalidate(problemId);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                invalidate(problemId);
+            }
+        });
+    }
+
+    private void invalidate(Long problemId) {
+        testDataStager.invalidate(problemId);
+        verdictCacheService.invalidateProblem(problemId);
+    }
+}
@@ -0,0 +1,31 @@
+package com.shodh.coder.repository;
+
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import com.shodh.coder.entity.ContestUserProblemResult;
+
+import jakarta.persistence.LockModeType;
+
+@Repository
+public interface ContestUserProblemResultRepository extends JpaRepository<ContestUserProblemResult, Long> {
+
+    // Serializes verdicts of the same user on the same problem across judge nodes
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT r FROM ContestUserProblemResult r WHERE r.contestId = :contestId AND r.userId = :userId AND r.problemId = :problemId")
+    Optional<ContestUserProblemResult> findForUpdate(Long contestId, Long userId, Long problemId);
+
+    // Result, with the username, of the contest problem a submission was made for
+    @Query("SELECT r, u.username FROM ContestUserProblemResult r, Submission s, User u " +
+           "WHERE s.id = :submissionId AND r.contestId = s.contest.id AND r.userId = s.user.id " +
+           "AND r.problemId = s.problem.id AND u.id = r.userId")
+    List<Object[]> findWithUsernameBySubmissionId(Long submissionId);
+
+    @Query("SELECT r, u.username FROM ContestUserProblemResult r, User u WHERE u.id = r.userId")
+    List<Object[]> findAllWithUsername();
+}
@@ -0,0 +1,59 @@
+package com.shodh.coder.repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.stereotype.Repository;
+
+import com.shodh.coder.entity.JudgeJob;
+import com.shodh.coder.entity.JudgeJobStatus;
+
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+
+@Repository
+public interface JudgeJobRepository extends JpaRepository<JudgeJob, Long> {
+
+    // Oldest claimable job of every contest and user: contest id, user id, job id
+    @Query("SELECT j.contestId, j.userId, MIN(j.id) FROM JudgeJob j WHERE j.status = 'QUEUED' AND j.availableAt <= :now " +
+           "GROUP BY j.contestId, j.userId")
+    List<Object[]> findQueueHeads(LocalDateTime now);
+
+    // User id, leased jobs
+    @Query("SELECT j.userId, COUNT(j) FROM JudgeJob j WHERE j.status = 'LEASED' GROUP BY j.userId")
+    List<Object[]> countLeasedByUser();
+
+    // User id, leased jobs, for the given users only
+    @Query("SELECT j.userId, COUNT(j) FROM JudgeJob j WHERE j.status = 'LEASED' AND j.userId IN :userIds GROUP BY j.userId")
+    List<Object[]> countLeasedByUserIdIn(Collection<Long> userIds);
+
+    // Contest id, user id, status, jobs, oldest creation time
+    @Query("SELECT j.contestId, j.userId, j.status, COUNT(j), MIN(j.createdAt) FROM JudgeJob j " +
+           "WHERE j.status IN ('QUEUED', 'LEASED') GROUP BY j.contestId, j.userId, j.status")
+    List<Object[]> findOpenJobStats();
+
+    // Lock timeout -2 is Hibernate's SKIP LOCKED: rows another node is claiming are passed over
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT j FROM JudgeJob j WHERE j.id IN :ids AND j.status = 'QUEUED' ORDER BY j.id ASC")
+    List<JudgeJob> findClaimableByIdIn(Collection<Long> ids);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT j FROM JudgeJob j WHERE j.status = 'LEASED' AND j.leaseExpiresAt < :now")
+    List<JudgeJob> findExpiredLeases(LocalDateTime now);
+
+    @Modifying
+    @Query("UPDATE JudgeJob j SET j.leaseExpiresAt = :expiresAt WHERE j.id IN :ids AND j.leaseOwner = :owner AND j.status = 'LEASED'")
+    int renewLeases(Collection<Long> ids, String owner, LocalDateTime expiresAt);
+
+    List<JudgeJob> findByStatusAndLeaseOwner(JudgeJobStatus status, String leaseOwner);
+
+    boolean existsBySubmissionIdAndStatusIn(Long submissionId, Collection<JudgeJobStatus> statuses);
+}
@@ -0,0 +1,13 @@
+package com.shodh.coder.repository;
+
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import com.shodh.coder.entity.JudgeNode;
+
+@Repository
+public interface JudgeNodeRepository extends JpaRepository<JudgeNode, String> {
+    List<JudgeNode> findAllByOrderByNodeIdAsc();
+}
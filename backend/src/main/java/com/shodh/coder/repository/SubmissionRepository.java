@@ -1,10 +1,15 @@
 package com.shodh.coder.repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.shodh.coder.entity.Submission;
 import com.shodh.coder.entity.SubmissionStatus;
@@ -18,15 +23,50 @@ public interface SubmissionRepository extends JpaRepository<Submission, Long> {
     
     List<Submission> findByStatus(SubmissionStatus status);
     
+    List<Submission> findByStatusIn(Collection<SubmissionStatus> statuses);
+    
+    // Everything the judge reads, so the submission can be judged detached
+    @Query("SELECT s FROM Submission s JOIN FETCH s.problem WHERE s.id = :id")
+    Optional<Submission> findForJudging(Long id);
+    
+    // Id, status, passed, total; no joins
+    @Query("SELECT s.id, s.status, s.testCasesPassed, s.totalTestCases FROM Submission s WHERE s.id IN :ids")
+    List<Object[]> findStatusesByIdIn(Collection<Long> ids);
+    
+    // Everything SubmissionResponseDto reads, for use outside a transaction
+    @Query("SELECT s FROM Submission s JOIN FETCH s.user JOIN FETCH s.problem WHERE s.id = :id")
+    Optional<Submission> findWithDetailsById(Long id);
+    
+    @Query("SELECT s FROM Submission s JOIN FETCH s.user JOIN FETCH s.problem WHERE s.completedAt > :since")
+    List<Submission> findCompletedSince(LocalDateTime since);
+    
+    // A retried job finds its submission still RUNNING
+    @Transactional
+    @Modifying
+    @Query("UPDATE Submission s SET s.status = 'RUNNING' WHERE s.id = :id AND s.status IN ('PENDING', 'RUNNING')")
+    int markRunning(Long id);
+    
+    // Only a submission still being judged takes the verdict
+    @Transactional
+    @Modifying
+    @Query("UPDATE Submission s SET s.status = :status, s.result = :result, s.testCasesPassed = :testCasesPassed, " +
+           "s.totalTestCases = :totalTestCases, s.executionTime = :executionTime, s.cpuTime = :cpuTime, " +
+           "s.memoryUsed = :memoryUsed, s.consoleOutput = :consoleOutput, s.compilationError = :compilationError, " +
+           "s.completedAt = :completedAt WHERE s.id = :id AND s.status = 'RUNNING'")
+    int applyVerdict(Long id, SubmissionStatus status, String result, Integer testCasesPassed, Integer totalTestCases,
+            Long executionTime, Long cpuTime, Long memoryUsed, String consoleOutput, String compilationError,
+            LocalDateTime completedAt);
+    
     @Query("SELECT s FROM Submission s WHERE s.user.id = :userId AND s.problem.id = :problemId AND s.status = 'ACCEPTED' ORDER BY s.submittedAt ASC")
     List<Submission> findAcceptedSubmissionsByUserAndProblem(Long userId, Long problemId);
-    
-    @Query("SELECT s.user.username, " +
-           "SUM(CASE WHEN s.status = 'ACCEPTED' THEN s.problem.points ELSE 0 END) as score, " +
-           "COUNT(CASE WHEN s.status = 'ACCEPTED' THEN 1 END) as solved, " +
-           "MIN(s.submittedAt) as firstSubmission " +
-           "FROM Submission s WHERE s.contest.id = :contestId " +
-           "GROUP BY s.user.id, s.user.username " +
-           "ORDER BY score DESC, firstSubmission ASC")
-    List<Object[]> findLeaderboardByContestId(Long contestId);
+
+    // A user's verdicts with one of the statuses on a contest problem, for folding into their result
+    @Query("SELECT COUNT(s) FROM Submission s WHERE s.contest.id = :contestId AND s.user.id = :userId " +
+           "AND s.problem.id = :problemId AND s.status IN :statuses")
+    long countVerdicts(Long contestId, Long userId, Long problemId, Collection<SubmissionStatus> statuses);
+
+    @Query("SELECT COUNT(s) FROM Submission s WHERE s.contest.id = :contestId AND s.user.id = :userId " +
+           "AND s.problem.id = :problemId AND s.status IN :statuses AND s.submittedAt < :before")
+    long countVerdictsBefore(Long contestId, Long userId, Long problemId, Collection<SubmissionStatus> statuses,
+            LocalDateTime before);
 } 
\ No newline at end of file
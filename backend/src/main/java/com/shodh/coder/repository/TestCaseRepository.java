@@ -3,6 +3,7 @@ package com.shodh.coder.repository;
 import java.util.List;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import com.shodh.coder.entity.TestCase;
@@ -11,4 +12,8 @@ import com.shodh.coder.entity.TestCase;
 public interface TestCaseRepository extends JpaRepository<TestCase, Long> {
     List<TestCase> findByProblemId(Long problemId);
     List<TestCase> findByProblemIdAndIsSample(Long problemId, Boolean isSample);
+
+    // Input and expected output blob hash of every test case
+    @Query("SELECT t.inputHash, t.expectedOutputHash FROM TestCase t")
+    List<Object[]> findAllBlobHashes();
 }
\ No newline at end of file
@@ -3,19 +3,36 @@ package com.shodh.coder.service;
 import java.io.BufferedReader;
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.task.AsyncTaskExecutor;
 import org.springframework.stereotype.Service;
 
+import com.shodh.coder.dto.SubmissionProgressDto;
+import com.shodh.coder.entity.Problem;
 import com.shodh.coder.entity.Submission;
 import com.shodh.coder.entity.SubmissionStatus;
 import com.shodh.coder.entity.TestCase;
@@ -25,6 +42,19 @@ public class CodeJudgeService {
     
     private static final Logger logger = LoggerFactory.getLogger(CodeJudgeService.class);
     
+    private static final String HARNESS_FILE = "judge-harness.sh";
+    private static final String HARNESS_RESULT_PREFIX = "@@RESULT ";
+    private static final String COMPILE_LOG_FILE = "compile.log";
+    private static final List<String> JAVA_COMPILE_COMMAND = List.of("javac", "Solution.java");
+    private static final String CPP_BINARY = "solution";
+    // Exit status of a program killed by SIGXFSZ after hitting the file size limit set by the harness
+    private static final int OUTPUT_LIMIT_EXIT_CODE = 153;
+    // Written by GNU time around each run: "<wall s> <user s> <sys s> <max rss KB>"
+    private static final String USAGE_FORMAT = "%e %U %S %M";
+    // What the runtimes print when an allocation fails before the sandbox kills them
+    private static final List<String> OUT_OF_MEMORY_MARKERS = List.of(
+            "java.lang.OutOfMemoryError", "MemoryError", "std::bad_alloc");
+    
     @Value("${code.execution.timeout:5}")
     private int executionTimeoutSeconds;
     
@@ -34,6 +64,70 @@ public class CodeJudgeService {
     @Value("${app.docker.image-name:shodh-code-runner}")
     private String dockerImageName;
     
+    // "batch" runs all test cases through the in-sandbox harness, "sequential" launches one run per test case,
+    // "parallel" fans single runs out over several sandboxes
+    @Value("${app.judge.execution-mode:batch}")
+    private String executionMode;
+    
+    // Cap per submission so one submission cannot take every slot and skew everyone's timings
+    @Value("${app.judge.parallel.max-per-submission:2}")
+    private int maxParallelPerSubmission;
+    
+    @Value("${app.judge.parallel.fail-fast-on-wrong-answer:false}")
+    private boolean failFastOnWrongAnswer;
+    
+    // Used for problems without their own output limit
+    @Value("${app.judge.output.default-limit-mb:16}")
+    private int defaultOutputLimitMb;
+    
+    // Upper bound for the console output stored with a submission, over all test cases
+    @Value("${app.judge.output.console-max-bytes:16384}")
+    private int consoleMaxBytes;
+    
+    @Value("${app.judge.cpp.compiler:g++}")
+    private String cppCompiler;
+    
+    // Must match the flags the runner image built its precompiled bits/stdc++.h with, or g++ ignores the PCH
+    @Value("${app.judge.cpp.flags:-std=gnu++17 -O2 -pipe}")
+    private String cppFlags;
+    
+    @Value("${app.judge.cpp.pch-dir:/opt/pch}")
+    private String cppPchDir;
+    
+    // Compiling without the PCH, e.g. in the local sandbox, takes several seconds
+    @Value("${app.judge.cpp.compile-timeout-seconds:30}")
+    private int cppCompileTimeoutSeconds;
+    
+    @Autowired
+    private SandboxRunner sandboxRunner;
+    
+    @Autowired
+    private CompileCacheService compileCache;
+    
+    @Autowired
+    private WarmJvmPool warmJvmPool;
+    
+    @Autowired
+    private PythonZygotePool pythonZygotePool;
+    
+    @Autowired
+    private OutputChecker outputChecker;
+    
+    @Autowired
+    private OutputCaptureService outputCapture;
+    
+    @Autowired
+    private TestDataStager testDataStager;
+    
+    @Autowired
+    @Qualifier("testCaseExecutor")
+    private AsyncTaskExecutor testCaseExecutor;
+    
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    
+    private volatile byte[] harnessScript;
+    
     public ExecutionResult executeCode(Submission submission, List<TestCase> testCases) {
         logger.info("Starting code execution for submission ID: {}", submission.getId());
         logger.info("Execution timeout: {}", executionTimeoutSeconds);
@@ -43,46 +137,91 @@ public class CodeJudgeService {
         ExecutionResult result = new ExecutionResult();
         result.setStatus(SubmissionStatus.RUNNING);
         
+        // Claim a sandbox for the whole submission
+        SandboxRunner.Sandbox sandbox = sandboxRunner.acquire();
+        
         try {
             // Create temporary directory for this submission
-            Path tempDir = createTempDirectory(submission.getId());
+            Path tempDir = createWorkspace(sandbox, "submission_" + submission.getId());
             
             // Write code to file
             Path codeFile = writeCodeToFile(tempDir, submission.getCode(), submission.getLanguage());
             logger.info("Code file written: {}", codeFile);
             
             // Compile if necessary
-            if ("java".equalsIgnoreCase(submission.getLanguage())) {
-                boolean compiled = compileJavaCode(tempDir, codeFile);
-                if (!compiled) {
+            if (isCompiled(submission.getLanguage())) {
+                CompileResult compiled = compileWithCache(tempDir, submission, sandbox);
+                if (!compiled.isSuccess()) {
                     result.setStatus(SubmissionStatus.COMPILATION_ERROR);
                     result.setErrorMessage("Compilation failed");
+                    result.setCompilationError(compiled.getDiagnostics());
                     logger.info("Compilation failed: {}", result.getErrorMessage());
                     return result;
                 }
             }
             
+            // Test data is written once per test set and shared read-only by every run
+            TestDataStager.StagedTestSet tests = testDataStager.stage(submission.getProblem().getId(), testCases);
+            
             // Run test cases
             int passedTests = 0;
             long totalExecutionTime = 0;
+            long totalCpuTime = 0;
+            long peakMemory = 0;
             StringBuilder allConsoleOutput = new StringBuilder();
             
-            for (TestCase testCase : testCases) {
-                TestCaseResult testResult = runSingleTestCase(tempDir, submission, testCase);
+            List<TestCaseResult> batchResults = null;
+            WarmWorkerPool warmPool = getWarmWorkerPool(submission.getLanguage());
+            if (warmPool != null && warmPool.isEnabled()) {
+                // Resident JVM worker; null when none is free, then the configured mode applies
+                batchResults = runWarmWorkerTestCases(warmPool, tempDir, submission, testCases, tests);
+            }
+            String testData = null;
+            if (batchResults == null) {
+                // The sandbox sees the inputs of this test set only; answers stay with the checker
+                testData = sandboxRunner.attachTestData(sandbox, tests);
+            }
+            if (batchResults == null && "batch".equalsIgnoreCase(executionMode)) {
+                batchResults = runBatchTestCases(tempDir, submission, testCases, tests, testData, sandbox);
+            } else if (batchResults == null && "parallel".equalsIgnoreCase(executionMode)) {
+                batchResults = runParallelTestCases(tempDir, submission, testCases, tests, testData, sandbox);
+            }
+            
+            for (int i = 0; i < testCases.size(); i++) {
+                TestCaseResult testResult;
+                if (batchResults != null) {
+                    if (i >= batchResults.size()) {
+                        break;
+                    }
+                    testResult = batchResults.get(i);
+                } else {
+                    testResult = runSingleTestCase(tempDir, submission, testInput(testData, i + 1),
+                            tests.expectedOutput(i + 1), i + 1, sandbox);
+                }
+                if (leavesSandboxDirty(testResult)) {
+                    sandbox.markDirty();
+                }
                 
                 // Collect console output from each test case
                 if (testResult.getConsoleOutput() != null && !testResult.getConsoleOutput().trim().isEmpty()) {
                     if (allConsoleOutput.length() > 0) {
-                        allConsoleOutput.append("\n--- Test Case ").append(passedTests + 1).append(" ---\n");
+                        OutputCaptureService.appendBounded(allConsoleOutput,
+                                "\n--- Test Case " + (passedTests + 1) + " ---\n", consoleMaxBytes);
                     }
-                    allConsoleOutput.append(testResult.getConsoleOutput());
+                    OutputCaptureService.appendBounded(allConsoleOutput, testResult.getConsoleOutput(), consoleMaxBytes);
                 }
                 
                 if (testResult.isPassed()) {
                     passedTests++;
                 }
+                if (batchResults == null) {
+                    // Batch, parallel and warm worker runs report each test as its result comes in
+                    publishProgress(submission, i + 1, testCases.size(), passedTests, testResult.getStatus());
+                }
                 
                 totalExecutionTime += testResult.getExecutionTime();
+                totalCpuTime += testResult.getCpuTime();
+                peakMemory = Math.max(peakMemory, testResult.getMemoryUsed());
                 
                 // If any test case fails, we can stop early for some verdicts
                 if (!testResult.isPassed() && testResult.getStatus() != SubmissionStatus.WRONG_ANSWER) {
@@ -105,10 +244,11 @@ public class CodeJudgeService {
             result.setTestCasesPassed(passedTests);
             result.setTotalTestCases(testCases.size());
             result.setExecutionTime(totalExecutionTime);
+            result.setCpuTime(totalCpuTime);
+            result.setMemoryUsed(peakMemory);
             
             // Set console output
-            System.out.println("DEBUG: Final console output length: " + allConsoleOutput.length());
-            System.out.println("DEBUG: Final console output content: '" + allConsoleOutput.toString() + "'");
+            logger.info("Final console output length: {}", allConsoleOutput.length());
             result.setConsoleOutput(allConsoleOutput.toString());
 
             // Cleanup
@@ -118,22 +258,90 @@ public class CodeJudgeService {
             logger.error("Error executing code for submission {}: {}", submission.getId(), e.getMessage());
             result.setStatus(SubmissionStatus.SYSTEM_ERROR);
             result.setErrorMessage("System error during execution");
+            sandbox.markDirty();
+        } finally {
+            sandboxRunner.release(sandbox);
         }
         
         return result;
     }
     
-    private Path createTempDirectory(Long submissionId) throws IOException {
-        String tempDirName = "submission_" + submissionId + "_" + System.currentTimeMillis();
-        Path tempDir = Paths.get(System.getProperty("java.io.tmpdir"), tempDirName);
-        Files.createDirectories(tempDir);
-        return tempDir;
+    /**
+     * Runs unsaved code on the given inputs for quick feedback, in a sandbox of the run
+     * lane so it never waits behind full judging. An expected output, where given, is
+     * checked with the problem's checker; {@code null} means custom input with nothing to
+     * compare against. Runs every input, whatever the earlier ones did.
+     */
+    public CodeRunResult runCode(Submission submission, List<String> inputs, List<String> expectedOutputs) {
+        CodeRunResult result = new CodeRunResult();
+        SandboxRunner.Sandbox sandbox = sandboxRunner.acquireForRun();
+        Path tempDir = null;
+        try {
+            tempDir = createWorkspace(sandbox, "run_" + UUID.randomUUID().toString().substring(0, 8));
+            writeCodeToFile(tempDir, submission.getCode(), submission.getLanguage());
+            
+            if (isCompiled(submission.getLanguage())) {
+                CompileResult compiled = compileWithCache(tempDir, submission, sandbox);
+                if (!compiled.isSuccess()) {
+                    result.setStatus(SubmissionStatus.COMPILATION_ERROR);
+                    result.setCompilationError(compiled.getDiagnostics());
+                    return result;
+                }
+            }
+            
+            // Inputs are written into the workspace, the runs read them from there
+            Path inputDir = Files.createDirectories(tempDir.resolve("in"));
+            for (int i = 0; i < inputs.size(); i++) {
+                int index = i + 1;
+                Files.writeString(inputDir.resolve(index + ".in"), inputs.get(i), StandardCharsets.UTF_8);
+                Path expectedFile = null;
+                String expected = expectedOutputs.get(i);
+                if (expected != null) {
+                    expectedFile = Files.writeString(inputDir.resolve(index + ".ans"), expected, StandardCharsets.UTF_8);
+                }
+                
+                TestCaseResult testResult = runSingleTestCase(tempDir, submission, "in/" + index + ".in", expectedFile,
+                        index, sandbox);
+                if (leavesSandboxDirty(testResult)) {
+                    sandbox.markDirty();
+                }
+                Path outDir = tempDir.resolve("out");
+                int excerptBytes = outputCapture.getConsoleExcerptBytes();
+                String output = Files.exists(outDir.resolve(index + ".out"))
+                        ? outputCapture.excerpt(outDir.resolve(index + ".out"), excerptBytes) : "";
+                String errorOutput = Files.exists(outDir.resolve(index + ".err"))
+                        ? outputCapture.excerpt(outDir.resolve(index + ".err"), excerptBytes) : "";
+                result.getCases().add(new CodeRunCase(testResult, output, errorOutput));
+                
+                if (result.getStatus() == null && !testResult.isPassed()) {
+                    result.setStatus(testResult.getStatus());
+                }
+            }
+            if (result.getStatus() == null) {
+                result.setStatus(SubmissionStatus.ACCEPTED);
+            }
+        } catch (Exception e) {
+            logger.error("Error running code: {}", e.getMessage());
+            result.setStatus(SubmissionStatus.SYSTEM_ERROR);
+            sandbox.markDirty();
+        } finally {
+            sandboxRunner.release(sandbox);
+            if (tempDir != null) {
+                cleanupTempDirectory(tempDir);
+            }
+        }
+        return result;
+    }
+    
+    private Path createWorkspace(SandboxRunner.Sandbox sandbox, String prefix) throws IOException {
+        // Created where only the sandbox running the submission can see it
+        return sandboxRunner.createWorkspace(sandbox, prefix + "_" + System.currentTimeMillis());
     }
     
     private Path writeCodeToFile(Path tempDir, String code, String language) throws IOException {
         String fileName = getFileName(language);
         Path codeFile = tempDir.resolve(fileName);
-        Files.write(codeFile, code.getBytes());
+        Files.write(codeFile, code.getBytes(StandardCharsets.UTF_8));
         return codeFile;
     }
     
@@ -150,173 +358,639 @@ public class CodeJudgeService {
         }
     }
     
-    private boolean compileJavaCode(Path tempDir, Path codeFile) {
-        try {
-            ProcessBuilder pb = new ProcessBuilder();
-            pb.command("docker", "run", "--rm",
-                    "-v", tempDir.toString() + ":/workspace",
-                    "-w", "/workspace",
-                    "--memory=" + memoryLimit,
-                    dockerImageName,
-                    "javac", "Solution.java");
-            
-            Process process = pb.start();
-            boolean finished = process.waitFor(executionTimeoutSeconds, TimeUnit.SECONDS);
+    private boolean isCompiled(String language) {
+        return "java".equalsIgnoreCase(language) || "cpp".equalsIgnoreCase(language);
+    }
+    
+    private List<String> getCompileCommand(String language) {
+        if ("cpp".equalsIgnoreCase(language)) {
+            // The PCH directory comes first so #include <bits/stdc++.h> finds the .gch there
+            List<String> command = new ArrayList<>();
+            command.add(cppCompiler);
+            command.addAll(List.of(cppFlags.trim().split("\\s+")));
+            command.add("-I" + cppPchDir);
+            command.add("-o");
+            command.add(CPP_BINARY);
+            command.add("solution.cpp");
+            return command;
+        }
+        return JAVA_COMPILE_COMMAND;
+    }
+    
+    private int getCompileTimeoutSeconds(String language) {
+        return "cpp".equalsIgnoreCase(language) ? cppCompileTimeoutSeconds : executionTimeoutSeconds;
+    }
+    
+    private List<String> listArtifacts(Path tempDir, String language) {
+        if ("cpp".equalsIgnoreCase(language)) {
+            return List.of(CPP_BINARY);
+        }
+        return listArtifactsWithSuffix(tempDir, ".class");
+    }
+    
+    /**
+     * Compiles through the compile cache: identical sources for the same toolchain and
+     * compiler command reuse the stored class files or binary, or fail straight away with
+     * the stored diagnostics.
+     */
+    private CompileResult compileWithCache(Path tempDir, Submission submission, SandboxRunner.Sandbox sandbox) {
+        String language = submission.getLanguage();
+        List<String> compileCommand = getCompileCommand(language);
+        String cacheKey = compileCache.key(submission.getCode(), language, compileCommand,
+                sandboxRunner.getToolchainId());
+        Optional<CompileCacheService.CachedCompilation> cached = compileCache.restore(cacheKey, tempDir);
+        if (cached.isPresent()) {
+            logger.info("Compile cache hit for submission ID: {}", submission.getId());
+            return new CompileResult(cached.get().isSuccess(), cached.get().getDiagnostics(), false);
+        }
+        
+        CompileResult compiled = compileCode(tempDir, sandbox, compileCommand, getCompileTimeoutSeconds(language));
+        if (compiled.isCacheable()) {
+            if (compiled.isSuccess()) {
+                compileCache.storeSuccess(cacheKey, tempDir, listArtifacts(tempDir, language), compiled.getDiagnostics());
+            } else {
+                compileCache.storeFailure(cacheKey, compiled.getDiagnostics());
+            }
+        }
+        return compiled;
+    }
+    
+    private List<String> listArtifactsWithSuffix(Path tempDir, String suffix) {
+        try (Stream<Path> files = Files.list(tempDir)) {
+            return files.map(file -> file.getFileName().toString())
+                    .filter(name -> name.endsWith(suffix))
+                    .toList();
+        } catch (IOException e) {
+            logger.warn("Could not list compile artifacts: {}", e.getMessage());
+            return List.of();
+        }
+    }
+    
+    private CompileResult compileCode(Path tempDir, SandboxRunner.Sandbox sandbox, List<String> compileCommand,
+            int timeoutSeconds) {
+        // Diagnostics go to a file so a chatty compiler can never block on a full pipe
+        Path compileLog = tempDir.resolve(COMPILE_LOG_FILE);
+        try (SandboxRunner.SandboxProcess compile = sandboxRunner.compile(sandbox, tempDir, compileCommand, compileLog)) {
+            Process process = compile.getProcess();
+            boolean finished = process.waitFor(timeoutSeconds, TimeUnit.SECONDS);
             
             if (!finished) {
-                process.destroyForcibly();
-                return false;
+                compile.kill();
+                sandbox.markDirty();
+                return new CompileResult(false, "Compilation timed out after " + timeoutSeconds + " seconds", false);
             }
             
-            return process.exitValue() == 0;
+            String diagnostics = new String(Files.readAllBytes(compileLog));
+            return new CompileResult(process.exitValue() == 0, diagnostics, true);
             
         } catch (Exception e) {
             logger.error("Compilation error: {}", e.getMessage());
-            return false;
+            return new CompileResult(false, "Compilation failed: " + e.getMessage(), false);
         }
     }
     
-    private TestCaseResult runSingleTestCase(Path tempDir, Submission submission, TestCase testCase) {
-        Process process = null;
+    /**
+     * Input of a staged test case as seen inside the sandbox the test set was attached to;
+     * read straight from the staged test set, nothing is written per run.
+     */
+    private String testInput(String testData, int index) {
+        return testData + "/" + index + ".in";
+    }
+    
+    /**
+     * Runs the program once on {@code inputFile} (a path inside the sandbox, or relative to
+     * the workspace) and checks its output against {@code expectedFile}, if there is one.
+     */
+    private TestCaseResult runSingleTestCase(Path tempDir, Submission submission, String inputFile, Path expectedFile,
+            int index, SandboxRunner.Sandbox sandbox) {
+        SandboxRunner.SandboxProcess run = null;
         try {
-            // First write the test input to a file
-            Files.write(tempDir.resolve("input.txt"), testCase.getInput().getBytes());
-            
-            // Debug: Log what we wrote to input.txt
-            logger.info("Test case input: '{}'", testCase.getInput());
-            logger.info("Input file created at: {}", tempDir.resolve("input.txt"));
-            
-            // Verify the file was created
-            if (Files.exists(tempDir.resolve("input.txt"))) {
-                String fileContent = new String(Files.readAllBytes(tempDir.resolve("input.txt")));
-                logger.info("Input file content: '{}'", fileContent);
-            } else {
-                logger.error("Input file was not created!");
-            }
-
-            // Prepare docker command with proper resource limits
+            // Language specific command with timeout and input redirection inside the sandbox,
+            // measured by GNU time where the sandbox has it
             List<String> command = new ArrayList<>();
-            command.add("docker");
-            command.add("run");
-            command.add("--rm");
-            command.add("--memory=" + memoryLimit);
-            command.add("--cpus=0.5");
-            command.add("--ulimit");
-            command.add("nproc=16:32");
-            command.add("-v");
-            command.add(tempDir.toString() + ":/workspace");
-            command.add("-w");
-            command.add("/workspace");
-            command.add(dockerImageName);
-            
-            // Add language specific command with timeout and input redirection
-            switch (submission.getLanguage().toLowerCase()) {
-                case "java":
-                    command.add("sh");
-                    command.add("-c");
-                    command.add("timeout " + executionTimeoutSeconds + "s java Solution < input.txt");
-                    break;
-                case "python":
-                    command.add("sh");
-                    command.add("-c");
-                    command.add("timeout " + executionTimeoutSeconds + "s python3 solution.py < input.txt");
-                    break;
-                case "cpp":
-                    command.add("sh");
-                    command.add("-c");
-                    command.add("timeout " + executionTimeoutSeconds + "s ./solution < input.txt");
-                    break;
+            List<String> runCommand = getRunCommand(submission.getLanguage());
+            if (!runCommand.isEmpty()) {
+                String limited = "timeout " + executionTimeoutSeconds + "s " + String.join(" ", runCommand) + " < " + inputFile;
+                command.add("sh");
+                command.add("-c");
+                command.add("if [ -x /usr/bin/time ]; then exec /usr/bin/time -q -f '" + USAGE_FORMAT + "' -o out/"
+                        + index + ".usage " + limited + "; else exec " + limited + "; fi");
             }
-
-            // Debug: Log the full command
-            logger.info("Docker command: {}", String.join(" ", command));
-
-            ProcessBuilder pb = new ProcessBuilder(command);
-            // Remove this line since we're doing input redirection inside the container
-            // pb.redirectInput(tempDir.resolve("input.txt").toFile());
-            pb.redirectErrorStream(true);
+            Files.createDirectories(tempDir.resolve("out"));
             
-            // Start the process
+            // Start the process; stdout and stderr are drained while it runs so it never blocks on a full pipe
             long startTime = System.currentTimeMillis();
-            process = pb.start();
+            run = sandboxRunner.run(sandbox, tempDir, command, runLimits(submission.getProblem()));
+            Process process = run.getProcess();
+            Path outDir = tempDir.resolve("out");
+            OutputCaptureService.Capture capture = outputCapture.capture(process, outDir.resolve(index + ".out"),
+                    outDir.resolve(index + ".err"), outputLimitBytes(submission.getProblem()));
             
             // Wait for completion with timeout
             boolean completed = process.waitFor(executionTimeoutSeconds + 2, TimeUnit.SECONDS);
             long executionTime = System.currentTimeMillis() - startTime;
             
+            if (capture.isLimitExceeded()) {
+                run.kill();
+                return outputLimitExceeded(submission.getProblem(), executionTime, capture.consoleExcerpt());
+            }
+            
             if (!completed) {
-                killProcessAndContainer(process);
+                run.kill();
                 return new TestCaseResult(false, SubmissionStatus.TIME_LIMIT_EXCEEDED, 
                     "Time Limit Exceeded", executionTime, "Program exceeded time limit of " + executionTimeoutSeconds + " seconds");
             }
-
-            int exitCode = process.exitValue();
-            String output = readProcessOutput(process);
             
-            // Debug: Log the output and exit code
-            logger.info("Process exit code: {}", exitCode);
-            logger.info("Process output: '{}'", output);
-            
-            // Handle timeout exit code (124 from timeout command)
-            if (exitCode == 124) {
-                return new TestCaseResult(false, SubmissionStatus.TIME_LIMIT_EXCEEDED,
-                    "Time Limit Exceeded", executionTime, "Program exceeded time limit of " + executionTimeoutSeconds + " seconds");
+            if (!capture.await(5, TimeUnit.SECONDS)) {
+                // Something inside the sandbox still holds the pipes open
+                run.kill();
+                return new TestCaseResult(false, SubmissionStatus.SYSTEM_ERROR,
+                    "System Error: output did not close after the program exited", executionTime, null);
             }
             
-            if (exitCode != 0) {
-                return new TestCaseResult(false, SubmissionStatus.RUNTIME_ERROR,
-                    "Runtime Error", executionTime, output);
-            }
+            int exitCode = process.exitValue();
+            logger.info("Process exit code: {}, output: {} bytes", exitCode, capture.getTotalBytes());
             
-            // Compare output
-            boolean matched = output.trim().equals(testCase.getExpectedOutput().trim());
-            return new TestCaseResult(matched, matched ? SubmissionStatus.ACCEPTED : SubmissionStatus.WRONG_ANSWER,
-                matched ? "Accepted" : "Wrong Answer", executionTime, output);
+            // Same verdict rules as for harness runs, the output is in out/<index>.out and .err
+            return toTestCaseResult(tempDir, submission.getProblem(), expectedFile, index, exitCode, executionTime, 0, 0);
             
+        } catch (InterruptedException e) {
+            // Cancelled because another test case already decided the verdict
+            Thread.currentThread().interrupt();
+            if (run != null) {
+                run.kill();
+            }
+            return new TestCaseResult(false, SubmissionStatus.SYSTEM_ERROR, "Cancelled", 0, null);
         } catch (Exception e) {
             logger.error("Error running test case", e);
             return new TestCaseResult(false, SubmissionStatus.SYSTEM_ERROR,
                 "System Error: " + e.getMessage(), 0, e.getMessage());
         } finally {
-            if (process != null) {
-                process.destroyForcibly();
+            if (run != null) {
+                run.close();
             }
         }
     }
 
-    private void killProcessAndContainer(Process process) {
+    /**
+     * Runs test cases concurrently, each slot in its own sandbox so the CPU quota of one
+     * run is not shared with another. As soon as a fatal verdict is known, runs of later
+     * test cases are cancelled; earlier ones finish so the reported verdict is the same
+     * as in test order. Returns the results in test order up to that verdict.
+     */
+    private List<TestCaseResult> runParallelTestCases(Path tempDir, Submission submission, List<TestCase> testCases,
+            TestDataStager.StagedTestSet tests, String testData, SandboxRunner.Sandbox sandbox) {
+        int parallelism = Math.max(1, Math.min(maxParallelPerSubmission, testCases.size()));
+        
+        // Slot 0 is the submission's own sandbox, further slots claim extra ones without waiting
+        List<SandboxRunner.Sandbox> slotSandboxes = new ArrayList<>();
+        slotSandboxes.add(sandbox);
+        for (int i = 1; i < parallelism; i++) {
+            slotSandboxes.add(sandboxRunner.tryAcquire());
+        }
+        // Each slot runs on a workspace its sandbox can see: the submission's own, or a copy of it
+        List<Path> slotWorkspaces = new ArrayList<>();
+        slotWorkspaces.add(tempDir);
+        List<String> slotTestData = new ArrayList<>();
+        slotTestData.add(testData);
+        BlockingQueue<Integer> freeSlots = new LinkedBlockingQueue<>();
+        for (int i = 0; i < parallelism; i++) {
+            freeSlots.add(i);
+        }
+        
+        TestCaseResult[] results = new TestCaseResult[testCases.size()];
+        ExecutorCompletionService<Integer> completion = new ExecutorCompletionService<>(testCaseExecutor);
+        List<Future<Integer>> futures = new ArrayList<>();
+        int nextTest = 0;
+        int running = 0;
+        int fatalIndex = testCases.size();
+        int passed = 0;
+        boolean cancelledAny = false;
+        
         try {
-            // Kill the process tree
-            process.destroyForcibly();
+            for (int i = 1; i < parallelism; i++) {
+                slotWorkspaces.add(sandboxRunner.shareWorkspace(slotSandboxes.get(i), tempDir));
+                slotTestData.add(sandboxRunner.attachTestData(slotSandboxes.get(i), tests));
+            }
+            while (nextTest < Math.min(parallelism, testCases.size())) {
+                futures.add(submitTestCase(completion, slotWorkspaces, slotTestData, submission, tests, nextTest++,
+                        slotSandboxes, freeSlots, results));
+                running++;
+            }
             
-            // Find and kill any running containers
-            ProcessBuilder pb = new ProcessBuilder(
-                "docker", "ps", "-q", "--filter", "ancestor=" + dockerImageName
-            );
-            Process listProcess = pb.start();
-            String containerId = new String(listProcess.getInputStream().readAllBytes()).trim();
+            while (running > 0) {
+                Future<Integer> done = completion.take();
+                running--;
+                if (done.isCancelled()) {
+                    continue;
+                }
+                int finished = done.get();
+                if (finished < fatalIndex) {
+                    if (results[finished].isPassed()) {
+                        passed++;
+                    }
+                    publishProgress(submission, finished + 1, testCases.size(), passed, results[finished].getStatus());
+                }
+                
+                if (finished < fatalIndex && isFatal(results[finished])) {
+                    fatalIndex = finished;
+                    // Later test cases can no longer change the verdict
+                    for (int i = finished + 1; i < futures.size(); i++) {
+                        cancelledAny |= futures.get(i).cancel(true);
+                    }
+                }
+                
+                if (nextTest < fatalIndex && nextTest < testCases.size()) {
+                    futures.add(submitTestCase(completion, slotWorkspaces, slotTestData, submission, tests, nextTest++,
+                            slotSandboxes, freeSlots, results));
+                    running++;
+                }
+            }
+        } catch (Exception e) {
+            if (e instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+            }
+            logger.error("Error running parallel test cases", e);
+            futures.forEach(future -> future.cancel(true));
+            cancelledAny = true;
+            fatalIndex = Math.min(fatalIndex, nextTest);
+            if (fatalIndex < results.length) {
+                results[fatalIndex] = new TestCaseResult(false, SubmissionStatus.SYSTEM_ERROR,
+                    "System Error: " + e.getMessage(), 0, e.getMessage());
+            }
+        } finally {
+            // A cancelled run may still be winding down in whichever slot it had, so recycle them all
+            for (int i = 0; i < parallelism; i++) {
+                if (cancelledAny) {
+                    slotSandboxes.get(i).markDirty();
+                }
+                if (i > 0) {
+                    sandboxRunner.release(slotSandboxes.get(i));
+                }
+            }
+        }
+        
+        List<TestCaseResult> ordered = new ArrayList<>();
+        for (int i = 0; i <= Math.min(fatalIndex, results.length - 1) && results[i] != null; i++) {
+            ordered.add(results[i]);
+        }
+        return ordered;
+    }
+    
+    private Future<Integer> submitTestCase(ExecutorCompletionService<Integer> completion, List<Path> slotWorkspaces,
+            List<String> slotTestData, Submission submission, TestDataStager.StagedTestSet tests, int index,
+            List<SandboxRunner.Sandbox> slotSandboxes, BlockingQueue<Integer> freeSlots, TestCaseResult[] results) {
+        return completion.submit(() -> {
+            int slot = freeSlots.take();
+            try {
+                TestCaseResult testResult = runSingleTestCase(slotWorkspaces.get(slot), submission,
+                        testInput(slotTestData.get(slot), index + 1), tests.expectedOutput(index + 1), index + 1,
+                        slotSandboxes.get(slot));
+                if (leavesSandboxDirty(testResult)) {
+                    slotSandboxes.get(slot).markDirty();
+                }
+                results[index] = testResult;
+            } finally {
+                freeSlots.offer(slot);
+            }
+            return index;
+        });
+    }
+    
+    private boolean isFatal(TestCaseResult testResult) {
+        if (testResult == null || testResult.isPassed()) {
+            return false;
+        }
+        return testResult.getStatus() != SubmissionStatus.WRONG_ANSWER || failFastOnWrongAnswer;
+    }
+    
+    private boolean leavesSandboxDirty(TestCaseResult testResult) {
+        return testResult.getStatus() == SubmissionStatus.TIME_LIMIT_EXCEEDED
+                || testResult.getStatus() == SubmissionStatus.OUTPUT_LIMIT_EXCEEDED
+                || testResult.getStatus() == SubmissionStatus.SYSTEM_ERROR;
+    }
+    
+    /**
+     * Runs every test case in one sandbox process through the judge harness, which
+     * enforces the per-test time limit and reports one result line per test. Stops at
+     * the first runtime error or time limit, like the sequential loop.
+     */
+    private List<TestCaseResult> runBatchTestCases(Path tempDir, Submission submission, List<TestCase> testCases,
+            TestDataStager.StagedTestSet tests, String testData, SandboxRunner.Sandbox sandbox) {
+        List<TestCaseResult> results = new ArrayList<>();
+        int passed = 0;
+        SandboxRunner.SandboxProcess run = null;
+        CompletableFuture<Void> watchdog = null;
+        try {
+            Files.write(tempDir.resolve(HARNESS_FILE), loadHarnessScript());
             
-            if (!containerId.isEmpty()) {
-                new ProcessBuilder("docker", "rm", "-f", containerId)
-                    .start()
-                    .waitFor(5, TimeUnit.SECONDS);
+            List<String> command = new ArrayList<>();
+            command.add("bash");
+            command.add(HARNESS_FILE);
+            command.add(String.valueOf(executionTimeoutSeconds));
+            command.add(String.valueOf(testCases.size()));
+            command.add(String.valueOf(outputLimitBytes(submission.getProblem())));
+            command.add(testData);
+            command.add("--");
+            command.addAll(getRunCommand(submission.getLanguage()));
+            
+            logger.info("Batch command: {}", String.join(" ", command));
+            
+            // The harness sends its own stderr to stdout, program output goes to files
+            run = sandboxRunner.run(sandbox, tempDir, command, runLimits(submission.getProblem()));
+            Process process = run.getProcess();
+            
+            // Safety net in case the harness itself hangs: every test gets its limit plus kill grace
+            long deadlineSeconds = (long) testCases.size() * (executionTimeoutSeconds + 2) + 10;
+            SandboxRunner.SandboxProcess running = run;
+            watchdog = CompletableFuture.runAsync(() -> {
+                    sandbox.markDirty();
+                    running.kill();
+                }, CompletableFuture.delayedExecutor(deadlineSeconds, TimeUnit.SECONDS));
+            
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream()))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    if (!line.startsWith(HARNESS_RESULT_PREFIX)) {
+                        logger.info("Harness: {}", line);
+                        continue;
+                    }
+                    String[] parts = line.substring(HARNESS_RESULT_PREFIX.length()).trim().split("\\s+");
+                    int index = Integer.parseInt(parts[0]);
+                    int exitCode = Integer.parseInt(parts[1]);
+                    long wallTime = Long.parseLong(parts[2]);
+                    long cpuTime = Long.parseLong(parts[3]);
+                    TestCaseResult testResult = toTestCaseResult(tempDir, submission.getProblem(),
+                            tests.expectedOutput(index), index, exitCode, wallTime, cpuTime, 0);
+                    results.add(testResult);
+                    if (testResult.isPassed()) {
+                        passed++;
+                    }
+                    publishProgress(submission, index, testCases.size(), passed, testResult.getStatus());
+                }
             }
+            process.waitFor(5, TimeUnit.SECONDS);
+            
+            TestCaseResult last = results.isEmpty() ? null : results.get(results.size() - 1);
+            if (results.size() < testCases.size() && (last == null || last.getStatus() == SubmissionStatus.ACCEPTED
+                    || last.getStatus() == SubmissionStatus.WRONG_ANSWER)) {
+                // Harness ended before reporting every test, e.g. killed by the watchdog
+                results.add(new TestCaseResult(false, SubmissionStatus.SYSTEM_ERROR,
+                    "System Error: judge harness stopped after " + results.size() + " test cases", 0, null));
+            }
+            return results;
+            
         } catch (Exception e) {
-            logger.error("Error killing process/container", e);
+            logger.error("Error running batch test cases", e);
+            results.add(new TestCaseResult(false, SubmissionStatus.SYSTEM_ERROR,
+                "System Error: " + e.getMessage(), 0, e.getMessage()));
+            return results;
+        } finally {
+            if (watchdog != null) {
+                watchdog.cancel(false);
+            }
+            if (run != null) {
+                run.close();
+            }
         }
     }
-
-    private String readProcessOutput(Process process) throws IOException {
-        StringBuilder output = new StringBuilder();
-        try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream()))) {
-            String line;
-            while ((line = reader.readLine()) != null) {
-                output.append(line).append("\n");
+    
+    /**
+     * Tells the submission's streams that one more test case was judged.
+     */
+    private void publishProgress(Submission submission, int testCase, int totalTestCases, int passed,
+            SubmissionStatus status) {
+        eventPublisher.publishEvent(new SubmissionProgressEvent(
+                submission.getUser() != null ? submission.getUser().getId() : null,
+                submission.getContest() != null ? submission.getContest().getId() : null,
+                new SubmissionProgressDto(submission.getId(), testCase, totalTestCases, passed, status)));
+    }
+    
+    private WarmWorkerPool getWarmWorkerPool(String language) {
+        switch (language.toLowerCase()) {
+            case "java":
+                return warmJvmPool;
+            case "python":
+                return pythonZygotePool;
+            default:
+                return null;
+        }
+    }
+    
+    /**
+     * Runs test cases in a resident worker: a fresh class loader per test for Java, a
+     * forked interpreter per test for Python. Returns {@code null} when no worker is
+     * available, also when one retired mid-submission and no replacement is free, so the
+     * regular runner takes over.
+     */
+    private List<TestCaseResult> runWarmWorkerTestCases(WarmWorkerPool pool, Path tempDir, Submission submission,
+            List<TestCase> testCases, TestDataStager.StagedTestSet tests) {
+        WarmWorkerPool.Worker worker = pool.lease();
+        if (worker == null) {
+            return null;
+        }
+        List<TestCaseResult> results = new ArrayList<>();
+        int passed = 0;
+        try {
+            Path staged = null;
+            String workspace = null;
+            String testData = null;
+            
+            for (int i = 0; i < testCases.size(); i++) {
+                int index = i + 1;
+                if (!worker.isHealthy()) {
+                    // The last run retired the worker; the remaining tests go to a fresh one
+                    pool.release(worker);
+                    worker = pool.lease();
+                    if (worker == null) {
+                        return null;
+                    }
+                    staged = null;
+                }
+                if (staged == null) {
+                    // The worker only sees its own directory, so the lease works on a copy of the workspace
+                    staged = worker.stage(tempDir);
+                    workspace = worker.containerPath(staged);
+                    testData = worker.stageTestData(tests);
+                }
+                WarmWorkerPool.RunResult run = worker.run(workspace, testData + "/" + index + ".in",
+                        workspace + "/out/" + index + ".out", workspace + "/out/" + index + ".err",
+                        executionTimeoutSeconds * 1000L, outputLimitBytes(submission.getProblem()));
+                if (run == null) {
+                    results.add(new TestCaseResult(false, SubmissionStatus.SYSTEM_ERROR,
+                        "System Error: warm worker stopped responding", 0, null));
+                    break;
+                }
+                
+                TestCaseResult testResult = toTestCaseResult(staged, submission.getProblem(), tests.expectedOutput(index),
+                        index, run.getExitCode(), run.getWallTime(), run.getCpuTime(), run.getPeakMemoryBytes());
+                results.add(testResult);
+                if (testResult.isPassed()) {
+                    passed++;
+                }
+                publishProgress(submission, index, testCases.size(), passed, testResult.getStatus());
+                if (!testResult.isPassed() && testResult.getStatus() != SubmissionStatus.WRONG_ANSWER) {
+                    break;
+                }
             }
+        } catch (Exception e) {
+            logger.error("Error running test cases in warm worker", e);
+            results.add(new TestCaseResult(false, SubmissionStatus.SYSTEM_ERROR,
+                "System Error: " + e.getMessage(), 0, e.getMessage()));
+        } finally {
+            pool.release(worker);
         }
-        return output.toString();
+        return results;
     }
     
+    /**
+     * Verdict of one test case whose program output was written to out/&lt;index&gt;.out and .err,
+     * checked against the expected output file. Without one (a run on custom input) a clean
+     * exit counts as passed.
+     * Times and memory measured by GNU time (out/&lt;index&gt;.usage) take precedence over the
+     * given ones, which are 0 when unknown.
+     */
+    private TestCaseResult toTestCaseResult(Path tempDir, Problem problem, Path expectedFile, int index, int exitCode,
+            long wallTime, long cpuTime, long memoryUsed) throws IOException {
+        long[] usage = readUsage(tempDir.resolve("out").resolve(index + ".usage"));
+        if (usage != null) {
+            wallTime = usage[0];
+            cpuTime = usage[1];
+            memoryUsed = usage[2];
+        }
+        Path outputFile = tempDir.resolve("out").resolve(index + ".out");
+        Path errorFile = tempDir.resolve("out").resolve(index + ".err");
+        // Only a bounded head of the output is ever loaded; the checker streams the file
+        int excerptBytes = outputCapture.getConsoleExcerptBytes();
+        String output = outputCapture.excerpt(outputFile, excerptBytes);
+        String errorOutput = outputCapture.excerpt(errorFile, excerptBytes);
+        String consoleOutput = errorOutput.isEmpty() ? output : output + errorOutput;
+        long outputBytes = Files.size(outputFile) + (Files.exists(errorFile) ? Files.size(errorFile) : 0);
+        
+        logger.info("Test {} exit code: {}, wall: {}ms, cpu: {}ms, memory: {} bytes", index, exitCode, wallTime, cpuTime,
+                memoryUsed);
+        
+        TestCaseResult result;
+        if (exitCode == OUTPUT_LIMIT_EXIT_CODE || outputBytes > outputLimitBytes(problem)) {
+            result = outputLimitExceeded(problem, wallTime, consoleOutput);
+        } else if (exceededMemory(problem, exitCode, wallTime, memoryUsed, errorOutput)) {
+            result = new TestCaseResult(false, SubmissionStatus.MEMORY_LIMIT_EXCEEDED, "Memory Limit Exceeded", wallTime,
+                "Program exceeded memory limit of " + problem.getMemoryLimit() + " MB\n" + consoleOutput);
+        } else if (exitCode == 124 || exitCode == 137) {
+            // 124 from timeout, 137 when timeout had to follow up with SIGKILL
+            result = new TestCaseResult(false, SubmissionStatus.TIME_LIMIT_EXCEEDED,
+                "Time Limit Exceeded", wallTime, "Program exceeded time limit of " + executionTimeoutSeconds + " seconds");
+        } else if (exitCode != 0) {
+            result = new TestCaseResult(false, SubmissionStatus.RUNTIME_ERROR,
+                "Runtime Error", wallTime, consoleOutput);
+        } else if (expectedFile == null) {
+            result = new TestCaseResult(true, SubmissionStatus.ACCEPTED, "Finished", wallTime, consoleOutput);
+        } else {
+            try (Reader reader = new InputStreamReader(Files.newInputStream(outputFile), StandardCharsets.UTF_8)) {
+                result = checkOutput(reader, problem, expectedFile, wallTime, consoleOutput);
+            }
+        }
+        result.setCpuTime(cpuTime);
+        result.setMemoryUsed(memoryUsed);
+        return result;
+    }
+    
+    /**
+     * Peak memory above the problem's limit, a SIGKILL before the time limit (the OOM killer),
+     * or a runtime reporting a failed allocation.
+     */
+    private boolean exceededMemory(Problem problem, int exitCode, long wallTime, long memoryUsed, String errorOutput) {
+        if (problem.getMemoryLimit() == null) {
+            return false;
+        }
+        if (memoryUsed > problem.getMemoryLimit() * 1024L * 1024L) {
+            return true;
+        }
+        if (exitCode == 137 && wallTime < executionTimeoutSeconds * 1000L) {
+            return true;
+        }
+        return exitCode != 0 && OUT_OF_MEMORY_MARKERS.stream().anyMatch(errorOutput::contains);
+    }
+    
+    /**
+     * Wall ms, CPU ms and peak RSS bytes from a GNU time report, or {@code null} if there is none.
+     */
+    private long[] readUsage(Path usageFile) {
+        try {
+            if (!Files.exists(usageFile)) {
+                return null;
+            }
+            String[] fields = Files.readString(usageFile, StandardCharsets.US_ASCII).trim().split("\\s+");
+            // A killed command makes time print a notice line before the values
+            int n = fields.length;
+            if (n < 4) {
+                return null;
+            }
+            long wall = Math.round(Double.parseDouble(fields[n - 4]) * 1000);
+            long cpu = Math.round((Double.parseDouble(fields[n - 3]) + Double.parseDouble(fields[n - 2])) * 1000);
+            long rss = Long.parseLong(fields[n - 1]) * 1024;
+            return new long[] { wall, cpu, rss };
+        } catch (IOException | NumberFormatException e) {
+            logger.warn("Unreadable usage report {}: {}", usageFile, e.getMessage());
+            return null;
+        }
+    }
+    
+    private SandboxRunner.Limits runLimits(Problem problem) {
+        return new SandboxRunner.Limits(executionTimeoutSeconds, outputLimitBytes(problem));
+    }
+    
+    private long outputLimitBytes(Problem problem) {
+        int limitMb = problem.getOutputLimit() != null ? problem.getOutputLimit() : defaultOutputLimitMb;
+        return limitMb * 1024L * 1024L;
+    }
+    
+    private TestCaseResult outputLimitExceeded(Problem problem, long executionTime, String consoleOutput) {
+        return new TestCaseResult(false, SubmissionStatus.OUTPUT_LIMIT_EXCEEDED, "Output Limit Exceeded",
+            executionTime, "Program output exceeded the limit of " + outputLimitBytes(problem) / (1024 * 1024) + " MB\n"
+                + (consoleOutput == null ? "" : consoleOutput));
+    }
+    
+    /**
+     * Compares program output with the expected output using the problem's checker mode.
+     */
+    private TestCaseResult checkOutput(Reader output, Problem problem, Path expectedFile, long executionTime,
+            String consoleOutput) throws IOException {
+        double tolerance = problem.getFloatTolerance() != null ? problem.getFloatTolerance() : 1e-6;
+        OutputChecker.CheckResult check;
+        try (Reader expected = new InputStreamReader(TestCaseBlobStore.openMapped(expectedFile), StandardCharsets.UTF_8)) {
+            check = outputChecker.check(output, expected, problem.getCheckerMode(), tolerance);
+        }
+        if (check.isAccepted()) {
+            return new TestCaseResult(true, SubmissionStatus.ACCEPTED, "Accepted", executionTime, consoleOutput);
+        }
+        logger.info("Wrong answer at {}", check.describe());
+        return new TestCaseResult(false, SubmissionStatus.WRONG_ANSWER,
+            "Wrong Answer: " + check.describe(), executionTime, consoleOutput);
+    }
+    
+    private List<String> getRunCommand(String language) {
+        switch (language.toLowerCase()) {
+            case "java":
+                return List.of("java", "Solution");
+            case "python":
+                return List.of("python3", "solution.py");
+            case "cpp":
+                return List.of("./solution");
+            default:
+                return List.of();
+        }
+    }
+    
+    private byte[] loadHarnessScript() throws IOException {
+        if (harnessScript == null) {
+            try (InputStream in = new ClassPathResource("judge/" + HARNESS_FILE).getInputStream()) {
+                harnessScript = in.readAllBytes();
+            }
+        }
+        return harnessScript;
+    }
+
     private void cleanupTempDirectory(Path tempDir) {
         try {
             Files.walk(tempDir)
@@ -335,6 +1009,8 @@ public class CodeJudgeService {
         private int testCasesPassed;
         private int totalTestCases;
         private long executionTime;
+        private long cpuTime;
+        private long memoryUsed; // peak over all test cases, in bytes
         private String consoleOutput;
         private String compilationError;
         
@@ -353,6 +1029,12 @@ public class CodeJudgeService {
         
         public long getExecutionTime() { return executionTime; }
         public void setExecutionTime(long executionTime) { this.executionTime = executionTime; }
+        
+        public long getCpuTime() { return cpuTime; }
+        public void setCpuTime(long cpuTime) { this.cpuTime = cpuTime; }
+        
+        public long getMemoryUsed() { return memoryUsed; }
+        public void setMemoryUsed(long memoryUsed) { this.memoryUsed = memoryUsed; }
 
         // New getters and setters
         public String getConsoleOutput() { return consoleOutput; }
@@ -362,11 +1044,61 @@ public class CodeJudgeService {
         public void setCompilationError(String compilationError) { this.compilationError = compilationError; }
     }
     
+    public static class CodeRunResult {
+        // ACCEPTED when every run passed, else the first failing verdict
+        private SubmissionStatus status;
+        private String compilationError;
+        private final List<CodeRunCase> cases = new ArrayList<>();
+
+        public SubmissionStatus getStatus() { return status; }
+        public void setStatus(SubmissionStatus status) { this.status = status; }
+
+        public String getCompilationError() { return compilationError; }
+        public void setCompilationError(String compilationError) { this.compilationError = compilationError; }
+
+        public List<CodeRunCase> getCases() { return cases; }
+    }
+
+    public static class CodeRunCase {
+        private final TestCaseResult result;
+        private final String output;
+        private final String errorOutput;
+
+        public CodeRunCase(TestCaseResult result, String output, String errorOutput) {
+            this.result = result;
+            this.output = output;
+            this.errorOutput = errorOutput;
+        }
+
+        public TestCaseResult getResult() { return result; }
+        public String getOutput() { return output; }
+        public String getErrorOutput() { return errorOutput; }
+    }
+
+    public static class CompileResult {
+        private final boolean success;
+        private final String diagnostics;
+        // Only real compiler verdicts are cached, not timeouts or infrastructure failures
+        private final boolean cacheable;
+
+        public CompileResult(boolean success, String diagnostics, boolean cacheable) {
+            this.success = success;
+            this.diagnostics = diagnostics;
+            this.cacheable = cacheable;
+        }
+
+        public boolean isSuccess() { return success; }
+        public String getDiagnostics() { return diagnostics; }
+        public boolean isCacheable() { return cacheable; }
+    }
+    
     public static class TestCaseResult {
         private boolean passed;
         private SubmissionStatus status;
         private String errorMessage;
         private long executionTime;
+        private long cpuTime;
+        private long memoryUsed;
         private String consoleOutput;
 
         // Add this constructor
@@ -391,6 +1123,12 @@ public class CodeJudgeService {
         public long getExecutionTime() { return executionTime; }
         public void setExecutionTime(long executionTime) { this.executionTime = executionTime; }
         
+        public long getCpuTime() { return cpuTime; }
+        public void setCpuTime(long cpuTime) { this.cpuTime = cpuTime; }
+        
+        public long getMemoryUsed() { return memoryUsed; }
+        public void setMemoryUsed(long memoryUsed) { this.memoryUsed = memoryUsed; }
+        
         public String getConsoleOutput() { return consoleOutput; }
         public void setConsoleOutput(String consoleOutput) { this.consoleOutput = consoleOutput; }
     }
@@ -0,0 +1,291 @@
+package com.shodh.coder.service;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Content-addressed cache of compiler output. Entries are keyed by the exact source,
+ * language, compile command and the digest of the runner image, and hold either the
+ * produced artifacts or the diagnostics of a failed compilation.
+ *
+ * Entries live on disk under {@code app.judge.compile-cache.dir}, one directory per key,
+ * and are evicted least-recently-used once the store exceeds its size bound.
+ */
+@Service
+public class CompileCacheService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CompileCacheService.class);
+
+    private static final String ARTIFACTS_DIR = "artifacts";
+    private static final String DIAGNOSTICS_FILE = "diagnostics.txt";
+    private static final String FAILED_MARKER = "FAILED";
+    private static final long IMAGE_DIGEST_TTL_MILLIS = TimeUnit.MINUTES.toMillis(5);
+
+    @Value("${app.judge.compile-cache.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.judge.compile-cache.dir:${java.io.tmpdir}/shodh-compile-cache}")
+    private String cacheDir;
+
+    @Value("${app.judge.compile-cache.max-size-mb:256}")
+    private long maxSizeMb;
+
+    // Access-ordered index of entry sizes, eldest first
+    private final LinkedHashMap<String, Long> index = new LinkedHashMap<>(16, 0.75f, true);
+    private long totalBytes;
+
+    private final Map<String, ImageDigest> imageDigests = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void loadIndex() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            Files.createDirectories(root());
+            List<Path> entries = new ArrayList<>();
+            try (DirectoryStream<Path> stream = Files.newDirectoryStream(root(), Files::isDirectory)) {
+                stream.forEach(entries::add);
+            }
+            entries.sort(Comparator.comparing(this::lastModified));
+            synchronized (index) {
+                for (Path entry : entries) {
+                    if (entry.getFileName().toString().contains(".tmp-")) {
+                        // Half-written entry from a previous run
+                        deleteRecursively(entry);
+                        continue;
+                    }
+                    long size = directorySize(entry);
+                    index.put(entry.getFileName().toString(), size);
+                    totalBytes += size;
+                }
+            }
+            logger.info("Compile cache loaded {} entries ({} bytes) from {}", entries.size(), totalBytes, root());
+        } catch (IOException e) {
+            logger.warn("Compile cache disabled, cannot use {}: {}", cacheDir, e.getMessage());
+            enabled = false;
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Cache key for one compilation. The source is hashed exactly as it is compiled: line
+     * endings or trailing whitespace can change the result (a backslash line continuation,
+     * a missing final newline), so they are not normalized away.
+     */
+    public String key(String code, String language, List<String> compileCommand, String image) {
+        return ContentHash.sha256(code + "\u0000" + language.toLowerCase() + "\u0000"
+                + String.join(" ", compileCommand) + "\u0000" + imageDigest(image));
+    }
+
+    /**
+     * Looks up a compilation. On a successful hit the cached artifacts are copied into the
+     * workspace.
+     */
+    public Optional<CachedCompilation> restore(String key, Path workspace) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+        synchronized (index) {
+            if (index.get(key) == null) {
+                return Optional.empty();
+            }
+        }
+        Path entry = root().resolve(key);
+        try {
+            String diagnostics = Files.exists(entry.resolve(DIAGNOSTICS_FILE))
+                    ? Files.readString(entry.resolve(DIAGNOSTICS_FILE), StandardCharsets.UTF_8)
+                    : "";
+            if (Files.exists(entry.resolve(FAILED_MARKER))) {
+                touch(entry);
+                return Optional.of(new CachedCompilation(false, diagnostics));
+            }
+            try (DirectoryStream<Path> artifacts = Files.newDirectoryStream(entry.resolve(ARTIFACTS_DIR))) {
+                for (Path artifact : artifacts) {
+                    Path target = workspace.resolve(artifact.getFileName().toString());
+                    Files.copy(artifact, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.COPY_ATTRIBUTES);
+                }
+            }
+            touch(entry);
+            return Optional.of(new CachedCompilation(true, diagnostics));
+        } catch (IOException e) {
+            // Entry was evicted or damaged underneath us, treat as a miss
+            logger.warn("Compile cache entry {} unreadable: {}", key, e.getMessage());
+            remove(key);
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Records a successful compilation together with the given artifact files of the workspace.
+     */
+    public void storeSuccess(String key, Path workspace, List<String> artifactNames, String diagnostics) {
+        store(key, workspace, artifactNames, diagnostics, false);
+    }
+
+    /**
+     * Records a failed compilation so that identical sources are rejected without compiling.
+     */
+    public void storeFailure(String key, String diagnostics) {
+        store(key, null, List.of(), diagnostics, true);
+    }
+
+    private void store(String key, Path workspace, List<String> artifactNames, String diagnostics, boolean failed) {
+        if (!enabled) {
+            return;
+        }
+        Path entry = root().resolve(key);
+        Path staging = root().resolve(key + ".tmp-" + Thread.currentThread().getId());
+        try {
+            Files.createDirectories(staging.resolve(ARTIFACTS_DIR));
+            Files.writeString(staging.resolve(DIAGNOSTICS_FILE), diagnostics == null ? "" : diagnostics, StandardCharsets.UTF_8);
+            if (failed) {
+                Files.createFile(staging.resolve(FAILED_MARKER));
+            }
+            for (String name : artifactNames) {
+                // Keeps the executable bit of native binaries
+                Files.copy(workspace.resolve(name), staging.resolve(ARTIFACTS_DIR).resolve(name),
+                        StandardCopyOption.COPY_ATTRIBUTES);
+            }
+            long size = directorySize(staging);
+            try {
+                Files.move(staging, entry, StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException e) {
+                // Someone else stored the same compilation first
+                deleteRecursively(staging);
+                return;
+            }
+            synchronized (index) {
+                Long previous = index.put(key, size);
+                totalBytes += size - (previous == null ? 0 : previous);
+            }
+            evictIfNeeded();
+        } catch (IOException e) {
+            logger.warn("Failed to store compile cache entry {}: {}", key, e.getMessage());
+            deleteRecursively(staging);
+        }
+    }
+
+    private void evictIfNeeded() {
+        long maxBytes = maxSizeMb * 1024 * 1024;
+        List<String> evicted = new ArrayList<>();
+        synchronized (index) {
+            Iterator<Map.Entry<String, Long>> iterator = index.entrySet().iterator();
+            while (totalBytes > maxBytes && iterator.hasNext()) {
+                Map.Entry<String, Long> eldest = iterator.next();
+                totalBytes -= eldest.getValue();
+                evicted.add(eldest.getKey());
+                iterator.remove();
+            }
+        }
+        evicted.forEach(key -> deleteRecursively(root().resolve(key)));
+    }
+
+    private void remove(String key) {
+        synchronized (index) {
+            Long size = index.remove(key);
+            if (size != null) {
+                totalBytes -= size;
+            }
+        }
+        deleteRecursively(root().resolve(key));
+    }
+
+    private void touch(Path entry) throws IOException {
+        synchronized (index) {
+            index.get(entry.getFileName().toString());
+        }
+        Files.setLastModifiedTime(entry, FileTime.fromMillis(System.currentTimeMillis()));
+    }
+
+    /**
+     * Image id of the runner image, so a rebuilt toolchain never reuses old artifacts.
+     */
+    private String imageDigest(String image) {
+        ImageDigest cached = imageDigests.get(image);
+        if (cached != null && System.currentTimeMillis() - cached.resolvedAt < IMAGE_DIGEST_TTL_MILLIS) {
+            return cached.digest;
+        }
+        String digest = image;
+        try {
+            Process process = new ProcessBuilder("docker", "image", "inspect", "-f", "{{.Id}}", image)
+                    .redirectErrorStream(true)
+                    .start();
+            String output = new String(process.getInputStream().readAllBytes()).trim();
+            if (process.waitFor(5, TimeUnit.SECONDS) && process.exitValue() == 0 && !output.isEmpty()) {
+                digest = output;
+            }
+        } catch (Exception e) {
+            logger.debug("Could not resolve digest of image {}: {}", image, e.getMessage());
+        }
+        imageDigests.put(image, new ImageDigest(digest, System.currentTimeMillis()));
+        return digest;
+    }
+
+    private Path root() {
+        return Paths.get(cacheDir);
+    }
+
+    private FileTime lastModified(Path path) {
+        try {
+            return Files.getLastModifiedTime(path);
+        } catch (IOException e) {
+            return FileTime.fromMillis(0);
+        }
+    }
+
+    private long directorySize(Path directory) throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            return files.filter(Files::isRegularFile).mapToLong(path -> path.toFile().length()).sum();
+        }
+    }
+
+    private void deleteRecursively(Path directory) {
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        } catch (IOException e) {
+            // Already gone
+        }
+    }
+
+    private record ImageDigest(String digest, long resolvedAt) {}
+
+    public static class CachedCompilation {
+        private final boolean success;
+        private final String diagnostics;
+
+        public CachedCompilation(boolean success, String diagnostics) {
+            this.success = success;
+            this.diagnostics = diagnostics;
+        }
+
+        public boolean isSuccess() { return success; }
+        public String getDiagnostics() { return diagnostics; }
+    }
+}
@@ -0,0 +1,34 @@
+package com.shodh.coder.service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * SHA-256 helpers for the content-addressed judge caches.
+ */
+public final class ContentHash {
+
+    private ContentHash() {}
+
+    public static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    public static String sha256(String value) {
+        return sha256(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static String sha256(byte[] value) {
+        return toHex(newDigest().digest(value));
+    }
+
+    public static String toHex(byte[] digest) {
+        return HexFormat.of().formatHex(digest);
+    }
+}
@@ -0,0 +1,134 @@
+package com.shodh.coder.service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.EnumSet;
+import java.util.Optional;
+import java.util.Set;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.shodh.coder.entity.Contest;
+import com.shodh.coder.entity.ContestUserProblemResult;
+import com.shodh.coder.entity.Submission;
+import com.shodh.coder.entity.SubmissionStatus;
+import com.shodh.coder.repository.ContestRepository;
+import com.shodh.coder.repository.ContestUserProblemResultRepository;
+import com.shodh.coder.repository.SubmissionRepository;
+
+/**
+ * Writes verdicts together with the {@link ContestUserProblemResult} they change, in one
+ * transaction, so standings never disagree with the submissions they come from.
+ */
+@Service
+public class ContestResultService {
+
+    // Verdicts that cost a penalty attempt; a compilation or system error is not held against the user
+    private static final Set<SubmissionStatus> REJECTED = EnumSet.of(SubmissionStatus.WRONG_ANSWER,
+            SubmissionStatus.TIME_LIMIT_EXCEEDED, SubmissionStatus.MEMORY_LIMIT_EXCEEDED,
+            SubmissionStatus.OUTPUT_LIMIT_EXCEEDED, SubmissionStatus.RUNTIME_ERROR);
+
+    @Value("${app.leaderboard.penalty-minutes-per-attempt:20}")
+    private long penaltyMinutesPerAttempt;
+
+    @Autowired
+    private SubmissionRepository submissionRepository;
+
+    @Autowired
+    private ContestUserProblemResultRepository resultRepository;
+
+    @Autowired
+    private ContestRepository contestRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    /**
+     * Writes the verdict of a running submission and folds it into the user's result for
+     * the problem.
+     *
+     * @return 0 if the submission was no longer running and nothing was written
+     */
+    @Transactional
+    public int applyVerdict(Submission submission, CodeJudgeService.ExecutionResult result, String summary,
+            LocalDateTime completedAt) {
+        int updated = submissionRepository.applyVerdict(submission.getId(), result.getStatus(), summary,
+                result.getTestCasesPassed(), result.getTotalTestCases(), result.getExecutionTime(),
+                result.getCpuTime(), result.getMemoryUsed(), result.getConsoleOutput(),
+                result.getCompilationError(), completedAt);
+        if (updated > 0 && submission.getContest() != null) {
+            record(submission, result.getStatus());
+        }
+        return updated;
+    }
+
+    /**
+     * Folds a verdict into the user's result for the problem. Verdicts of one user on one
+     * problem can commit in any order across judge nodes, so the result is recomputed from
+     * the submissions under the row lock rather than adjusted: the earliest accepted
+     * submission wins, and only rejected submissions made before it count as attempts.
+     */
+    private void record(Submission submission, SubmissionStatus status) {
+        boolean accepted = status == SubmissionStatus.ACCEPTED;
+        if (!accepted && !REJECTED.contains(status)) {
+            return;
+        }
+        Long contestId = submission.getContest().getId();
+        Long userId = submission.getUser().getId();
+        Long problemId = submission.getProblem().getId();
+        LocalDateTime submittedAt = submission.getSubmittedAt();
+        ContestUserProblemResult result = lockResult(contestId, userId, problemId);
+        LocalDateTime firstAcceptedAt = result.getFirstAcceptedAt();
+        if (accepted && (firstAcceptedAt == null || submittedAt.isBefore(firstAcceptedAt))) {
+            firstAcceptedAt = submittedAt;
+        } else if (firstAcceptedAt != null && !submittedAt.isBefore(firstAcceptedAt)) {
+            // Made after the problem was solved; changes nothing
+            return;
+        }
+
+        int attempts = (int) (firstAcceptedAt != null
+                ? submissionRepository.countVerdictsBefore(contestId, userId, problemId, REJECTED, firstAcceptedAt)
+                : submissionRepository.countVerdicts(contestId, userId, problemId, REJECTED));
+        result.setAttempts(attempts);
+        if (firstAcceptedAt != null) {
+            Contest contest = contestRepository.findById(contestId).orElse(null);
+            long minutes = contest != null && contest.getStartTime() != null
+                    ? Math.max(0, Duration.between(contest.getStartTime(), firstAcceptedAt).toMinutes())
+                    : 0;
+            result.setFirstAcceptedAt(firstAcceptedAt);
+            result.setBestScore(submission.getProblem().getPoints() != null ? submission.getProblem().getPoints() : 0);
+            result.setPenaltyMinutes(minutes + penaltyMinutesPerAttempt * attempts);
+        }
+        resultRepository.save(result);
+    }
+
+    /**
+     * The user's result row for the problem, locked. A missing row is inserted in its own
+     * transaction; when another node inserts it first, that insert fails without rolling
+     * back the verdict and the row is read again.
+     */
+    private ContestUserProblemResult lockResult(Long contestId, Long userId, Long problemId) {
+        Optional<ContestUserProblemResult> existing = resultRepository.findForUpdate(contestId, userId, problemId);
+        if (existing.isPresent()) {
+            return existing.get();
+        }
+        TransactionTemplate insert = new TransactionTemplate(transactionManager);
+        insert.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        try {
+            insert.executeWithoutResult(
+                    status -> resultRepository.saveAndFlush(new ContestUserProblemResult(contestId, userId, problemId)));
+        } catch (DataIntegrityViolationException e) {
+            // Created by a concurrent verdict
+        }
+        return resultRepository.findForUpdate(contestId, userId, problemId)
+                .orElseThrow(() -> new IllegalStateException("Result of user " + userId + " on problem " + problemId
+                        + " in contest " + contestId + " is missing after insert"));
+    }
+}
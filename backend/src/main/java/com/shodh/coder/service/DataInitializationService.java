@@ -10,6 +10,7 @@ import org.springframework.boot.CommandLineRunner;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.shodh.coder.config.NodeRole;
 import com.shodh.coder.entity.Contest;
 import com.shodh.coder.entity.Problem;
 import com.shodh.coder.entity.TestCase;
@@ -36,9 +37,16 @@ public class DataInitializationService implements CommandLineRunner {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private NodeRole nodeRole;
+
     @Override
     @Transactional
     public void run(String... args) throws Exception {
+        if (!nodeRole.servesApi()) {
+            // Worker nodes share the API node's database
+            return;
+        }
         if (contestRepository.count() == 0) {
             logger.info("Initializing sample data...");
             initializeSampleData();
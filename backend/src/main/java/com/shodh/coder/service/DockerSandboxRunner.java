@@ -0,0 +1,217 @@
+package com.shodh.coder.service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+/**
+ * Runs submissions in runner containers: {@code docker exec} into a warm container leased
+ * from the {@link SandboxContainerPool}, or a one-off {@code docker run} when none is free.
+ */
+@Service
+@ConditionalOnProperty(name = "app.judge.sandbox", havingValue = "docker", matchIfMissing = true)
+public class DockerSandboxRunner implements SandboxRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(DockerSandboxRunner.class);
+
+    @Value("${app.docker.memory-limit:128m}")
+    private String memoryLimit;
+
+    @Value("${app.docker.image-name:shodh-code-runner}")
+    private String dockerImageName;
+
+    @Autowired
+    private SandboxContainerPool containerPool;
+
+    @Override
+    public String getToolchainId() {
+        return dockerImageName;
+    }
+
+    @Override
+    public String attachTestData(Sandbox sandbox, TestDataStager.StagedTestSet tests) throws IOException {
+        DockerSandbox docker = (DockerSandbox) sandbox;
+        if (docker.container != null) {
+            return containerPool.attachTestData(docker.container, tests);
+        }
+        // One-off containers mount the staged inputs directly
+        docker.testData = tests.getDirectory();
+        return TestDataStager.CONTAINER_TEST_DATA_ROOT;
+    }
+
+    @Override
+    public Sandbox acquire() {
+        // A null container means a cold docker run per step
+        return new DockerSandbox(containerPool.lease(dockerImageName));
+    }
+
+    @Override
+    public Sandbox acquireForRun() {
+        return new DockerSandbox(containerPool.lease(dockerImageName, SandboxContainerPool.RUN_PARTITION));
+    }
+
+    @Override
+    public Sandbox tryAcquire() {
+        return new DockerSandbox(containerPool.tryLease(dockerImageName));
+    }
+
+    @Override
+    public Path createWorkspace(Sandbox sandbox, String name) throws IOException {
+        SandboxContainerPool.PooledContainer container = ((DockerSandbox) sandbox).container;
+        if (container != null) {
+            return containerPool.createWorkspace(container, name);
+        }
+        // A one-off container mounts just this directory
+        return Files.createDirectories(containerPool.getWorkRoot().resolve(name));
+    }
+
+    @Override
+    public Path shareWorkspace(Sandbox sandbox, Path workspace) throws IOException {
+        SandboxContainerPool.PooledContainer container = ((DockerSandbox) sandbox).container;
+        if (container == null || workspace.toAbsolutePath().normalize()
+                .startsWith(container.getHostDir().toAbsolutePath().normalize())) {
+            return workspace;
+        }
+        Path copy = containerPool.createWorkspace(container, workspace.getFileName().toString());
+        SandboxContainerPool.copyTree(workspace, copy);
+        return copy;
+    }
+
+    @Override
+    public void release(Sandbox sandbox) {
+        SandboxContainerPool.PooledContainer container = ((DockerSandbox) sandbox).container;
+        if (sandbox.isDirty()) {
+            containerPool.discard(container);
+        } else {
+            containerPool.release(container);
+        }
+    }
+
+    @Override
+    public SandboxProcess compile(Sandbox sandbox, Path workspace, List<String> command, Path logFile) throws IOException {
+        SandboxContainerPool.PooledContainer container = ((DockerSandbox) sandbox).container;
+        String containerName = null;
+        List<String> fullCommand = new ArrayList<>();
+        if (container != null) {
+            fullCommand.addAll(containerPool.execCommand(container, workspace));
+        } else {
+            containerName = oneOffContainerName();
+            fullCommand.add("docker");
+            fullCommand.add("run");
+            fullCommand.add("--rm");
+            fullCommand.add("--name");
+            fullCommand.add(containerName);
+            fullCommand.add("-v");
+            fullCommand.add(workspace.toString() + ":/workspace");
+            fullCommand.add("-w");
+            fullCommand.add("/workspace");
+            fullCommand.add("--memory=" + memoryLimit);
+            fullCommand.add(dockerImageName);
+        }
+        fullCommand.addAll(command);
+
+        // Diagnostics go to a file so a chatty compiler can never block on a full pipe
+        Process process = new ProcessBuilder(fullCommand)
+                .redirectErrorStream(true)
+                .redirectOutput(logFile.toFile())
+                .start();
+        return new DockerProcess(process, (DockerSandbox) sandbox, containerName);
+    }
+
+    @Override
+    public SandboxProcess run(Sandbox sandbox, Path workspace, List<String> command, Limits limits) throws IOException {
+        SandboxContainerPool.PooledContainer container = ((DockerSandbox) sandbox).container;
+        Path testData = ((DockerSandbox) sandbox).testData;
+        String containerName = null;
+        List<String> fullCommand = new ArrayList<>();
+        // Exec into the warm container, or start a fresh one with proper resource limits
+        if (container != null) {
+            fullCommand.addAll(containerPool.execCommand(container, workspace));
+        } else {
+            containerName = oneOffContainerName();
+            fullCommand.add("docker");
+            fullCommand.add("run");
+            fullCommand.add("--rm");
+            fullCommand.add("--name");
+            fullCommand.add(containerName);
+            fullCommand.add("--memory=" + memoryLimit);
+            fullCommand.add("--cpus=0.5");
+            fullCommand.add("--ulimit");
+            fullCommand.add("nproc=16:32");
+            fullCommand.add("-v");
+            fullCommand.add(workspace.toString() + ":/workspace");
+            if (testData != null) {
+                fullCommand.add("-v");
+                fullCommand.add(testData.toString() + ":" + TestDataStager.CONTAINER_TEST_DATA_ROOT + ":ro");
+            }
+            fullCommand.add("-w");
+            fullCommand.add("/workspace");
+            fullCommand.add(dockerImageName);
+        }
+        fullCommand.addAll(command);
+
+        logger.info("Docker command: {}", String.join(" ", fullCommand));
+        return new DockerProcess(new ProcessBuilder(fullCommand).start(), (DockerSandbox) sandbox, containerName);
+    }
+
+    // Named so that a kill can remove the container, not just the docker client
+    private static String oneOffContainerName() {
+        return "shodh-run-" + UUID.randomUUID().toString().substring(0, 8);
+    }
+
+    private static class DockerSandbox extends Sandbox {
+        private final SandboxContainerPool.PooledContainer container;
+        // Inputs mounted into one-off run containers, null until a test set is attached
+        private volatile Path testData;
+
+        DockerSandbox(SandboxContainerPool.PooledContainer container) {
+            this.container = container;
+        }
+    }
+
+    private class DockerProcess extends SandboxProcess {
+        private final DockerSandbox sandbox;
+        // Name of the one-off container of this run, null when running in a pooled container
+        private final String containerName;
+
+        DockerProcess(Process process, DockerSandbox sandbox, String containerName) {
+            super(process);
+            this.sandbox = sandbox;
+            this.containerName = containerName;
+        }
+
+        @Override
+        public void kill() {
+            try {
+                // Kill the docker client
+                getProcess().destroyForcibly();
+
+                if (sandbox.container != null) {
+                    // The exec'd processes outlive their client; stop them now, the container
+                    // itself is replaced on release
+                    sandbox.markDirty();
+                    containerPool.killProcesses(sandbox.container);
+                } else if (containerName != null) {
+                    new ProcessBuilder("docker", "rm", "-f", containerName)
+                        .redirectErrorStream(true)
+                        .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                        .start()
+                        .waitFor(5, TimeUnit.SECONDS);
+                }
+            } catch (Exception e) {
+                logger.error("Error killing process/container", e);
+            }
+        }
+    }
+}
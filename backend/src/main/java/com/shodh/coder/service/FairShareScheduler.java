@@ -0,0 +1,129 @@
+package com.shodh.coder.service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+/**
+ * Decides which queued judge jobs to claim next. The queue is treated as one queue per
+ * contest holding one queue per user: contests take turns, and inside a contest its users
+ * take turns, so a user who submits a hundred times waits behind their own submissions
+ * instead of in front of everybody else's. A user never has more than
+ * {@code app.judge.queue.max-in-flight-per-user} submissions being judged at once.
+ *
+ * Turns are kept per node as "last served" counters, so the rotation carries on from one
+ * claim to the next. Counters of contests and users that no longer have jobs waiting or
+ * being judged are forgotten, so finished contests do not pile up; one that comes back
+ * starts a fresh turn.
+ */
+@Service
+public class FairShareScheduler {
+
+    @Value("${app.judge.queue.max-in-flight-per-user:2}")
+    private int maxInFlightPerUser;
+
+    private long clock;
+    private final Map<Long, Long> contestLastServed = new HashMap<>();
+    private final Map<Long, Long> userLastServed = new HashMap<>();
+
+    public int getMaxInFlightPerUser() {
+        return maxInFlightPerUser;
+    }
+
+    /**
+     * Picks up to {@code max} of the given queue heads, at most one per user, in fair order.
+     *
+     * @param heads    the oldest claimable job of each contest and user
+     * @param inFlight jobs currently being judged per user id
+     * @return ids of the picked jobs
+     */
+    public synchronized List<Long> pick(List<QueueHead> heads, Map<Long, Long> inFlight, int max) {
+        Map<Long, List<QueueHead>> byContest = new LinkedHashMap<>();
+        heads.stream()
+                .filter(head -> inFlight.getOrDefault(head.getUserId(), 0L) < maxInFlightPerUser)
+                .sorted(Comparator.comparingLong((QueueHead head) -> lastServed(userLastServed, head.getUserId()))
+                        .thenComparingLong(QueueHead::getJobId))
+                .forEach(head -> byContest.computeIfAbsent(head.getContestId(), id -> new ArrayList<>()).add(head));
+
+        List<Map.Entry<Long, List<QueueHead>>> contests = new ArrayList<>(byContest.entrySet());
+        contests.sort(Comparator.comparingLong((Map.Entry<Long, List<QueueHead>> entry) ->
+                        lastServed(contestLastServed, entry.getKey()))
+                .thenComparingLong(entry -> entry.getValue().get(0).getJobId()));
+
+        // One user per contest per turn, contests in turn
+        List<Long> picked = new ArrayList<>();
+        Map<Long, Long> pickedPerUser = new HashMap<>();
+        for (int turn = 0; picked.size() < max; turn++) {
+            boolean any = false;
+            for (Map.Entry<Long, List<QueueHead>> contest : contests) {
+                if (turn >= contest.getValue().size()) {
+                    continue;
+                }
+                any = true;
+                QueueHead head = contest.getValue().get(turn);
+                if (pickedPerUser.merge(head.getUserId(), 1L, Long::sum) > 1) {
+                    // Same user queued in several contests; one job per claim round
+                    continue;
+                }
+                picked.add(head.getJobId());
+                clock++;
+                contestLastServed.put(contest.getKey(), clock);
+                userLastServed.put(head.getUserId(), clock);
+                if (picked.size() == max) {
+                    break;
+                }
+            }
+            if (!any) {
+                break;
+            }
+        }
+        return picked;
+    }
+
+    /**
+     * Drops the turns of contests without queued jobs and of users with neither queued
+     * nor in-flight jobs.
+     *
+     * @param heads         the oldest claimable job of each contest and user
+     * @param inFlightUsers users with jobs currently being judged
+     */
+    public synchronized void forgetIdle(List<QueueHead> heads, Set<Long> inFlightUsers) {
+        Set<Long> contests = new HashSet<>();
+        Set<Long> users = new HashSet<>(inFlightUsers);
+        for (QueueHead head : heads) {
+            contests.add(head.getContestId());
+            users.add(head.getUserId());
+        }
+        contestLastServed.keySet().retainAll(contests);
+        userLastServed.keySet().retainAll(users);
+    }
+
+    private static long lastServed(Map<Long, Long> lastServed, Long id) {
+        return lastServed.getOrDefault(id, 0L);
+    }
+
+    public static class QueueHead {
+        private final Long contestId;
+        private final Long userId;
+        private final Long jobId;
+
+        public QueueHead(Long contestId, Long userId, Long jobId) {
+            this.contestId = contestId;
+            this.userId = userId;
+            this.jobId = Objects.requireNonNull(jobId);
+        }
+
+        public Long getContestId() { return contestId; }
+        public Long getUserId() { return userId; }
+        public Long getJobId() { return jobId; }
+    }
+}
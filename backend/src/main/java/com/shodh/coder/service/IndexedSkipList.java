@@ -0,0 +1,192 @@
+package com.shodh.coder.service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Sorted set that also answers "what is the rank of this element" and "which elements sit
+ * at ranks i to j" in O(log n): a skip list whose links also record how many elements they
+ * skip. Elements that compare equal are the same element, so the comparator has to tell
+ * all elements apart (e.g. end on a unique id).
+ *
+ * Not thread-safe; callers synchronize. An element must be removed before anything its
+ * order depends on changes, and added back afterwards.
+ */
+public class IndexedSkipList<T> {
+
+    private static final int MAX_LEVEL = 32;
+    private static final double LEVEL_PROBABILITY = 0.25;
+
+    private final Comparator<? super T> comparator;
+    private final Random random = new Random();
+    private final Node<T> head = new Node<>(null, MAX_LEVEL);
+    private int level = 1;
+    private int size;
+
+    public IndexedSkipList(Comparator<? super T> comparator) {
+        this.comparator = comparator;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Adds the element unless an equal one is present.
+     *
+     * @return whether the element was added
+     */
+    public boolean add(T value) {
+        @SuppressWarnings("unchecked")
+        Node<T>[] update = new Node[MAX_LEVEL];
+        int[] rank = new int[MAX_LEVEL];
+        Node<T> node = head;
+        for (int i = level - 1; i >= 0; i--) {
+            rank[i] = i == level - 1 ? 0 : rank[i + 1];
+            while (node.next[i] != null && comparator.compare(node.next[i].value, value) < 0) {
+                rank[i] += node.span[i];
+                node = node.next[i];
+            }
+            update[i] = node;
+        }
+        if (node.next[0] != null && comparator.compare(node.next[0].value, value) == 0) {
+            return false;
+        }
+
+        int nodeLevel = randomLevel();
+        if (nodeLevel > level) {
+            for (int i = level; i < nodeLevel; i++) {
+                rank[i] = 0;
+                update[i] = head;
+                // A missing link spans to the end of the list
+                head.span[i] = size;
+            }
+            level = nodeLevel;
+        }
+        Node<T> added = new Node<>(value, nodeLevel);
+        for (int i = 0; i < nodeLevel; i++) {
+            added.next[i] = update[i].next[i];
+            update[i].next[i] = added;
+            added.span[i] = update[i].span[i] - (rank[0] - rank[i]);
+            update[i].span[i] = rank[0] - rank[i] + 1;
+        }
+        for (int i = nodeLevel; i < level; i++) {
+            update[i].span[i]++;
+        }
+        size++;
+        return true;
+    }
+
+    /**
+     * @return whether an equal element was present and removed
+     */
+    public boolean remove(T value) {
+        @SuppressWarnings("unchecked")
+        Node<T>[] update = new Node[MAX_LEVEL];
+        Node<T> node = head;
+        for (int i = level - 1; i >= 0; i--) {
+            while (node.next[i] != null && comparator.compare(node.next[i].value, value) < 0) {
+                node = node.next[i];
+            }
+            update[i] = node;
+        }
+        Node<T> removed = node.next[0];
+        if (removed == null || comparator.compare(removed.value, value) != 0) {
+            return false;
+        }
+        for (int i = 0; i < level; i++) {
+            if (update[i].next[i] == removed) {
+                update[i].span[i] += removed.span[i] - 1;
+                update[i].next[i] = removed.next[i];
+            } else {
+                update[i].span[i]--;
+            }
+        }
+        while (level > 1 && head.next[level - 1] == null) {
+            level--;
+        }
+        size--;
+        return true;
+    }
+
+    /**
+     * Zero-based position of the element, or -1 if it is not in the list.
+     */
+    public int indexOf(T value) {
+        Node<T> node = head;
+        int rank = 0;
+        for (int i = level - 1; i >= 0; i--) {
+            while (node.next[i] != null && comparator.compare(node.next[i].value, value) <= 0) {
+                rank += node.span[i];
+                node = node.next[i];
+            }
+            if (node != head && comparator.compare(node.value, value) == 0) {
+                return rank - 1;
+            }
+        }
+        return -1;
+    }
+
+    public T get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for size " + size);
+        }
+        return nodeAt(index).value;
+    }
+
+    /**
+     * Elements from {@code fromIndex} (inclusive) to {@code toIndex} (exclusive), clamped
+     * to the list; costs O(log n) plus the number of elements returned.
+     */
+    public List<T> range(int fromIndex, int toIndex) {
+        int from = Math.max(0, fromIndex);
+        int to = Math.min(size, toIndex);
+        List<T> values = new ArrayList<>(Math.max(0, to - from));
+        if (from >= to) {
+            return values;
+        }
+        for (Node<T> node = nodeAt(from); node != null && values.size() < to - from; node = node.next[0]) {
+            values.add(node.value);
+        }
+        return values;
+    }
+
+    private Node<T> nodeAt(int index) {
+        Node<T> node = head;
+        int traversed = 0;
+        for (int i = level - 1; i >= 0; i--) {
+            while (node.next[i] != null && traversed + node.span[i] <= index + 1) {
+                traversed += node.span[i];
+                node = node.next[i];
+            }
+            if (traversed == index + 1) {
+                return node;
+            }
+        }
+        throw new IllegalStateException("Skip list spans are inconsistent");
+    }
+
+    private int randomLevel() {
+        int nodeLevel = 1;
+        while (nodeLevel < MAX_LEVEL && random.nextDouble() < LEVEL_PROBABILITY) {
+            nodeLevel++;
+        }
+        return nodeLevel;
+    }
+
+    private static class Node<T> {
+        private final T value;
+        private final Node<T>[] next;
+        // Elements a link moves forward by, counted on the bottom level
+        private final int[] span;
+
+        @SuppressWarnings("unchecked")
+        Node(T value, int level) {
+            this.value = value;
+            this.next = new Node[level];
+            this.span = new int[level];
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.shodh.coder.service;
+
+/**
+ * Published when a submission is put on the judge queue. Listeners that start judging
+ * must wait for the enqueuing transaction to commit, otherwise the job is not visible yet.
+ */
+public class JudgeJobQueuedEvent {
+
+    private final Long jobId;
+    private final Long submissionId;
+
+    public JudgeJobQueuedEvent(Long jobId, Long submissionId) {
+        this.jobId = jobId;
+        this.submissionId = submissionId;
+    }
+
+    public Long getJobId() {
+        return jobId;
+    }
+
+    public Long getSubmissionId() {
+        return submissionId;
+    }
+}
@@ -0,0 +1,336 @@
+package com.shodh.coder.service;
+
+import java.net.InetAddress;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.shodh.coder.config.NodeRole;
+import com.shodh.coder.dto.JudgeQueueStatsDto;
+import com.shodh.coder.entity.JudgeJob;
+import com.shodh.coder.entity.JudgeJobStatus;
+import com.shodh.coder.entity.Submission;
+import com.shodh.coder.entity.SubmissionStatus;
+import com.shodh.coder.entity.User;
+import com.shodh.coder.repository.JudgeJobRepository;
+import com.shodh.coder.repository.SubmissionRepository;
+import com.shodh.coder.repository.UserRepository;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Durable judge queue in the {@code judge_jobs} table. A job is inserted in the same
+ * transaction as its submission, so an accepted submission is never lost to a restart as
+ * long as the database itself persists (the default H2 file database does; an in-memory
+ * URL loses the queue with the process).
+ *
+ * Workers claim jobs with {@code SELECT ... FOR UPDATE SKIP LOCKED}, so any number of
+ * backend instances can drain the queue at once, in the order {@link FairShareScheduler}
+ * picks, and hold them under a lease they renew
+ * while judging. Leases of a worker that died run out and the job is queued again; a job
+ * that keeps failing is given up after {@code app.judge.queue.max-attempts} attempts and
+ * its submission marked as a system error.
+ */
+@Service
+public class JudgeQueueService {
+
+    private static final Logger logger = LoggerFactory.getLogger(JudgeQueueService.class);
+
+    private static final Collection<JudgeJobStatus> OPEN_STATUSES = EnumSet.of(JudgeJobStatus.QUEUED, JudgeJobStatus.LEASED);
+
+    // Identifies this instance as lease owner; a stable id lets a restarted node take back its own leases at once
+    @Value("${app.node.id:}")
+    private String configuredNodeId;
+
+    @Autowired
+    private NodeRole nodeRole;
+
+    @Value("${app.judge.queue.lease-seconds:60}")
+    private int leaseSeconds;
+
+    @Value("${app.judge.queue.max-attempts:3}")
+    private int maxAttempts;
+
+    @Value("${app.judge.queue.retry-delay-seconds:5}")
+    private int retryDelaySeconds;
+
+    @Autowired
+    private JudgeJobRepository judgeJobRepository;
+
+    @Autowired
+    private SubmissionRepository submissionRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private FairShareScheduler scheduler;
+
+    private String nodeId;
+
+    @PostConstruct
+    public void init() {
+        if (configuredNodeId.isBlank() && "worker".equals(nodeRole.getRole())) {
+            // Several workers on one host would share the default id and take over each other's leases
+            throw new IllegalStateException("app.node.id must be set on worker nodes, unique per worker");
+        }
+        nodeId = configuredNodeId.isBlank() ? defaultNodeId() : configuredNodeId;
+        logger.info("Judge queue node id: {}", nodeId);
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    /**
+     * Queues a submission for judging; joins the caller's transaction. Publishes a
+     * {@link JudgeJobQueuedEvent} so a local worker can pick the job up once it commits.
+     */
+    @Transactional
+    public JudgeJob enqueue(Submission submission) {
+        JudgeJob job = judgeJobRepository.save(new JudgeJob(submission.getId(),
+                submission.getContest() != null ? submission.getContest().getId() : null,
+                submission.getUser() != null ? submission.getUser().getId() : null));
+        eventPublisher.publishEvent(new JudgeJobQueuedEvent(job.getId(), submission.getId()));
+        return job;
+    }
+
+    /**
+     * Leases up to {@code max} queued jobs to this node, in fair-share order: each round
+     * takes at most one job per user, so several rounds run when few users are waiting.
+     * The per-user in-flight cap is checked again with the users locked, so two nodes
+     * claiming at once cannot both fill the same user's last slot.
+     */
+    @Transactional
+    public List<JudgeJob> claim(int max) {
+        List<JudgeJob> claimed = new ArrayList<>();
+        // Picked in an earlier round but not leased: taken by another node, or over the cap
+        Set<Long> tried = new HashSet<>();
+        LocalDateTime now = LocalDateTime.now();
+        while (claimed.size() < max) {
+            // Jobs leased in earlier rounds are flushed before these queries, so they count as in flight
+            List<FairShareScheduler.QueueHead> heads = judgeJobRepository.findQueueHeads(now).stream()
+                    .map(row -> new FairShareScheduler.QueueHead((Long) row[0], (Long) row[1], (Long) row[2]))
+                    .toList();
+            Map<Long, Long> inFlight = new HashMap<>();
+            for (Object[] row : judgeJobRepository.countLeasedByUser()) {
+                inFlight.put((Long) row[0], (Long) row[1]);
+            }
+            scheduler.forgetIdle(heads, inFlight.keySet());
+            List<FairShareScheduler.QueueHead> untried = heads.stream()
+                    .filter(head -> !tried.contains(head.getJobId()))
+                    .toList();
+            if (untried.isEmpty()) {
+                break;
+            }
+            List<Long> picked = scheduler.pick(untried, inFlight, max - claimed.size());
+            if (picked.isEmpty()) {
+                break;
+            }
+            tried.addAll(picked);
+            for (JudgeJob job : withinUserCap(judgeJobRepository.findClaimableByIdIn(picked))) {
+                job.setStatus(JudgeJobStatus.LEASED);
+                job.setLeaseOwner(nodeId);
+                job.setLeaseExpiresAt(now.plusSeconds(leaseSeconds));
+                job.setAttempts(job.getAttempts() + 1);
+                claimed.add(job);
+            }
+        }
+        return claimed;
+    }
+
+    // Of the locked jobs, those whose user this node could lock and who has a slot left
+    private List<JudgeJob> withinUserCap(List<JudgeJob> jobs) {
+        Set<Long> userIds = new HashSet<>();
+        for (JudgeJob job : jobs) {
+            if (job.getUserId() != null) {
+                userIds.add(job.getUserId());
+            }
+        }
+        if (userIds.isEmpty()) {
+            return jobs;
+        }
+        Set<Long> locked = new HashSet<>();
+        for (User user : userRepository.findLockableByIdIn(userIds)) {
+            locked.add(user.getId());
+        }
+        // Read with the users locked: another node's leases for them are committed by now
+        Map<Long, Long> inFlight = new HashMap<>();
+        if (!locked.isEmpty()) {
+            for (Object[] row : judgeJobRepository.countLeasedByUserIdIn(locked)) {
+                inFlight.put((Long) row[0], (Long) row[1]);
+            }
+        }
+        List<JudgeJob> allowed = new ArrayList<>();
+        for (JudgeJob job : jobs) {
+            Long userId = job.getUserId();
+            if (userId == null) {
+                allowed.add(job);
+            } else if (locked.contains(userId)
+                    && inFlight.merge(userId, 1L, Long::sum) <= scheduler.getMaxInFlightPerUser()) {
+                allowed.add(job);
+            }
+        }
+        return allowed;
+    }
+
+    /**
+     * Queue depth, jobs in flight and the oldest wait per contest, with the same per user
+     * nested under each contest.
+     */
+    @Transactional(readOnly = true)
+    public List<JudgeQueueStatsDto> getQueueStats() {
+        LocalDateTime now = LocalDateTime.now();
+        Map<Long, JudgeQueueStatsDto> contests = new LinkedHashMap<>();
+        for (Object[] row : judgeJobRepository.findOpenJobStats()) {
+            Long contestId = (Long) row[0];
+            Long userId = (Long) row[1];
+            JudgeQueueStatsDto contest = contests.computeIfAbsent(contestId, id -> new JudgeQueueStatsDto(id, null));
+            JudgeQueueStatsDto user = contest.getUsers().stream()
+                    .filter(stats -> Objects.equals(stats.getUserId(), userId))
+                    .findFirst()
+                    .orElseGet(() -> {
+                        JudgeQueueStatsDto stats = new JudgeQueueStatsDto(contestId, userId);
+                        contest.getUsers().add(stats);
+                        return stats;
+                    });
+            for (JudgeQueueStatsDto stats : List.of(contest, user)) {
+                stats.add((JudgeJobStatus) row[2], (Long) row[3], Duration.between((LocalDateTime) row[4], now).toMillis());
+            }
+        }
+        return new ArrayList<>(contests.values());
+    }
+
+    /**
+     * Extends the leases of the jobs this node is still judging.
+     */
+    @Transactional
+    public void renewLeases(Collection<Long> jobIds) {
+        if (jobIds.isEmpty()) {
+            return;
+        }
+        int renewed = judgeJobRepository.renewLeases(jobIds, nodeId, LocalDateTime.now().plusSeconds(leaseSeconds));
+        if (renewed < jobIds.size()) {
+            logger.warn("Only {} of {} judge leases could be renewed, the rest were taken back", renewed, jobIds.size());
+        }
+    }
+
+    @Transactional
+    public void complete(Long jobId) {
+        findOwnLease(jobId).ifPresent(job -> {
+            job.setStatus(JudgeJobStatus.DONE);
+            job.setLeaseExpiresAt(null);
+        });
+    }
+
+    /**
+     * Queues the job again after a delay, or gives up once it has used all its attempts.
+     */
+    @Transactional
+    public void fail(Long jobId, String error) {
+        findOwnLease(jobId).ifPresent(job -> retryOrGiveUp(job, error));
+    }
+
+    /**
+     * Takes back leases that ran out, e.g. because their node died.
+     */
+    @Scheduled(fixedDelayString = "${app.judge.queue.lease-sweep-interval-ms:10000}")
+    @Transactional
+    public void reclaimExpiredLeases() {
+        for (JudgeJob job : judgeJobRepository.findExpiredLeases(LocalDateTime.now())) {
+            logger.warn("Lease of judge job {} held by {} expired", job.getId(), job.getLeaseOwner());
+            retryOrGiveUp(job, "Lease held by " + job.getLeaseOwner() + " expired");
+        }
+    }
+
+    /**
+     * Startup recovery: jobs this node had leased before a restart go back to the queue,
+     * and pending or running submissions without an open job get one.
+     */
+    @Transactional
+    public void recover() {
+        for (JudgeJob job : judgeJobRepository.findByStatusAndLeaseOwner(JudgeJobStatus.LEASED, nodeId)) {
+            logger.info("Re-queueing judge job {} leased before restart", job.getId());
+            requeue(job, LocalDateTime.now());
+        }
+        List<Submission> stuck = submissionRepository.findByStatusIn(
+                List.of(SubmissionStatus.PENDING, SubmissionStatus.RUNNING));
+        for (Submission submission : stuck) {
+            if (!judgeJobRepository.existsBySubmissionIdAndStatusIn(submission.getId(), OPEN_STATUSES)) {
+                logger.info("Re-queueing stuck submission {} ({})", submission.getId(), submission.getStatus());
+                submission.setStatus(SubmissionStatus.PENDING);
+                enqueue(submission);
+            }
+        }
+    }
+
+    private Optional<JudgeJob> findOwnLease(Long jobId) {
+        Optional<JudgeJob> job = judgeJobRepository.findById(jobId)
+                .filter(j -> j.getStatus() == JudgeJobStatus.LEASED && nodeId.equals(j.getLeaseOwner()));
+        if (job.isEmpty()) {
+            // The lease ran out and someone else owns the job now; their result counts
+            logger.warn("Judge job {} is no longer leased to this node", jobId);
+        }
+        return job;
+    }
+
+    private void retryOrGiveUp(JudgeJob job, String error) {
+        job.setLastError(error != null && error.length() > 1000 ? error.substring(0, 1000) : error);
+        if (job.getAttempts() >= maxAttempts) {
+            logger.error("Giving up judge job {} for submission {} after {} attempts: {}", job.getId(),
+                    job.getSubmissionId(), job.getAttempts(), error);
+            job.setStatus(JudgeJobStatus.FAILED);
+            job.setLeaseExpiresAt(null);
+            submissionRepository.findById(job.getSubmissionId()).ifPresent(submission -> {
+                submission.setStatus(SubmissionStatus.SYSTEM_ERROR);
+                submission.setResult("System error during processing");
+                submission.setCompletedAt(LocalDateTime.now());
+                eventPublisher.publishEvent(new SubmissionUpdatedEvent(submission.getId(), job.getUserId(),
+                        job.getContestId(), SubmissionStatus.SYSTEM_ERROR, submission.getTestCasesPassed(),
+                        submission.getTotalTestCases()));
+            });
+            return;
+        }
+        requeue(job, LocalDateTime.now().plusSeconds((long) retryDelaySeconds * job.getAttempts()));
+    }
+
+    private void requeue(JudgeJob job, LocalDateTime availableAt) {
+        job.setStatus(JudgeJobStatus.QUEUED);
+        job.setLeaseOwner(null);
+        job.setLeaseExpiresAt(null);
+        job.setAvailableAt(availableAt);
+    }
+
+    // Stable across restarts; only used by api and all nodes, of which a host runs one each
+    private String defaultNodeId() {
+        String host;
+        try {
+            host = InetAddress.getLocalHost().getHostName();
+        } catch (Exception e) {
+            host = "node";
+        }
+        return host + "-" + nodeRole.getRole();
+    }
+}
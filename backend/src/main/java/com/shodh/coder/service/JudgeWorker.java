@@ -0,0 +1,165 @@
+package com.shodh.coder.service;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.shodh.coder.entity.JudgeJob;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Drains the judge queue on this node: claims as many jobs as it has free judge threads,
+ * judges them on the submission executor and keeps their leases alive meanwhile. Not
+ * created on API-only nodes ({@code app.node.role=api}).
+ *
+ * Besides the periodic poll, the queue is polled right after a submission's transaction
+ * commits and whenever a judge thread frees up, off the calling thread, so a request
+ * thread never waits for a claim or a judge run.
+ */
+@Service
+@ConditionalOnExpression("!'${app.node.role:all}'.equalsIgnoreCase('api')")
+public class JudgeWorker {
+
+    private static final Logger logger = LoggerFactory.getLogger(JudgeWorker.class);
+
+    // Submissions judged at once on this node; never more than the submission executor can take
+    @Value("${app.judge.queue.concurrency:4}")
+    private int concurrency;
+
+    @Autowired
+    private JudgeQueueService judgeQueue;
+
+    @Autowired
+    private SubmissionService submissionService;
+
+    @Autowired
+    @Qualifier("taskExecutor")
+    private Executor taskExecutor;
+
+    private final Set<Long> activeJobs = ConcurrentHashMap.newKeySet();
+    private volatile boolean ready;
+
+    // Coalesces poll requests: at most one is waiting on the dispatcher at a time
+    private final AtomicBoolean pollRequested = new AtomicBoolean();
+    private final ExecutorService dispatcher = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "JudgeDispatcher");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public int getConcurrency() {
+        return concurrency;
+    }
+
+    public int getActiveCount() {
+        return activeJobs.size();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        judgeQueue.recover();
+        ready = true;
+        requestPoll();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        dispatcher.shutdownNow();
+    }
+
+    /**
+     * Picks up a freshly queued submission once its transaction has committed.
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onJobQueued(JudgeJobQueuedEvent event) {
+        requestPoll();
+    }
+
+    /**
+     * Polls the queue on the dispatcher thread soon, without blocking the caller.
+     */
+    public void requestPoll() {
+        if (!ready || !pollRequested.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            dispatcher.execute(() -> {
+                pollRequested.set(false);
+                poll();
+            });
+        } catch (RuntimeException e) {
+            // Shutting down; the periodic poll is the fallback anyway
+            pollRequested.set(false);
+        }
+    }
+
+    // Synchronized so the scheduled and the dispatched poll never claim past the free slots together
+    @Scheduled(fixedDelayString = "${app.judge.queue.poll-interval-ms:500}")
+    public synchronized void poll() {
+        if (!ready) {
+            return;
+        }
+        List<JudgeJob> jobs;
+        try {
+            jobs = judgeQueue.claim(concurrency - activeJobs.size());
+        } catch (Exception e) {
+            logger.warn("Could not claim judge jobs: {}", e.getMessage());
+            return;
+        }
+        for (JudgeJob job : jobs) {
+            activeJobs.add(job.getId());
+            try {
+                taskExecutor.execute(() -> judge(job));
+            } catch (RuntimeException e) {
+                activeJobs.remove(job.getId());
+                judgeQueue.fail(job.getId(), "Could not start judging: " + e.getMessage());
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.judge.queue.lease-renew-interval-ms:15000}")
+    public void renewLeases() {
+        try {
+            judgeQueue.renewLeases(Set.copyOf(activeJobs));
+        } catch (Exception e) {
+            logger.warn("Could not renew judge leases: {}", e.getMessage());
+        }
+    }
+
+    private void judge(JudgeJob job) {
+        try {
+            logger.info("Judging submission {} (job {}, attempt {})", job.getSubmissionId(), job.getId(), job.getAttempts());
+            submissionService.processSubmission(job.getSubmissionId());
+            judgeQueue.complete(job.getId());
+        } catch (Exception e) {
+            logger.error("Judge job {} for submission {} failed: {}", job.getId(), job.getSubmissionId(), e.getMessage(), e);
+            try {
+                judgeQueue.fail(job.getId(), e.getMessage());
+            } catch (Exception failure) {
+                // The lease runs out and the sweep retries the job
+                logger.error("Could not record failure of judge job {}: {}", job.getId(), failure.getMessage());
+            }
+        } finally {
+            activeJobs.remove(job.getId());
+            requestPoll();
+        }
+    }
+}
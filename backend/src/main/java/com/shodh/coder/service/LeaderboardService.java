@@ -0,0 +1,299 @@
+package com.shodh.coder.service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.shodh.coder.config.NodeRole;
+import com.shodh.coder.dto.LeaderboardEntryDto;
+import com.shodh.coder.entity.ContestUserProblemResult;
+import com.shodh.coder.repository.ContestUserProblemResultRepository;
+
+/**
+ * Contest standings kept in memory, so leaderboard reads never touch the database. Each
+ * contest holds its standings ordered by score, then by penalty (the lower wins), then by
+ * user id, in an {@link IndexedSkipList}: a verdict moves one user, and a page or a user's
+ * rank is found, in O(log n). Standings are built from the
+ * {@link ContestUserProblemResult} rows when the node is ready and then follow the verdict
+ * {@link SubmissionUpdatedEvent}s, each re-reading the one result its submission changed.
+ *
+ * Results carry a version, and an older copy never replaces a newer one, so events that
+ * arrive late or while the standings are being built are simply merged in.
+ *
+ * Standings nobody read for {@code app.leaderboard.idle-minutes} are dropped and built
+ * again on the next read, so an idle API node does not need to follow verdicts.
+ */
+@Service
+public class LeaderboardService {
+
+    private static final Logger logger = LoggerFactory.getLogger(LeaderboardService.class);
+
+    @Autowired
+    private ContestUserProblemResultRepository resultRepository;
+
+    @Autowired
+    private NodeRole nodeRole;
+
+    @Value("${app.leaderboard.idle-minutes:10}")
+    private long idleMinutes;
+
+    private final Map<Long, ContestStandings> contests = new ConcurrentHashMap<>();
+    private volatile boolean loaded;
+    // Set before the standings are read, so verdicts committed meanwhile are merged in
+    private volatile boolean following;
+    private volatile long lastReadAt = System.currentTimeMillis();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (nodeRole.servesApi()) {
+            ensureLoaded();
+        }
+    }
+
+    /**
+     * Ranked standings of a contest; empty when nobody got a verdict in it yet.
+     */
+    public List<LeaderboardEntryDto> getLeaderboard(Long contestId) {
+        ensureLoaded();
+        ContestStandings standings = contests.get(contestId);
+        return standings != null ? standings.snapshot() : List.of();
+    }
+
+    /**
+     * One page of a contest's standings (zero-based), with the number of ranked users.
+     */
+    public LeaderboardPage getLeaderboardPage(Long contestId, int page, int size) {
+        ensureLoaded();
+        ContestStandings standings = contests.get(contestId);
+        return standings != null ? standings.page(page, size) : new LeaderboardPage(List.of(), 0);
+    }
+
+    /**
+     * A user's standing in a contest, if they are ranked in it.
+     */
+    public Optional<LeaderboardEntryDto> getRankOf(Long contestId, Long userId) {
+        ensureLoaded();
+        ContestStandings standings = contests.get(contestId);
+        return Optional.ofNullable(standings != null ? standings.rankOf(userId) : null);
+    }
+
+    /**
+     * Standings of up to {@code radius} users either side of a user, if they are ranked.
+     */
+    public Optional<List<LeaderboardEntryDto>> getAround(Long contestId, Long userId, int radius) {
+        ensureLoaded();
+        ContestStandings standings = contests.get(contestId);
+        return Optional.ofNullable(standings != null ? standings.around(userId, radius) : null);
+    }
+
+    /**
+     * Whether standings are held in memory, so every verdict has to reach this node.
+     */
+    public boolean isFollowingVerdicts() {
+        return following;
+    }
+
+    @Scheduled(fixedDelayString = "${app.leaderboard.idle-check-interval-ms:60000}")
+    public synchronized void dropIdleStandings() {
+        if (loaded && System.currentTimeMillis() - lastReadAt > idleMinutes * 60_000) {
+            following = false;
+            loaded = false;
+            contests.clear();
+            logger.info("Dropped leaderboards nobody read for {} minutes", idleMinutes);
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onSubmissionUpdated(SubmissionUpdatedEvent event) {
+        if (!following || event.getContestId() == null || !event.getStatus().isFinal()) {
+            return;
+        }
+        for (Object[] row : resultRepository.findWithUsernameBySubmissionId(event.getSubmissionId())) {
+            record((ContestUserProblemResult) row[0], (String) row[1]);
+        }
+    }
+
+    private void ensureLoaded() {
+        lastReadAt = System.currentTimeMillis();
+        if (loaded) {
+            return;
+        }
+        synchronized (this) {
+            if (loaded) {
+                return;
+            }
+            following = true;
+            long started = System.currentTimeMillis();
+            List<Object[]> rows = resultRepository.findAllWithUsername();
+            for (Object[] row : rows) {
+                record((ContestUserProblemResult) row[0], (String) row[1]);
+            }
+            loaded = true;
+            logger.info("Built leaderboards of {} contests from {} results in {} ms", contests.size(), rows.size(),
+                    System.currentTimeMillis() - started);
+        }
+    }
+
+    private void record(ContestUserProblemResult result, String username) {
+        contests.computeIfAbsent(result.getContestId(), id -> new ContestStandings())
+                .record(result.getUserId(), username, result.getProblemId(), new ProblemResult(result));
+    }
+
+    static class ContestStandings {
+        private static final Comparator<Standing> ORDER = Comparator
+                .comparingLong((Standing standing) -> -standing.score)
+                .thenComparingLong(standing -> standing.penalty)
+                .thenComparing(standing -> standing.userId);
+
+        private final Map<Long, Standing> byUser = new HashMap<>();
+        private final IndexedSkipList<Standing> ranking = new IndexedSkipList<>(ORDER);
+        // Rendered standings, dropped whenever a standing changes
+        private volatile List<LeaderboardEntryDto> snapshot;
+
+        synchronized void record(Long userId, String username, Long problemId, ProblemResult result) {
+            Standing standing = byUser.get(userId);
+            if (standing == null) {
+                standing = new Standing(userId, username);
+                byUser.put(userId, standing);
+            } else if (!standing.isNewer(problemId, result)) {
+                return;
+            } else {
+                // Re-keyed under its new score and penalty
+                ranking.remove(standing);
+            }
+            standing.update(problemId, result);
+            ranking.add(standing);
+            snapshot = null;
+        }
+
+        List<LeaderboardEntryDto> snapshot() {
+            List<LeaderboardEntryDto> current = snapshot;
+            if (current != null) {
+                return current;
+            }
+            synchronized (this) {
+                if (snapshot == null) {
+                    snapshot = Collections.unmodifiableList(entries(0, ranking.size()));
+                }
+                return snapshot;
+            }
+        }
+
+        synchronized LeaderboardPage page(int page, int size) {
+            long from = (long) page * size;
+            List<LeaderboardEntryDto> entries = from < ranking.size()
+                    ? entries((int) from, (int) Math.min(ranking.size(), from + size)) : List.of();
+            return new LeaderboardPage(entries, ranking.size());
+        }
+
+        synchronized LeaderboardEntryDto rankOf(Long userId) {
+            Standing standing = byUser.get(userId);
+            return standing != null ? toEntry(standing, ranking.indexOf(standing)) : null;
+        }
+
+        synchronized List<LeaderboardEntryDto> around(Long userId, int radius) {
+            Standing standing = byUser.get(userId);
+            if (standing == null) {
+                return null;
+            }
+            int index = ranking.indexOf(standing);
+            return entries(Math.max(0, index - radius), Math.min(ranking.size(), index + radius + 1));
+        }
+
+        // Caller holds the lock
+        private List<LeaderboardEntryDto> entries(int fromIndex, int toIndex) {
+            List<LeaderboardEntryDto> entries = new ArrayList<>(toIndex - fromIndex);
+            int index = fromIndex;
+            for (Standing standing : ranking.range(fromIndex, toIndex)) {
+                entries.add(toEntry(standing, index++));
+            }
+            return entries;
+        }
+
+        private static LeaderboardEntryDto toEntry(Standing standing, int index) {
+            LeaderboardEntryDto entry = new LeaderboardEntryDto(standing.username, standing.score, standing.solved,
+                    standing.penalty);
+            entry.setRank(index + 1);
+            return entry;
+        }
+    }
+
+    static class Standing {
+        private final Long userId;
+        private final String username;
+        private final Map<Long, ProblemResult> problems = new HashMap<>();
+        private long score;
+        private int solved;
+        private long penalty;
+
+        Standing(Long userId, String username) {
+            this.userId = userId;
+            this.username = username;
+        }
+
+        boolean isNewer(Long problemId, ProblemResult result) {
+            ProblemResult current = problems.get(problemId);
+            return current == null || result.version > current.version;
+        }
+
+        void update(Long problemId, ProblemResult result) {
+            if (!isNewer(problemId, result)) {
+                return;
+            }
+            problems.put(problemId, result);
+            score = 0;
+            solved = 0;
+            penalty = 0;
+            for (ProblemResult problem : problems.values()) {
+                score += problem.score;
+                if (problem.solved) {
+                    solved++;
+                    penalty += problem.penaltyMinutes;
+                }
+            }
+        }
+    }
+
+    static class ProblemResult {
+        private final long version;
+        private final long score;
+        private final boolean solved;
+        private final long penaltyMinutes;
+
+        ProblemResult(ContestUserProblemResult result) {
+            this.version = result.getVersion() != null ? result.getVersion() : 0;
+            this.score = result.getBestScore();
+            this.solved = result.isSolved();
+            this.penaltyMinutes = result.getPenaltyMinutes();
+        }
+    }
+
+    public static class LeaderboardPage {
+        private final List<LeaderboardEntryDto> entries;
+        private final int total;
+
+        public LeaderboardPage(List<LeaderboardEntryDto> entries, int total) {
+            this.entries = entries;
+            this.total = total;
+        }
+
+        public List<LeaderboardEntryDto> getEntries() { return entries; }
+        public int getTotal() { return total; }
+    }
+}
@@ -0,0 +1,276 @@
+package com.shodh.coder.service;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.GroupPrincipal;
+import java.nio.file.attribute.PosixFileAttributeView;
+import java.nio.file.attribute.UserPrincipal;
+import java.nio.file.attribute.UserPrincipalLookupService;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Runs submissions as plain child processes of the judge, for trusted or development
+ * setups and for measuring judge throughput without a Docker daemon. Linux only.
+ *
+ * Each run is started through {@code prlimit} (CPU time, file size, core dumps and, with a
+ * dedicated user, process count), optionally as an unprivileged user via {@code setpriv},
+ * and optionally in its own cgroup v2 group under {@code app.judge.local.cgroup-root}
+ * with memory, pids and CPU bandwidth limits. The cgroup root must be delegated to the
+ * judge (writable, with the memory, pids and cpu controllers enabled for children);
+ * without one, memory is bounded by the data segment rlimit instead.
+ */
+@Service
+@ConditionalOnProperty(name = "app.judge.sandbox", havingValue = "local")
+public class LocalProcessSandboxRunner implements SandboxRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(LocalProcessSandboxRunner.class);
+
+    @Value("${app.judge.work-dir:${java.io.tmpdir}/shodh-judge}")
+    private String workDir;
+
+    // Unprivileged user to run submissions as; empty runs them as the judge's own user
+    @Value("${app.judge.local.user:}")
+    private String runUser;
+
+    @Value("${app.judge.local.memory-limit-mb:256}")
+    private int memoryLimitMb;
+
+    @Value("${app.judge.local.max-processes:64}")
+    private int maxProcesses;
+
+    // Same CPU share as the runner containers (--cpus=0.5)
+    @Value("${app.judge.local.cpu-max:50000 100000}")
+    private String cpuMax;
+
+    @Value("${app.judge.local.cgroup-root:}")
+    private String cgroupRoot;
+
+    private volatile boolean cgroupsUsable;
+
+    @PostConstruct
+    public void init() throws IOException {
+        Files.createDirectories(getWorkRoot());
+        if (!cgroupRoot.isBlank()) {
+            Path root = Paths.get(cgroupRoot);
+            cgroupsUsable = Files.isDirectory(root) && Files.isWritable(root);
+            if (!cgroupsUsable) {
+                logger.warn("cgroup root {} is not writable, local runs are limited by rlimits only", cgroupRoot);
+            }
+        }
+        logger.info("Local process sandbox in {} (user: {}, cgroups: {})", getWorkRoot(),
+                runUser.isBlank() ? "judge user" : runUser, cgroupsUsable);
+    }
+
+    private Path getWorkRoot() {
+        return Paths.get(workDir);
+    }
+
+    @Override
+    public String getToolchainId() {
+        return "local";
+    }
+
+    @Override
+    public String attachTestData(Sandbox sandbox, TestDataStager.StagedTestSet tests) {
+        // Staged inputs are read-only on disk; the answer tree is private to the judge's user,
+        // so only runs as app.judge.local.user are kept from it
+        return tests.getDirectory().toAbsolutePath().toString();
+    }
+
+    @Override
+    public Sandbox acquire() {
+        return new Sandbox();
+    }
+
+    @Override
+    public Sandbox acquireForRun() {
+        return new Sandbox();
+    }
+
+    @Override
+    public Sandbox tryAcquire() {
+        return new Sandbox();
+    }
+
+    @Override
+    public Path createWorkspace(Sandbox sandbox, String name) throws IOException {
+        return Files.createDirectories(getWorkRoot().resolve(name));
+    }
+
+    @Override
+    public Path shareWorkspace(Sandbox sandbox, Path workspace) {
+        // Every run sees the host file system, there is nothing to copy
+        return workspace;
+    }
+
+    @Override
+    public void release(Sandbox sandbox) {
+        // Every process is killed and its cgroup removed when the run is closed
+    }
+
+    @Override
+    public SandboxProcess compile(Sandbox sandbox, Path workspace, List<String> command, Path logFile) throws IOException {
+        prepareWorkspace(workspace);
+        Path cgroup = createCgroup();
+        Process process = new ProcessBuilder(wrap(command, cgroup, null))
+                .directory(workspace.toFile())
+                .redirectErrorStream(true)
+                .redirectOutput(logFile.toFile())
+                .start();
+        return new LocalProcess(process, cgroup);
+    }
+
+    @Override
+    public SandboxProcess run(Sandbox sandbox, Path workspace, List<String> command, Limits limits) throws IOException {
+        prepareWorkspace(workspace);
+        Path cgroup = createCgroup();
+        List<String> fullCommand = wrap(command, cgroup, limits);
+        logger.info("Local command: {}", String.join(" ", fullCommand));
+        Process process = new ProcessBuilder(fullCommand)
+                .directory(workspace.toFile())
+                .start();
+        return new LocalProcess(process, cgroup);
+    }
+
+    /**
+     * Prefixes the command with the cgroup join, the user switch and the rlimits.
+     */
+    private List<String> wrap(List<String> command, Path cgroup, Limits limits) {
+        List<String> wrapped = new ArrayList<>();
+        if (cgroup != null) {
+            // The shell moves itself into the cgroup and then becomes the rest of the command
+            wrapped.add("sh");
+            wrapped.add("-c");
+            wrapped.add("echo $$ > \"$0\"/cgroup.procs && exec \"$@\"");
+            wrapped.add(cgroup.toString());
+        }
+        if (!runUser.isBlank()) {
+            wrapped.add("setpriv");
+            wrapped.add("--reuid=" + runUser);
+            wrapped.add("--regid=" + runUser);
+            wrapped.add("--clear-groups");
+            wrapped.add("--");
+        }
+        wrapped.add("prlimit");
+        wrapped.add("--core=0");
+        if (!runUser.isBlank()) {
+            // RLIMIT_NPROC counts every process of the user, so it is only meaningful for a dedicated one
+            wrapped.add("--nproc=" + maxProcesses);
+        }
+        if (cgroup == null) {
+            // Without a memory cgroup the data rlimit bounds the heap; an address space limit
+            // would also count the JVM's reservations and keep it from starting at all
+            wrapped.add("--data=" + memoryLimitMb * 1024L * 1024L);
+        }
+        if (limits != null) {
+            wrapped.add("--cpu=" + (limits.getTimeLimitSeconds() + 1));
+            wrapped.add("--fsize=" + (limits.getOutputLimitBytes() + 1024));
+        }
+        wrapped.add("--");
+        wrapped.addAll(command);
+        return wrapped;
+    }
+
+    /**
+     * Hands the workspace to the run user so the submission can write its output there.
+     */
+    private void prepareWorkspace(Path workspace) throws IOException {
+        if (runUser.isBlank()) {
+            return;
+        }
+        UserPrincipalLookupService lookup = workspace.getFileSystem().getUserPrincipalLookupService();
+        UserPrincipal user = lookup.lookupPrincipalByName(runUser);
+        GroupPrincipal group = lookup.lookupPrincipalByGroupName(runUser);
+        try (Stream<Path> files = Files.walk(workspace)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                PosixFileAttributeView view = Files.getFileAttributeView(file, PosixFileAttributeView.class);
+                view.setOwner(user);
+                view.setGroup(group);
+            }
+        }
+    }
+
+    private Path createCgroup() {
+        if (!cgroupsUsable) {
+            return null;
+        }
+        Path cgroup = Paths.get(cgroupRoot, "run-" + UUID.randomUUID().toString().substring(0, 8));
+        try {
+            Files.createDirectory(cgroup);
+            write(cgroup.resolve("memory.max"), String.valueOf(memoryLimitMb * 1024L * 1024L));
+            write(cgroup.resolve("memory.swap.max"), "0");
+            write(cgroup.resolve("pids.max"), String.valueOf(maxProcesses));
+            write(cgroup.resolve("cpu.max"), cpuMax);
+            return cgroup;
+        } catch (IOException e) {
+            logger.warn("Cannot set up cgroup {}, local runs are limited by rlimits only: {}", cgroup, e.getMessage());
+            cgroupsUsable = false;
+            removeCgroup(cgroup);
+            return null;
+        }
+    }
+
+    private static void write(Path file, String value) throws IOException {
+        if (Files.exists(file)) {
+            Files.write(file, value.getBytes(StandardCharsets.US_ASCII));
+        }
+    }
+
+    private static void removeCgroup(Path cgroup) {
+        if (cgroup == null) {
+            return;
+        }
+        try {
+            if (Files.exists(cgroup.resolve("cgroup.kill"))) {
+                write(cgroup.resolve("cgroup.kill"), "1");
+            }
+            // rmdir only succeeds once the killed processes are gone
+            for (int attempt = 0; attempt < 50 && Files.exists(cgroup); attempt++) {
+                try {
+                    Files.delete(cgroup);
+                } catch (IOException e) {
+                    Thread.sleep(10);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            logger.warn("Could not remove cgroup {}: {}", cgroup, e.getMessage());
+        }
+    }
+
+    private static class LocalProcess extends SandboxProcess {
+        private final Path cgroup;
+
+        LocalProcess(Process process, Path cgroup) {
+            super(process);
+            this.cgroup = cgroup;
+        }
+
+        @Override
+        public void kill() {
+            getProcess().descendants().forEach(ProcessHandle::destroyForcibly);
+            getProcess().destroyForcibly();
+        }
+
+        @Override
+        public void close() {
+            kill();
+            removeCgroup(cgroup);
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.shodh.coder.service;
+
+import java.net.InetAddress;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.shodh.coder.config.NodeRole;
+import com.shodh.coder.dto.JudgeNodeDto;
+import com.shodh.coder.entity.JudgeNode;
+import com.shodh.coder.repository.JudgeNodeRepository;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Publishes this node's role, judge capacity and load to the {@code judge_nodes} table
+ * every {@code app.node.heartbeat-interval-ms}. A node whose last heartbeat is older than
+ * three intervals is reported as not alive.
+ *
+ * A node with role {@code all} must be the only judging node: it has no verdict relay, so
+ * it never sees what another one decides. A warning is logged when one shows up.
+ */
+@Service
+public class NodeHeartbeatService {
+
+    private static final Logger logger = LoggerFactory.getLogger(NodeHeartbeatService.class);
+
+    @Value("${app.node.heartbeat-interval-ms:5000}")
+    private long heartbeatIntervalMs;
+
+    @Autowired
+    private JudgeNodeRepository judgeNodeRepository;
+
+    @Autowired
+    private JudgeQueueService judgeQueue;
+
+    @Autowired
+    private NodeRole nodeRole;
+
+    // Absent on API nodes
+    @Autowired(required = false)
+    private JudgeWorker judgeWorker;
+
+    private boolean warnedOtherJudge;
+
+    @Scheduled(fixedDelayString = "${app.node.heartbeat-interval-ms:5000}")
+    @Transactional
+    public void heartbeat() {
+        JudgeNode node = judgeNodeRepository.findById(judgeQueue.getNodeId())
+                .orElseGet(() -> new JudgeNode(judgeQueue.getNodeId()));
+        node.setRole(nodeRole.getRole());
+        node.setHost(hostName());
+        node.setCapacity(judgeWorker != null ? judgeWorker.getConcurrency() : 0);
+        node.setActiveJobs(judgeWorker != null ? judgeWorker.getActiveCount() : 0);
+        node.setLastHeartbeat(LocalDateTime.now());
+        judgeNodeRepository.save(node);
+        if ("all".equals(nodeRole.getRole()) && !warnedOtherJudge) {
+            warnIfAnotherJudge(node.getLastHeartbeat());
+        }
+    }
+
+    private void warnIfAnotherJudge(LocalDateTime now) {
+        LocalDateTime aliveAfter = now.minusNanos(3 * heartbeatIntervalMs * 1_000_000);
+        for (JudgeNode other : judgeNodeRepository.findAllByOrderByNodeIdAsc()) {
+            if (!other.getNodeId().equals(judgeQueue.getNodeId()) && !"api".equals(other.getRole())
+                    && other.getLastHeartbeat() != null && other.getLastHeartbeat().isAfter(aliveAfter)) {
+                logger.warn("Node {} also judges, but this node runs with role 'all' and never sees its verdicts; "
+                        + "run the nodes as 'api' and 'worker' instead", other.getNodeId());
+                warnedOtherJudge = true;
+                return;
+            }
+        }
+    }
+
+    public List<JudgeNodeDto> getNodes() {
+        LocalDateTime aliveAfter = LocalDateTime.now().minusNanos(3 * heartbeatIntervalMs * 1_000_000);
+        return judgeNodeRepository.findAllByOrderByNodeIdAsc().stream()
+                .map(node -> new JudgeNodeDto(node, node.getLastHeartbeat() != null
+                        && node.getLastHeartbeat().isAfter(aliveAfter)))
+                .toList();
+    }
+
+    @PreDestroy
+    public void signOff() {
+        try {
+            judgeNodeRepository.deleteById(judgeQueue.getNodeId());
+        } catch (Exception e) {
+            // The row goes stale instead
+            logger.debug("Could not remove node heartbeat: {}", e.getMessage());
+        }
+    }
+
+    private static String hostName() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (Exception e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,219 @@
+package com.shodh.coder.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Drains the stdout and stderr pipes of sandbox processes while they run, so a program
+ * that prints more than the pipe buffer never blocks on a full pipe.
+ *
+ * Both streams are copied through fixed-size buffers taken from a shared pool into spool
+ * files; only a short head of each is kept in memory as the console excerpt. Once the two
+ * streams together exceed the output limit the process is killed and the capture is
+ * marked as over the limit.
+ */
+@Service
+public class OutputCaptureService {
+
+    private static final String TRUNCATED_MARKER = "\n... [output truncated]\n";
+
+    @Value("${app.judge.output.buffer-size-kb:64}")
+    private int bufferSizeKb;
+
+    @Value("${app.judge.output.console-excerpt-bytes:4096}")
+    private int consoleExcerptBytes;
+
+    private final BlockingQueue<ByteBuffer> buffers = new LinkedBlockingQueue<>();
+    private final AtomicInteger drainThreads = new AtomicInteger();
+    private final ExecutorService drainExecutor = Executors.newCachedThreadPool(r -> {
+        Thread thread = new Thread(r, "OutputDrain-" + drainThreads.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @PreDestroy
+    public void shutdown() {
+        drainExecutor.shutdownNow();
+    }
+
+    public int getConsoleExcerptBytes() {
+        return consoleExcerptBytes;
+    }
+
+    /**
+     * Starts draining both output streams of {@code process} into the given spool files.
+     */
+    public Capture capture(Process process, Path stdoutFile, Path stderrFile, long limitBytes) throws IOException {
+        Files.createDirectories(stdoutFile.getParent());
+        Capture capture = new Capture(process, limitBytes);
+        capture.stdout = drain(capture, process.getInputStream(), stdoutFile);
+        capture.stderr = drain(capture, process.getErrorStream(), stderrFile);
+        return capture;
+    }
+
+    /**
+     * The first {@code maxBytes} bytes of a file, with a marker when the file is longer.
+     */
+    public String excerpt(Path file, int maxBytes) throws IOException {
+        if (!Files.exists(file)) {
+            return "";
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer head = ByteBuffer.allocate((int) Math.min(maxBytes, channel.size()));
+            while (head.hasRemaining() && channel.read(head) > 0) {
+                // keep reading until the head is full
+            }
+            String text = new String(head.array(), 0, head.position(), StandardCharsets.UTF_8);
+            return channel.size() > maxBytes ? text + TRUNCATED_MARKER : text;
+        }
+    }
+
+    /**
+     * Appends {@code text} to {@code sink} without letting it grow beyond {@code maxChars}.
+     */
+    public static void appendBounded(StringBuilder sink, String text, int maxChars) {
+        if (sink.length() >= maxChars) {
+            return;
+        }
+        if (sink.length() + text.length() <= maxChars) {
+            sink.append(text);
+        } else {
+            sink.append(text, 0, maxChars - sink.length()).append(TRUNCATED_MARKER);
+        }
+    }
+
+    private CompletableFuture<Stream> drain(Capture capture, InputStream source, Path spoolFile) {
+        return CompletableFuture.supplyAsync(() -> {
+            Stream stream = new Stream();
+            ByteBuffer buffer = borrowBuffer();
+            try (ReadableByteChannel in = Channels.newChannel(source);
+                 FileChannel out = FileChannel.open(spoolFile, StandardOpenOption.CREATE,
+                         StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                while (in.read(buffer) != -1) {
+                    buffer.flip();
+                    stream.keepHead(buffer, consoleExcerptBytes);
+                    stream.bytes += buffer.remaining();
+                    if (capture.total.addAndGet(buffer.remaining()) > capture.limitBytes) {
+                        capture.exceedLimit();
+                        break;
+                    }
+                    while (buffer.hasRemaining()) {
+                        out.write(buffer);
+                    }
+                    buffer.clear();
+                }
+            } catch (IOException e) {
+                // The pipe closes underneath us when the process is killed
+            } finally {
+                buffer.clear();
+                buffers.offer(buffer);
+            }
+            return stream;
+        }, drainExecutor);
+    }
+
+    private ByteBuffer borrowBuffer() {
+        ByteBuffer buffer = buffers.poll();
+        return buffer != null ? buffer : ByteBuffer.allocateDirect(bufferSizeKb * 1024);
+    }
+
+    /**
+     * Output of one running process. Both streams are drained until the process closes
+     * them or is killed.
+     */
+    public static class Capture {
+        private final Process process;
+        private final long limitBytes;
+        private final AtomicLong total = new AtomicLong();
+        private final AtomicBoolean limitExceeded = new AtomicBoolean();
+        private CompletableFuture<Stream> stdout;
+        private CompletableFuture<Stream> stderr;
+
+        Capture(Process process, long limitBytes) {
+            this.process = process;
+            this.limitBytes = limitBytes;
+        }
+
+        private void exceedLimit() {
+            if (limitExceeded.compareAndSet(false, true)) {
+                process.destroyForcibly();
+            }
+        }
+
+        /**
+         * Waits until both streams are fully drained. Returns {@code false} if they are
+         * still open after the timeout, e.g. because a child process inherited them.
+         */
+        public boolean await(long timeout, TimeUnit unit) throws InterruptedException {
+            try {
+                CompletableFuture.allOf(stdout, stderr).get(timeout, unit);
+                return true;
+            } catch (ExecutionException | TimeoutException e) {
+                return false;
+            }
+        }
+
+        public boolean isLimitExceeded() {
+            return limitExceeded.get();
+        }
+
+        public long getTotalBytes() {
+            return total.get();
+        }
+
+        /**
+         * Head of stdout followed by the head of stderr, each cut at the excerpt size.
+         */
+        public String consoleExcerpt() {
+            Stream out = stdout.getNow(null);
+            Stream err = stderr.getNow(null);
+            String text = out != null ? out.headText() : "";
+            return err != null && err.bytes > 0 ? text + err.headText() : text;
+        }
+    }
+
+    private static final class Stream {
+        private byte[] head = new byte[0];
+        private long bytes;
+
+        void keepHead(ByteBuffer buffer, int maxBytes) {
+            if (head.length >= maxBytes) {
+                return;
+            }
+            int take = Math.min(maxBytes - head.length, buffer.remaining());
+            byte[] grown = Arrays.copyOf(head, head.length + take);
+            buffer.duplicate().get(grown, head.length, take);
+            head = grown;
+        }
+
+        String headText() {
+            String text = new String(head, StandardCharsets.UTF_8);
+            return bytes > head.length ? text + TRUNCATED_MARKER : text;
+        }
+    }
+}
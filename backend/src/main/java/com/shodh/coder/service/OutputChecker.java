@@ -0,0 +1,254 @@
+package com.shodh.coder.service;
+
+import java.io.IOException;
+import java.io.PushbackReader;
+import java.io.Reader;
+
+import org.springframework.stereotype.Service;
+
+import com.shodh.coder.entity.CheckerMode;
+
+/**
+ * Compares program output with the expected output as two character streams. Reading stops
+ * at the first mismatch and only its position and a short excerpt are kept, so outputs of
+ * any size are checked without being copied into memory.
+ */
+@Service
+public class OutputChecker {
+
+    private static final int EXCERPT_LENGTH = 32;
+    // Longer tokens are never numbers worth parsing; their remainder is compared exactly
+    private static final int MAX_NUMERIC_TOKEN = 64;
+
+    public CheckResult check(Reader actual, Reader expected, CheckerMode mode, double tolerance) throws IOException {
+        CharStream out = new CharStream(actual);
+        CharStream ans = new CharStream(expected);
+        switch (mode == null ? CheckerMode.EXACT : mode) {
+            case WHITESPACE_INSENSITIVE:
+                return compareTokens(out, ans, false, tolerance);
+            case FLOAT_TOLERANCE:
+                return compareTokens(out, ans, true, tolerance);
+            case EXACT:
+            default:
+                return compareExact(out, ans);
+        }
+    }
+
+    private CheckResult compareExact(CharStream out, CharStream ans) throws IOException {
+        out.skipWhitespace();
+        ans.skipWhitespace();
+        while (true) {
+            int a = out.peek();
+            int b = ans.peek();
+            if (a == -1 && b == -1) {
+                return CheckResult.accepted();
+            }
+            if (isWhitespace(a) || isWhitespace(b)) {
+                // Walk both whitespace runs; differences only matter if output continues afterwards
+                long line = out.line;
+                long column = out.column;
+                boolean differs = false;
+                while (isWhitespace(out.peek()) || isWhitespace(ans.peek())) {
+                    int x = isWhitespace(out.peek()) ? out.read() : -2;
+                    int y = isWhitespace(ans.peek()) ? ans.read() : -2;
+                    differs |= x != y;
+                }
+                if (out.peek() == -1 && ans.peek() == -1) {
+                    return CheckResult.accepted();
+                }
+                if (differs) {
+                    return CheckResult.mismatch(line, column, "whitespace differs before "
+                            + describe(ans.excerpt()) + " / " + describe(out.excerpt()));
+                }
+                continue;
+            }
+            if (a != b) {
+                return CheckResult.mismatch(out.line, out.column,
+                        "expected " + describe(ans.excerpt()) + " but found " + describe(out.excerpt()));
+            }
+            out.read();
+            ans.read();
+        }
+    }
+
+    private CheckResult compareTokens(CharStream out, CharStream ans, boolean numeric, double tolerance) throws IOException {
+        long tokenIndex = 0;
+        StringBuilder outToken = new StringBuilder();
+        StringBuilder ansToken = new StringBuilder();
+        while (true) {
+            out.skipWhitespace();
+            ans.skipWhitespace();
+            long line = out.line;
+            tokenIndex++;
+            if (out.peek() == -1 && ans.peek() == -1) {
+                return CheckResult.accepted();
+            }
+            if (out.peek() == -1) {
+                return CheckResult.mismatch(line, tokenIndex, "output ended, expected " + describe(ans.excerpt()));
+            }
+            if (ans.peek() == -1) {
+                return CheckResult.mismatch(line, tokenIndex, "unexpected extra output " + describe(out.excerpt()));
+            }
+
+            boolean outComplete = out.readToken(outToken, MAX_NUMERIC_TOKEN);
+            boolean ansComplete = ans.readToken(ansToken, MAX_NUMERIC_TOKEN);
+            String a = outToken.toString();
+            String b = ansToken.toString();
+
+            if (outComplete && ansComplete) {
+                if (a.equals(b) || (numeric && numbersMatch(a, b, tolerance))) {
+                    continue;
+                }
+                return CheckResult.mismatch(line, tokenIndex, "expected " + describe(b) + " but found " + describe(a));
+            }
+            // At least one token is long: the heads must match and the rest is compared char by char
+            if (!a.equals(b) || !restOfTokenMatches(out, ans)) {
+                return CheckResult.mismatch(line, tokenIndex, "expected " + describe(b) + "... but found " + describe(a) + "...");
+            }
+        }
+    }
+
+    private boolean restOfTokenMatches(CharStream out, CharStream ans) throws IOException {
+        while (true) {
+            int a = out.peek();
+            int b = ans.peek();
+            boolean aEnd = a == -1 || isWhitespace(a);
+            boolean bEnd = b == -1 || isWhitespace(b);
+            if (aEnd || bEnd) {
+                return aEnd && bEnd;
+            }
+            if (a != b) {
+                return false;
+            }
+            out.read();
+            ans.read();
+        }
+    }
+
+    private boolean numbersMatch(String actual, String expected, double tolerance) {
+        try {
+            double a = Double.parseDouble(actual);
+            double b = Double.parseDouble(expected);
+            if (Double.isNaN(a) || Double.isNaN(b)) {
+                return false;
+            }
+            double difference = Math.abs(a - b);
+            return difference <= tolerance || difference <= tolerance * Math.abs(b);
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    private static boolean isWhitespace(int c) {
+        return c == ' ' || c == '\n' || c == '\r' || c == '\t' || c == '\f' || c == 0x0B;
+    }
+
+    private static String describe(String excerpt) {
+        return excerpt.isEmpty() ? "end of output" : "'" + excerpt.replace("\n", "\\n").replace("\r", "\\r") + "'";
+    }
+
+    /**
+     * Reader with one character of lookahead and line/column tracking.
+     */
+    private static final class CharStream {
+        private final PushbackReader reader;
+        private long line = 1;
+        private long column = 1;
+
+        CharStream(Reader reader) {
+            this.reader = new PushbackReader(reader, EXCERPT_LENGTH);
+        }
+
+        int peek() throws IOException {
+            int c = reader.read();
+            if (c != -1) {
+                reader.unread(c);
+            }
+            return c;
+        }
+
+        int read() throws IOException {
+            int c = reader.read();
+            if (c == '\n') {
+                line++;
+                column = 1;
+            } else if (c != -1) {
+                column++;
+            }
+            return c;
+        }
+
+        void skipWhitespace() throws IOException {
+            while (isWhitespace(peek())) {
+                read();
+            }
+        }
+
+        /**
+         * Reads up to {@code max} characters of the next token into {@code sink}.
+         * Returns {@code true} if the whole token was read.
+         */
+        boolean readToken(StringBuilder sink, int max) throws IOException {
+            sink.setLength(0);
+            while (sink.length() < max) {
+                int c = peek();
+                if (c == -1 || isWhitespace(c)) {
+                    return true;
+                }
+                sink.append((char) read());
+            }
+            int c = peek();
+            return c == -1 || isWhitespace(c);
+        }
+
+        /**
+         * The next few characters, without consuming them.
+         */
+        String excerpt() throws IOException {
+            char[] buffer = new char[EXCERPT_LENGTH];
+            int length = 0;
+            while (length < buffer.length) {
+                int n = reader.read(buffer, length, buffer.length - length);
+                if (n <= 0) {
+                    break;
+                }
+                length += n;
+            }
+            if (length > 0) {
+                reader.unread(buffer, 0, length);
+            }
+            return new String(buffer, 0, length);
+        }
+    }
+
+    public static class CheckResult {
+        private final boolean accepted;
+        private final long line;
+        private final long position; // column for EXACT, token number otherwise
+        private final String excerpt;
+
+        private CheckResult(boolean accepted, long line, long position, String excerpt) {
+            this.accepted = accepted;
+            this.line = line;
+            this.position = position;
+            this.excerpt = excerpt;
+        }
+
+        static CheckResult accepted() {
+            return new CheckResult(true, 0, 0, null);
+        }
+
+        static CheckResult mismatch(long line, long position, String excerpt) {
+            return new CheckResult(false, line, position, excerpt);
+        }
+
+        public boolean isAccepted() { return accepted; }
+        public long getLine() { return line; }
+        public long getPosition() { return position; }
+        public String getExcerpt() { return excerpt; }
+
+        public String describe() {
+            return accepted ? "Accepted" : "line " + line + ", position " + position + ": " + excerpt;
+        }
+    }
+}
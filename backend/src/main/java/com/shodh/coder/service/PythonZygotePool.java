@@ -0,0 +1,67 @@
+package com.shodh.coder.service;
+
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+/**
+ * Pool of pre-started Python interpreters for Python submissions. Each worker is a runner
+ * container whose main process is {@code judge_python_zygote.py} (baked into the
+ * code-runner image); it imports the common standard library modules once and forks a
+ * fresh child per test with the per-test limits applied, so a run pays neither
+ * interpreter startup nor those imports.
+ *
+ * A child that runs out of time or memory is killed on its own, the zygote keeps serving;
+ * workers are replaced after a crash or {@code app.judge.python-zygote.max-runs} runs.
+ */
+@Service
+public class PythonZygotePool extends WarmWorkerPool {
+
+    @Value("${app.judge.python-zygote.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.judge.python-zygote.size:2}")
+    private int poolSize;
+
+    @Value("${app.judge.python-zygote.max-runs:1000}")
+    private int maxRuns;
+
+    @Value("${app.judge.python-zygote.lease-timeout:2}")
+    private int leaseTimeoutSeconds;
+
+    @Override
+    protected String getKind() {
+        return "Python zygote";
+    }
+
+    @Override
+    protected String getContainerNamePrefix() {
+        return "shodh-py";
+    }
+
+    @Override
+    protected boolean isConfiguredEnabled() {
+        return enabled;
+    }
+
+    @Override
+    protected int getPoolSize() {
+        return poolSize;
+    }
+
+    @Override
+    protected int getMaxRuns() {
+        return maxRuns;
+    }
+
+    @Override
+    protected int getLeaseTimeoutSeconds() {
+        return leaseTimeoutSeconds;
+    }
+
+    @Override
+    protected List<String> getWorkerCommand() {
+        return List.of("python3", "/opt/judge/judge_python_zygote.py");
+    }
+}
@@ -0,0 +1,103 @@
+package com.shodh.coder.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+
+import com.shodh.coder.dto.RunRequestDto;
+import com.shodh.coder.dto.RunResponseDto;
+import com.shodh.coder.entity.Problem;
+import com.shodh.coder.entity.Submission;
+import com.shodh.coder.entity.TestCase;
+
+/**
+ * Run-only lane: executes code on a problem's sample tests or on custom input and answers
+ * within the request. Nothing is stored, so the leaderboard never sees these runs, and
+ * they go through their own executor ({@code runExecutor}) and sandbox partition instead
+ * of the judge queue. When the lane is full the request is rejected rather than queued
+ * behind judging.
+ */
+@Service
+public class RunService {
+
+    private static final Logger logger = LoggerFactory.getLogger(RunService.class);
+
+    // How long a request waits for its run, queueing included
+    @Value("${app.run.wait-seconds:20}")
+    private int waitSeconds;
+
+    @Value("${app.run.max-input-bytes:65536}")
+    private int maxInputBytes;
+
+    @Autowired
+    private ProblemService problemService;
+
+    @Autowired
+    private CodeJudgeService codeJudgeService;
+
+    @Autowired
+    @Qualifier("runExecutor")
+    private ThreadPoolTaskExecutor runExecutor;
+
+    /**
+     * Runs the code and waits for the result.
+     *
+     * @throws IllegalArgumentException when the problem does not exist, the input is too
+     *         large, or there is no input and the problem has no sample tests
+     * @throws org.springframework.core.task.TaskRejectedException when the run lane is full
+     * @throws TimeoutException when the run did not finish within {@code app.run.wait-seconds}
+     */
+    public RunResponseDto run(RunRequestDto request) throws TimeoutException, InterruptedException {
+        Problem problem = problemService.findById(request.getProblemId())
+                .orElseThrow(() -> new IllegalArgumentException("Problem not found"));
+
+        List<String> inputs = new ArrayList<>();
+        List<String> expectedOutputs = new ArrayList<>();
+        if (request.getInput() != null) {
+            if (request.getInput().getBytes(StandardCharsets.UTF_8).length > maxInputBytes) {
+                throw new IllegalArgumentException("Input is larger than " + maxInputBytes + " bytes");
+            }
+            inputs.add(request.getInput());
+            expectedOutputs.add(null);
+        } else {
+            for (TestCase sample : problemService.getSampleTestCases(problem.getId())) {
+                inputs.add(sample.getInput());
+                expectedOutputs.add(sample.getExpectedOutput());
+            }
+            if (inputs.isEmpty()) {
+                throw new IllegalArgumentException("Problem has no sample tests, provide an input");
+            }
+        }
+
+        // Never saved; only carries what the judge reads
+        Submission submission = new Submission();
+        submission.setProblem(problem);
+        submission.setCode(request.getCode());
+        submission.setLanguage(request.getLanguage());
+
+        Future<CodeJudgeService.CodeRunResult> run = runExecutor.submit(
+                () -> codeJudgeService.runCode(submission, inputs, expectedOutputs));
+        try {
+            return new RunResponseDto(run.get(waitSeconds, TimeUnit.SECONDS), inputs, expectedOutputs);
+        } catch (TimeoutException | InterruptedException e) {
+            // Interrupting the run kills its sandbox process
+            run.cancel(true);
+            throw e;
+        } catch (ExecutionException e) {
+            logger.error("Run for problem {} failed: {}", problem.getId(), e.getCause().getMessage());
+            throw new RuntimeException("Run failed", e.getCause());
+        }
+    }
+}
@@ -0,0 +1,462 @@
+package com.shodh.coder.service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.shodh.coder.config.NodeRole;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Keeps a set of pre-started, resource-limited runner containers per image so that
+ * submissions can {@code docker exec} into a warm sandbox instead of paying a
+ * {@code docker run} cold start for every compile and test case.
+ *
+ * Every pooled container has a private directory under the judge work root mounted at
+ * {@link #CONTAINER_WORK_ROOT}; a lease's workspace is created in it, so a submission only
+ * ever sees its own files. A second private directory is mounted read-only at
+ * {@link TestDataStager#CONTAINER_TEST_DATA_ROOT}; a lease links the inputs of the test set
+ * it judges into it, so a submission never sees expected outputs or other problems' tests.
+ * Containers are reset (processes killed, both directories and scratch space wiped) after
+ * every lease and recycled after
+ * {@code app.judge.pool.max-uses} leases or a failed health check.
+ *
+ * Containers are kept in partitions: {@link #JUDGE_PARTITION} for full judging and a small
+ * {@link #RUN_PARTITION} ({@code app.run.pool.size}, one container per run thread by
+ * default) for run-only requests, so a quick run never waits for a container held by a
+ * judge job. Run containers also get a larger CPU weight ({@code app.run.cpu-shares}), so
+ * on a host that also judges they are scheduled ahead of judge containers under load.
+ */
+@Service
+public class SandboxContainerPool {
+
+    private static final Logger logger = LoggerFactory.getLogger(SandboxContainerPool.class);
+
+    public static final String CONTAINER_WORK_ROOT = "/judge";
+    private static final String SANDBOX_DIRS = "sandboxes";
+    static final String TEST_DATA_DIRS = "testdata";
+    private static final String CONTAINER_LABEL = "shodh.sandbox=pool";
+    public static final String JUDGE_PARTITION = "judge";
+    public static final String RUN_PARTITION = "run";
+
+    @Value("${app.judge.pool.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.judge.sandbox:docker}")
+    private String sandbox;
+
+    @Value("${app.judge.pool.size:4}")
+    private int poolSize;
+
+    @Value("${app.run.pool.size:${app.run.concurrency:2}}")
+    private int runPoolSize;
+
+    @Value("${app.run.cpu-shares:2048}")
+    private int runCpuShares;
+
+    @Value("${app.judge.pool.max-uses:50}")
+    private int maxUses;
+
+    @Value("${app.judge.pool.lease-timeout:10}")
+    private int leaseTimeoutSeconds;
+
+    @Value("${app.judge.work-dir:${java.io.tmpdir}/shodh-judge}")
+    private String workDir;
+
+    @Value("${app.docker.memory-limit:128m}")
+    private String memoryLimit;
+
+    @Value("${app.docker.image-name:shodh-code-runner}")
+    private String dockerImageName;
+
+    @Autowired
+    private NodeRole nodeRole;
+
+    private final Map<String, ImagePool> pools = new ConcurrentHashMap<>();
+    private final ExecutorService maintenanceExecutor = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "SandboxPoolMaintenance");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @PostConstruct
+    public void warmUp() {
+        // Containers are only needed by the docker sandbox runner
+        enabled = enabled && "docker".equalsIgnoreCase(sandbox);
+        if (!enabled) {
+            logger.info("Sandbox container pool disabled, falling back to one container per run");
+            return;
+        }
+        // Judge containers on nodes that judge, run containers on nodes that serve the API
+        if (nodeRole.judges()) {
+            maintenanceExecutor.submit(() -> poolFor(dockerImageName, JUDGE_PARTITION).fill());
+        }
+        if (nodeRole.servesApi()) {
+            maintenanceExecutor.submit(() -> poolFor(dockerImageName, RUN_PARTITION).fill());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        maintenanceExecutor.shutdownNow();
+        pools.values().forEach(ImagePool::destroyAll);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public Path getWorkRoot() {
+        return Paths.get(workDir);
+    }
+
+    /**
+     * Leases a warm judge container for the given image. Returns {@code null} when the pool
+     * is disabled or no healthy container became available in time; callers then fall back
+     * to a one-off {@code docker run}.
+     */
+    public PooledContainer lease(String image) {
+        return lease(image, JUDGE_PARTITION);
+    }
+
+    /**
+     * Leases a warm container of the given partition, see {@link #lease(String)}.
+     */
+    public PooledContainer lease(String image, String partition) {
+        if (!enabled) {
+            return null;
+        }
+        try {
+            PooledContainer container = poolFor(image, partition).idle.poll(leaseTimeoutSeconds, TimeUnit.SECONDS);
+            if (container == null) {
+                logger.warn("No warm {} container available for image {} within {}s", partition, image,
+                        leaseTimeoutSeconds);
+            }
+            return container;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+    }
+
+    /**
+     * Leases a warm container only if one is idle right now, without waiting.
+     */
+    public PooledContainer tryLease(String image) {
+        if (!enabled) {
+            return null;
+        }
+        return poolFor(image, JUDGE_PARTITION).idle.poll();
+    }
+
+    /**
+     * Returns a leased container. It is wiped and handed back to the pool, or replaced
+     * when it reached its use limit or could not be reset.
+     */
+    public void release(PooledContainer container) {
+        if (container == null) {
+            return;
+        }
+        ImagePool pool = poolFor(container.getImage(), container.getPartition());
+        int uses = container.uses.incrementAndGet();
+        if (uses >= maxUses || !reset(container)) {
+            logger.info("Recycling sandbox container {} after {} uses", container.getName(), uses);
+            pool.replace(container);
+            return;
+        }
+        pool.idle.offer(container);
+    }
+
+    /**
+     * Drops a container that may be left in an unknown state (e.g. after a time limit kill)
+     * and starts a fresh one in its place.
+     */
+    public void discard(PooledContainer container) {
+        if (container == null) {
+            return;
+        }
+        poolFor(container.getImage(), container.getPartition()).replace(container);
+    }
+
+    /**
+     * Kills every process in a leased container, e.g. one left behind by an exec whose
+     * client was killed on a time limit.
+     */
+    public void killProcesses(PooledContainer container) {
+        // PID 1 (the idle sleep) is spared, so the container keeps running until it is replaced
+        runDocker(5, "docker", "exec", container.getName(), "sh", "-c", "kill -9 -1 2>/dev/null; true");
+    }
+
+    /**
+     * Creates an empty workspace in the leased container's private directory.
+     */
+    public Path createWorkspace(PooledContainer container, String name) throws IOException {
+        return Files.createDirectories(container.getHostDir().resolve(name));
+    }
+
+    /**
+     * Links the inputs of a staged test set into the leased container, replacing those of
+     * an earlier test set, and returns where it sees them.
+     */
+    public String attachTestData(PooledContainer container, TestDataStager.StagedTestSet tests) throws IOException {
+        TestDataStager.linkInputs(tests, container.getTestDataDir());
+        return TestDataStager.CONTAINER_TEST_DATA_ROOT;
+    }
+
+    /**
+     * Command prefix for running something inside the leased container with the given
+     * submission workspace as working directory.
+     */
+    public List<String> execCommand(PooledContainer container, Path workspace) {
+        List<String> command = new ArrayList<>();
+        command.add("docker");
+        command.add("exec");
+        command.add("-i");
+        command.add("-w");
+        command.add(containerPath(container, workspace));
+        command.add(container.getName());
+        return command;
+    }
+
+    /**
+     * Path under which a directory of the container's private directory is visible inside
+     * it. Anything outside that directory is not visible and is refused.
+     */
+    public static String containerPath(PooledContainer container, Path hostPath) {
+        return containerPath(container.getHostDir(), hostPath);
+    }
+
+    static String containerPath(Path hostDir, Path hostPath) {
+        Path normalized = hostPath.toAbsolutePath().normalize();
+        Path root = hostDir.toAbsolutePath().normalize();
+        if (!normalized.startsWith(root)) {
+            throw new IllegalArgumentException(hostPath + " is not inside the sandbox directory " + hostDir);
+        }
+        String relative = root.relativize(normalized).toString().replace('\\', '/');
+        return relative.isEmpty() ? CONTAINER_WORK_ROOT : CONTAINER_WORK_ROOT + "/" + relative;
+    }
+
+    @Scheduled(fixedDelayString = "${app.judge.pool.health-check-interval-ms:30000}")
+    public void checkHealth() {
+        for (ImagePool pool : pools.values()) {
+            List<PooledContainer> idle = new ArrayList<>();
+            pool.idle.drainTo(idle);
+            for (PooledContainer container : idle) {
+                if (isRunning(container)) {
+                    pool.idle.offer(container);
+                } else {
+                    logger.warn("Sandbox container {} failed health check", container.getName());
+                    pool.replace(container);
+                }
+            }
+        }
+    }
+
+    private ImagePool poolFor(String image, String partition) {
+        return pools.computeIfAbsent(partition + ":" + image, key -> new ImagePool(image, partition));
+    }
+
+    private boolean reset(PooledContainer container) {
+        try {
+            TestDataStager.clear(container.getTestDataDir());
+        } catch (IOException e) {
+            logger.warn("Could not clear test data of sandbox container {}: {}", container.getName(), e.getMessage());
+            return false;
+        }
+        // Kill everything but PID 1 (the idle sleep), then wipe the workspace and scratch space
+        return runDocker(5, "docker", "exec", container.getName(),
+                "sh", "-c", "kill -9 -1 2>/dev/null; rm -rf " + CONTAINER_WORK_ROOT + "/* "
+                        + CONTAINER_WORK_ROOT + "/.[!.]* /tmp/* 2>/dev/null; true");
+    }
+
+    private void removeContainer(PooledContainer container) {
+        runDocker(10, "docker", "rm", "-f", container.getName());
+        deleteRecursively(container.getHostDir());
+        deleteRecursively(container.getTestDataDir());
+    }
+
+    static void copyTree(Path from, Path to) throws IOException {
+        try (Stream<Path> paths = Files.walk(from)) {
+            for (Path path : (Iterable<Path>) paths::iterator) {
+                Path target = to.resolve(from.relativize(path).toString());
+                if (Files.isDirectory(path)) {
+                    Files.createDirectories(target);
+                } else {
+                    Files.copy(path, target, StandardCopyOption.REPLACE_EXISTING);
+                }
+            }
+        }
+    }
+
+    static void deleteRecursively(Path directory) {
+        if (!Files.exists(directory)) {
+            return;
+        }
+        try (Stream<Path> paths = Files.walk(directory)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> {
+                try {
+                    Files.deleteIfExists(path);
+                } catch (IOException e) {
+                    // Files written as root inside the container; the next wipe gets them
+                }
+            });
+        } catch (IOException e) {
+            logger.warn("Could not delete sandbox directory {}: {}", directory, e.getMessage());
+        }
+    }
+
+    private boolean isRunning(PooledContainer container) {
+        try {
+            Process process = new ProcessBuilder("docker", "inspect", "-f", "{{.State.Running}}", container.getName())
+                    .redirectErrorStream(true)
+                    .start();
+            String output = new String(process.getInputStream().readAllBytes()).trim();
+            return process.waitFor(5, TimeUnit.SECONDS) && process.exitValue() == 0 && "true".equals(output);
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    private boolean runDocker(int timeoutSeconds, String... command) {
+        Process process = null;
+        try {
+            process = new ProcessBuilder(command)
+                    .redirectErrorStream(true)
+                    .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                    .start();
+            return process.waitFor(timeoutSeconds, TimeUnit.SECONDS) && process.exitValue() == 0;
+        } catch (Exception e) {
+            logger.warn("Docker command failed: {}", e.getMessage());
+            return false;
+        } finally {
+            if (process != null) {
+                process.destroyForcibly();
+            }
+        }
+    }
+
+    private class ImagePool {
+        private final String image;
+        private final String partition;
+        private final BlockingQueue<PooledContainer> idle = new LinkedBlockingQueue<>();
+
+        ImagePool(String image, String partition) {
+            this.image = image;
+            this.partition = partition;
+        }
+
+        void fill() {
+            int size = RUN_PARTITION.equals(partition) ? runPoolSize : poolSize;
+            for (int i = 0; i < size; i++) {
+                PooledContainer container = start();
+                if (container == null) {
+                    logger.warn("Could not pre-start {} sandbox containers for image {}", partition, image);
+                    return;
+                }
+                idle.offer(container);
+            }
+            logger.info("Started {} warm {} sandbox containers for image {}", size, partition, image);
+        }
+
+        void replace(PooledContainer container) {
+            maintenanceExecutor.submit(() -> {
+                removeContainer(container);
+                PooledContainer fresh = start();
+                if (fresh != null) {
+                    idle.offer(fresh);
+                }
+            });
+        }
+
+        void destroyAll() {
+            List<PooledContainer> all = new ArrayList<>();
+            idle.drainTo(all);
+            all.forEach(SandboxContainerPool.this::removeContainer);
+        }
+
+        private PooledContainer start() {
+            String name = "shodh-" + partition + "-" + UUID.randomUUID().toString().substring(0, 8);
+            // Private to this container; no other sandbox mounts it
+            Path hostDir = getWorkRoot().resolve(SANDBOX_DIRS).resolve(name);
+            Path testDataDir = getWorkRoot().resolve(TEST_DATA_DIRS).resolve(name);
+            try {
+                Files.createDirectories(hostDir);
+                Files.createDirectories(testDataDir);
+            } catch (Exception e) {
+                logger.error("Cannot create sandbox directory {}: {}", hostDir, e.getMessage());
+                deleteRecursively(hostDir);
+                return null;
+            }
+
+            boolean started = runDocker(30, "docker", "run", "-d", "--rm",
+                    "--name", name,
+                    "--label", CONTAINER_LABEL,
+                    "--memory=" + memoryLimit,
+                    "--cpus=0.5",
+                    // Docker's default weight is 1024
+                    "--cpu-shares=" + (RUN_PARTITION.equals(partition) ? runCpuShares : 1024),
+                    "--ulimit", "nproc=16:32",
+                    "-v", hostDir.toString() + ":" + CONTAINER_WORK_ROOT,
+                    "-v", testDataDir.toString() + ":" + TestDataStager.CONTAINER_TEST_DATA_ROOT + ":ro",
+                    "-w", CONTAINER_WORK_ROOT,
+                    image,
+                    "sleep", "infinity");
+            if (!started) {
+                deleteRecursively(hostDir);
+                deleteRecursively(testDataDir);
+                return null;
+            }
+            return new PooledContainer(name, image, partition, hostDir, testDataDir);
+        }
+    }
+
+    public static class PooledContainer {
+        private final String name;
+        private final String image;
+        private final String partition;
+        private final Path hostDir;
+        private final Path testDataDir;
+        private final AtomicInteger uses = new AtomicInteger();
+
+        PooledContainer(String name, String image, String partition, Path hostDir, Path testDataDir) {
+            this.name = name;
+            this.image = image;
+            this.partition = partition;
+            this.hostDir = hostDir;
+            this.testDataDir = testDataDir;
+        }
+
+        public String getName() { return name; }
+        public String getImage() { return image; }
+        public String getPartition() { return partition; }
+        // Host side of the container's private work directory
+        public Path getHostDir() { return hostDir; }
+        // Host side of the read-only test data mount
+        public Path getTestDataDir() { return testDataDir; }
+        public int getUses() { return uses.get(); }
+    }
+}
@@ -0,0 +1,119 @@
+package com.shodh.coder.service;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Where submissions are compiled and run. The judge only builds the command to execute
+ * inside the sandbox (compiler, run command, judge harness); the runner decides how that
+ * command is isolated and limited.
+ *
+ * Selected with {@code app.judge.sandbox}: {@code docker} (default) runs everything in
+ * runner containers, {@code local} runs child processes directly on the judge host.
+ */
+public interface SandboxRunner {
+
+    /**
+     * Identifies the compilers and runtimes used, for compile cache keys.
+     */
+    String getToolchainId();
+
+    /**
+     * Makes the inputs of a staged test set, and no other test data, readable in the claimed
+     * sandbox. Returns the directory holding them as seen inside it. Expected outputs stay
+     * on the host, where only the checker reads them.
+     */
+    String attachTestData(Sandbox sandbox, TestDataStager.StagedTestSet tests) throws IOException;
+
+    /**
+     * Claims a sandbox for one submission.
+     */
+    Sandbox acquire();
+
+    /**
+     * Claims a sandbox for a run-only request, kept apart from the ones used for judging.
+     */
+    Sandbox acquireForRun();
+
+    /**
+     * Claims an additional sandbox without waiting, e.g. for parallel test case slots.
+     */
+    Sandbox tryAcquire();
+
+    /**
+     * Creates an empty workspace for one submission or run in the claimed sandbox. Runs of
+     * other submissions never see it; the local runner, meant for trusted setups, can only
+     * keep them apart with file permissions.
+     */
+    Path createWorkspace(Sandbox sandbox, String name) throws IOException;
+
+    /**
+     * A workspace with the files of {@code workspace} (created for another sandbox of the
+     * same submission) that runs in {@code sandbox} can use: the workspace itself where that
+     * sandbox can see it, otherwise a copy in the sandbox's own directory.
+     */
+    Path shareWorkspace(Sandbox sandbox, Path workspace) throws IOException;
+
+    /**
+     * Hands a sandbox back. One that was marked dirty is thrown away and replaced.
+     */
+    void release(Sandbox sandbox);
+
+    /**
+     * Starts {@code command} as a compile step in the workspace, with all its output
+     * going to {@code logFile}.
+     */
+    SandboxProcess compile(Sandbox sandbox, Path workspace, List<String> command, Path logFile) throws IOException;
+
+    /**
+     * Starts {@code command} in the workspace under the given limits. Stdout and stderr are
+     * left as pipes for the caller to drain.
+     */
+    SandboxProcess run(Sandbox sandbox, Path workspace, List<String> command, Limits limits) throws IOException;
+
+    /**
+     * A claimed sandbox. Runs that were killed or left the sandbox in an unknown state mark
+     * it dirty.
+     */
+    class Sandbox {
+        private volatile boolean dirty;
+
+        public void markDirty() { this.dirty = true; }
+        public boolean isDirty() { return dirty; }
+    }
+
+    /**
+     * A process started in a sandbox. {@link #kill()} stops it together with anything it
+     * started; {@link #close()} frees what the runner set up for this one process.
+     */
+    abstract class SandboxProcess implements AutoCloseable {
+        private final Process process;
+
+        protected SandboxProcess(Process process) {
+            this.process = process;
+        }
+
+        public Process getProcess() { return process; }
+
+        public abstract void kill();
+
+        @Override
+        public void close() {
+            process.destroyForcibly();
+        }
+    }
+
+    class Limits {
+        private final int timeLimitSeconds;
+        private final long outputLimitBytes;
+
+        public Limits(int timeLimitSeconds, long outputLimitBytes) {
+            this.timeLimitSeconds = timeLimitSeconds;
+            this.outputLimitBytes = outputLimitBytes;
+        }
+
+        public int getTimeLimitSeconds() { return timeLimitSeconds; }
+        public long getOutputLimitBytes() { return outputLimitBytes; }
+    }
+}
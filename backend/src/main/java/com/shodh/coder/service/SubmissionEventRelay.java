@@ -0,0 +1,77 @@
+package com.shodh.coder.service;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.shodh.coder.entity.Submission;
+import com.shodh.coder.repository.SubmissionRepository;
+
+/**
+ * On API-only nodes submissions are judged by worker processes, whose events never reach
+ * this one. While anyone is subscribed, a cached status is still open or the leaderboard
+ * holds standings, verdicts are picked up from the database and published as
+ * {@link SubmissionUpdatedEvent}s here, so submission streams, the status cache and the
+ * leaderboard still get them. Per test case progress is only seen by nodes that judge.
+ *
+ * A node with role {@code all} has no relay: it only sees the verdicts it judges itself,
+ * so it must be the only judging node. Several API nodes with separate workers are
+ * supported; several {@code all} nodes, or an {@code all} node next to workers, are not:
+ * their leaderboards and streams would diverge ({@link NodeHeartbeatService} warns).
+ */
+@Service
+@ConditionalOnExpression("'${app.node.role:all}'.equalsIgnoreCase('api')")
+public class SubmissionEventRelay {
+
+    // Verdicts are stamped before their transaction commits; look back this far to catch late commits
+    private static final long OVERLAP_SECONDS = 10;
+    private static final int MAX_REMEMBERED = 10_000;
+
+    @Autowired
+    private SubmissionRepository submissionRepository;
+
+    @Autowired
+    private SubmissionStreamService streamService;
+
+    @Autowired
+    private SubmissionStatusCache statusCache;
+
+    @Autowired
+    private LeaderboardService leaderboardService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    private LocalDateTime since = LocalDateTime.now();
+    private final Set<Long> relayed = new LinkedHashSet<>();
+
+    @Scheduled(fixedDelayString = "${app.stream.relay-interval-ms:1000}")
+    public void relay() {
+        LocalDateTime now = LocalDateTime.now();
+        if (!streamService.hasSubscribers() && !statusCache.hasOpenSubmissions()
+                && !leaderboardService.isFollowingVerdicts()) {
+            // Whatever is started next reads the current state from the database first
+            since = now;
+            relayed.clear();
+            return;
+        }
+        for (Submission submission : submissionRepository.findCompletedSince(since.minusSeconds(OVERLAP_SECONDS))) {
+            if (relayed.add(submission.getId())) {
+                eventPublisher.publishEvent(new SubmissionUpdatedEvent(submission.getId(),
+                        submission.getUser() != null ? submission.getUser().getId() : null,
+                        submission.getContest() != null ? submission.getContest().getId() : null,
+                        submission.getStatus(), submission.getTestCasesPassed(), submission.getTotalTestCases()));
+            }
+        }
+        while (relayed.size() > MAX_REMEMBERED) {
+            relayed.remove(relayed.iterator().next());
+        }
+        since = now;
+    }
+}
@@ -0,0 +1,31 @@
+package com.shodh.coder.service;
+
+import com.shodh.coder.dto.SubmissionProgressDto;
+
+/**
+ * Published by the judge on the node that runs a submission, after each test case.
+ */
+public class SubmissionProgressEvent {
+
+    private final Long userId;
+    private final Long contestId;
+    private final SubmissionProgressDto progress;
+
+    public SubmissionProgressEvent(Long userId, Long contestId, SubmissionProgressDto progress) {
+        this.userId = userId;
+        this.contestId = contestId;
+        this.progress = progress;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public Long getContestId() {
+        return contestId;
+    }
+
+    public SubmissionProgressDto getProgress() {
+        return progress;
+    }
+}
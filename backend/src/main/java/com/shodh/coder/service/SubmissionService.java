@@ -3,12 +3,11 @@ package com.shodh.coder.service;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
-import java.util.concurrent.CompletableFuture;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.scheduling.annotation.Async;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -41,6 +40,18 @@ public class SubmissionService {
     @Autowired
     private CodeJudgeService codeJudgeService;
 
+    @Autowired
+    private VerdictCacheService verdictCacheService;
+
+    @Autowired
+    private JudgeQueueService judgeQueue;
+
+    @Autowired
+    private ContestResultService contestResultService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     @Transactional
     public SubmissionResponseDto createSubmission(SubmissionRequestDto request) {
         // Validate entities exist
@@ -75,8 +86,9 @@ public class SubmissionService {
         // Save submission
         submission = submissionRepository.save(submission);
 
-        // Process submission asynchronously
-        processSubmissionAsync(submission.getId());
+        // Queue for judging in the same transaction, so the submission survives a restart
+        judgeQueue.enqueue(submission);
+        publishUpdate(submission, SubmissionStatus.PENDING, 0, 0);
 
         return new SubmissionResponseDto(submission);
     }
@@ -93,73 +105,72 @@ public class SubmissionService {
                 .toList();
     }
 
-    @Async
-    @Transactional
-    public CompletableFuture<Void> processSubmissionAsync(Long submissionId) {
-        logger.info("Starting async processing for submission ID: {}", submissionId);
-
-        try {
-            Optional<Submission> submissionOpt = submissionRepository.findById(submissionId);
-            if (submissionOpt.isEmpty()) {
-                logger.error("Submission not found: {}", submissionId);
-                return CompletableFuture.completedFuture(null);
-            }
-
-            Submission submission = submissionOpt.get();
-            
-            // Update status to RUNNING
-            submission.setStatus(SubmissionStatus.RUNNING);
-            submissionRepository.save(submission);
-
-            // Get test cases
-            List<TestCase> testCases = problemService.getTestCases(submission.getProblem().getId());
-            if (testCases.isEmpty()) {
-                logger.warn("No test cases found for problem ID: {}", submission.getProblem().getId());
-                submission.setStatus(SubmissionStatus.SYSTEM_ERROR);
-                submission.setResult("No test cases available");
-                submission.setCompletedAt(LocalDateTime.now());
-                submissionRepository.save(submission);
-                return CompletableFuture.completedFuture(null);
-            }
-
-            // Execute code
-            CodeJudgeService.ExecutionResult result = codeJudgeService.executeCode(submission, testCases);
-            logger.info("Execution result: {}", result.getStatus());
-            // Update submission with results
-            submission.setStatus(result.getStatus());
-            submission.setTestCasesPassed(result.getTestCasesPassed());
-            submission.setTotalTestCases(result.getTotalTestCases());
-            submission.setExecutionTime(result.getExecutionTime());
-            submission.setCompletedAt(LocalDateTime.now());
-
-            // Store console output and compilation errors
-            submission.setConsoleOutput(result.getConsoleOutput());
-            submission.setCompilationError(result.getCompilationError());
-
-            if (result.getErrorMessage() != null) {
-                submission.setResult(result.getErrorMessage());
-            } else {
-                submission.setResult(String.format("Passed %d/%d test cases", 
-                    result.getTestCasesPassed(), result.getTotalTestCases()));
-            }
-
-            submissionRepository.save(submission);
-
-            logger.info("Completed processing submission ID: {} with status: {}", 
-                submissionId, result.getStatus());
-
-        } catch (Exception e) {
-            logger.error("Error processing submission {}: {}", submissionId, e.getMessage(), e);
-            
-            // Update submission with error status
-            submissionRepository.findById(submissionId).ifPresent(submission -> {
-                submission.setStatus(SubmissionStatus.SYSTEM_ERROR);
-                submission.setResult("System error during processing");
-                submission.setCompletedAt(LocalDateTime.now());
-                submissionRepository.save(submission);
-            });
+    /**
+     * Judges a submission claimed from the judge queue. Failures of the judge itself are
+     * thrown, so the queue can retry the submission.
+     *
+     * Deliberately not transactional: the submission and its test cases are loaded in short
+     * transactions, compiled and run detached with no connection held, and the verdict is
+     * written with one conditional UPDATE that only applies while the submission is still
+     * RUNNING, in the same short transaction as the user's contest result.
+     */
+    public void processSubmission(Long submissionId) {
+        logger.info("Starting processing for submission ID: {}", submissionId);
+
+        if (submissionRepository.markRunning(submissionId) == 0) {
+            logger.warn("Submission {} is missing or already judged, skipping", submissionId);
+            return;
+        }
+        Submission submission = submissionRepository.findForJudging(submissionId).orElse(null);
+        if (submission == null) {
+            logger.error("Submission not found: {}", submissionId);
+            return;
+        }
+
+        // Get test cases
+        List<TestCase> testCases = problemService.getTestCases(submission.getProblem().getId());
+        if (testCases.isEmpty()) {
+            logger.warn("No test cases found for problem ID: {}", submission.getProblem().getId());
+            submissionRepository.applyVerdict(submissionId, SubmissionStatus.SYSTEM_ERROR, "No test cases available",
+                    0, 0, null, null, null, null, null, LocalDateTime.now());
+            publishUpdate(submission, SubmissionStatus.SYSTEM_ERROR, 0, 0);
+            return;
         }
+        publishUpdate(submission, SubmissionStatus.RUNNING, 0, testCases.size());
+
+        // Execute code, unless identical code was already judged against the same test set
+        String verdictKey = verdictCacheService.key(submission, testCases);
+        CodeJudgeService.ExecutionResult result = verdictCacheService.get(verdictKey).orElse(null);
+        if (result != null) {
+            logger.info("Reusing cached verdict for submission ID: {}", submissionId);
+        } else {
+            result = codeJudgeService.executeCode(submission, testCases);
+            verdictCacheService.put(verdictKey, result);
+        }
+        logger.info("Execution result: {}", result.getStatus());
+
+        String summary = result.getErrorMessage() != null
+                ? result.getErrorMessage()
+                : String.format("Passed %d/%d test cases", result.getTestCasesPassed(), result.getTotalTestCases());
+
+        // Update submission with results, console output and compilation errors, and the user's contest result
+        int updated = contestResultService.applyVerdict(submission, result, summary, LocalDateTime.now());
+        if (updated == 0) {
+            // Given up on by the queue meanwhile; its SYSTEM_ERROR stands
+            logger.warn("Discarding verdict for submission ID: {}, it is no longer running", submissionId);
+            return;
+        }
+        publishUpdate(submission, result.getStatus(), result.getTestCasesPassed(), result.getTotalTestCases());
+
+        logger.info("Completed processing submission ID: {} with status: {}", 
+            submissionId, result.getStatus());
+    }
 
-        return CompletableFuture.completedFuture(null);
+    // The entity may be stale, status and counts are passed as written
+    private void publishUpdate(Submission submission, SubmissionStatus status, int testCasesPassed, int totalTestCases) {
+        eventPublisher.publishEvent(new SubmissionUpdatedEvent(submission.getId(),
+                submission.getUser() != null ? submission.getUser().getId() : null,
+                submission.getContest() != null ? submission.getContest().getId() : null,
+                status, testCasesPassed, totalTestCases));
     }
-} 
\ No newline at end of file
+}
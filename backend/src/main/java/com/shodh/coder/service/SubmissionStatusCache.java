@@ -0,0 +1,115 @@
+package com.shodh.coder.service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.shodh.coder.dto.SubmissionStatusDto;
+import com.shodh.coder.entity.SubmissionStatus;
+import com.shodh.coder.repository.SubmissionRepository;
+
+/**
+ * Status, passed and total test counts of recent submissions, kept in memory from
+ * {@link SubmissionUpdatedEvent}s and judge progress so status polls are answered without
+ * the database. Submissions not in the map (older ones, or after a restart) are read once
+ * with a narrow query and kept from then on. Verdicts are dropped
+ * {@code app.submission-status.retention-minutes} after they came in.
+ */
+@Service
+public class SubmissionStatusCache {
+
+    @Value("${app.submission-status.retention-minutes:30}")
+    private long retentionMinutes;
+
+    @Autowired
+    private SubmissionRepository submissionRepository;
+
+    private final Map<Long, Entry> entries = new ConcurrentHashMap<>();
+
+    /**
+     * Statuses of the given submissions in request order; unknown ids are left out.
+     */
+    public List<SubmissionStatusDto> getStatuses(Collection<Long> ids) {
+        List<Long> missing = ids.stream().filter(id -> !entries.containsKey(id)).distinct().toList();
+        if (!missing.isEmpty()) {
+            for (Object[] row : submissionRepository.findStatusesByIdIn(missing)) {
+                Long id = (Long) row[0];
+                // A concurrent event is newer than what was just read
+                entries.putIfAbsent(id, new Entry(new SubmissionStatusDto(id, (SubmissionStatus) row[1],
+                        (Integer) row[2], (Integer) row[3])));
+            }
+        }
+        List<SubmissionStatusDto> statuses = new ArrayList<>();
+        for (Long id : ids) {
+            Entry entry = entries.get(id);
+            if (entry != null) {
+                statuses.add(entry.status);
+            }
+        }
+        return statuses;
+    }
+
+    /**
+     * Strong validator (unquoted) for a status response, changes whenever any of the
+     * statuses does.
+     */
+    public static String etag(List<SubmissionStatusDto> statuses) {
+        MessageDigest digest = ContentHash.newDigest();
+        for (SubmissionStatusDto status : statuses) {
+            digest.update((status.getId() + ":" + status.getStatus() + ":" + status.getTestCasesPassed() + ":"
+                    + status.getTotalTestCases() + ";").getBytes(StandardCharsets.UTF_8));
+        }
+        return ContentHash.toHex(digest.digest()).substring(0, 32);
+    }
+
+    /**
+     * Whether any cached submission is still waiting for its verdict.
+     */
+    public boolean hasOpenSubmissions() {
+        return entries.values().stream().anyMatch(entry -> !entry.status.getStatus().isFinal());
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onSubmissionUpdated(SubmissionUpdatedEvent event) {
+        SubmissionStatusDto status = new SubmissionStatusDto(event.getSubmissionId(), event.getStatus(),
+                event.getTestCasesPassed(), event.getTotalTestCases());
+        entries.compute(event.getSubmissionId(), (id, current) ->
+                current != null && current.status.getStatus().isFinal() && !status.getStatus().isFinal()
+                        ? current : new Entry(status));
+    }
+
+    @EventListener
+    public void onProgress(SubmissionProgressEvent event) {
+        entries.computeIfPresent(event.getProgress().getSubmissionId(), (id, current) ->
+                current.status.getStatus().isFinal() ? current
+                        : new Entry(new SubmissionStatusDto(id, current.status.getStatus(),
+                                event.getProgress().getTestCasesPassed(), event.getProgress().getTotalTestCases())));
+    }
+
+    @Scheduled(fixedDelayString = "${app.submission-status.sweep-interval-ms:60000}")
+    public void sweep() {
+        long cutoff = System.currentTimeMillis() - retentionMinutes * 60_000;
+        entries.values().removeIf(entry -> entry.status.getStatus().isFinal() && entry.updatedAt < cutoff);
+    }
+
+    private static class Entry {
+        private final SubmissionStatusDto status;
+        private final long updatedAt = System.currentTimeMillis();
+
+        Entry(SubmissionStatusDto status) {
+            this.status = status;
+        }
+    }
+}
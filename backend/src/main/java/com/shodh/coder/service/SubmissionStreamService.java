@@ -0,0 +1,397 @@
+package com.shodh.coder.service;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.shodh.coder.dto.SubmissionResponseDto;
+import com.shodh.coder.repository.SubmissionRepository;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Registry of Server-Sent Events streams for submissions, one per submission and one per
+ * user in a contest. Streams are async servlet responses, so an idle one costs a
+ * connection and an entry here but no thread.
+ *
+ * Two event types are pushed: {@code submission} with the full submission whenever its
+ * status changes, and {@code progress} after each judged test case. A single dispatcher
+ * thread loads each changed submission once and queues it on every stream that wants it;
+ * a small pool of sender threads writes the queues out. A stream whose queue reaches
+ * {@code app.stream.max-pending-events} is too slow to keep up and is closed, so a slow
+ * client never holds up the judge or the other streams. A client that stops reading
+ * altogether blocks the write to it; once a write has been blocked for
+ * {@code app.stream.send-timeout-ms} the stream is dropped and the pool gets a thread in
+ * place of the blocked one until the servlet container gives up on the write. Clients
+ * get the current state again when they reconnect.
+ */
+@Service
+public class SubmissionStreamService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SubmissionStreamService.class);
+
+    @Value("${app.stream.timeout-ms:1800000}")
+    private long timeoutMs;
+
+    @Value("${app.stream.sender-threads:4}")
+    private int senderThreads;
+
+    @Value("${app.stream.max-pending-events:64}")
+    private int maxPendingEvents;
+
+    @Value("${app.stream.send-timeout-ms:5000}")
+    private long sendTimeoutMs;
+
+    @Autowired
+    private SubmissionRepository submissionRepository;
+
+    private final Map<String, Set<Stream>> streams = new ConcurrentHashMap<>();
+    // Streams with a write in progress, also those already unregistered and writing their last events
+    private final Set<Stream> writing = ConcurrentHashMap.newKeySet();
+    private final ExecutorService dispatcher = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "SubmissionStreamDispatcher");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private ThreadPoolExecutor sender;
+
+    @PostConstruct
+    public void init() {
+        AtomicInteger threads = new AtomicInteger();
+        sender = new ThreadPoolExecutor(senderThreads, senderThreads, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), r -> {
+            Thread thread = new Thread(r, "SubmissionStreamSender-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        dispatcher.shutdownNow();
+        sender.shutdownNow();
+        streams.values().forEach(all -> all.forEach(stream -> stream.emitter.complete()));
+    }
+
+    /**
+     * Stream of one submission. Starts with its current state and ends after the verdict.
+     */
+    public SseEmitter subscribeToSubmission(Long submissionId) {
+        Stream stream = register(submissionKey(submissionId));
+        dispatch(() -> {
+            SubmissionResponseDto submission = load(submissionId);
+            if (submission == null) {
+                stream.complete();
+                return;
+            }
+            stream.offer(event("submission", submission), submission.getStatus().isFinal());
+        });
+        return stream.emitter;
+    }
+
+    /**
+     * Stream of all submissions of a user in a contest; stays open until the client leaves.
+     */
+    public SseEmitter subscribeToUser(Long userId, Long contestId) {
+        return register(userKey(userId, contestId)).emitter;
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onSubmissionUpdated(SubmissionUpdatedEvent event) {
+        String submissionKey = submissionKey(event.getSubmissionId());
+        String userKey = userKey(event.getUserId(), event.getContestId());
+        if (!streams.containsKey(submissionKey) && !streams.containsKey(userKey)) {
+            return;
+        }
+        dispatch(() -> {
+            // Loaded once, however many streams want it
+            SubmissionResponseDto submission = load(event.getSubmissionId());
+            if (submission == null) {
+                return;
+            }
+            boolean done = submission.getStatus().isFinal();
+            Supplier<SseEmitter.SseEventBuilder> update = event("submission", submission);
+            streams(submissionKey).forEach(stream -> stream.offer(update, done));
+            streams(userKey).forEach(stream -> stream.offer(update, false));
+        });
+    }
+
+    @EventListener
+    public void onProgress(SubmissionProgressEvent event) {
+        String submissionKey = submissionKey(event.getProgress().getSubmissionId());
+        String userKey = userKey(event.getUserId(), event.getContestId());
+        if (!streams.containsKey(submissionKey) && !streams.containsKey(userKey)) {
+            return;
+        }
+        // Through the dispatcher, so progress never overtakes the submission updates before it
+        dispatch(() -> {
+            Supplier<SseEmitter.SseEventBuilder> progress = event("progress", event.getProgress());
+            streams(submissionKey).forEach(stream -> stream.offer(progress, false));
+            streams(userKey).forEach(stream -> stream.offer(progress, false));
+        });
+    }
+
+    /**
+     * Comment lines keep idle streams open through proxies and find the closed ones.
+     */
+    @Scheduled(fixedDelayString = "${app.stream.heartbeat-interval-ms:15000}")
+    public void heartbeat() {
+        if (streams.isEmpty()) {
+            return;
+        }
+        dispatch(() -> streams.values().forEach(all -> all.forEach(
+                stream -> stream.offer(() -> SseEmitter.event().comment("keep-alive"), false))));
+    }
+
+    /**
+     * Drops streams whose write has been blocked too long, so a client that stopped reading
+     * keeps no sender thread from the others.
+     */
+    @Scheduled(fixedDelayString = "${app.stream.stall-check-interval-ms:1000}")
+    public void dropStalledStreams() {
+        long now = System.nanoTime();
+        writing.forEach(stream -> stream.abandonIfStalled(now));
+    }
+
+    /**
+     * Whether any stream is open.
+     */
+    public boolean hasSubscribers() {
+        return !streams.isEmpty();
+    }
+
+    private Stream register(String key) {
+        Stream stream = new Stream(key, new SseEmitter(timeoutMs));
+        streams.computeIfAbsent(key, k -> ConcurrentHashMap.newKeySet()).add(stream);
+        stream.emitter.onCompletion(stream::closed);
+        stream.emitter.onTimeout(stream::closed);
+        stream.emitter.onError(e -> stream.closed());
+        return stream;
+    }
+
+    private void unregister(Stream stream) {
+        streams.computeIfPresent(stream.key, (k, all) -> {
+            all.remove(stream);
+            return all.isEmpty() ? null : all;
+        });
+    }
+
+    // The pool keeps senderThreads usable threads while some are stuck in abandoned writes
+    private synchronized void resizeSender(int delta) {
+        int size = sender.getCorePoolSize() + delta;
+        if (delta > 0) {
+            sender.setMaximumPoolSize(size);
+            sender.setCorePoolSize(size);
+        } else {
+            sender.setCorePoolSize(size);
+            sender.setMaximumPoolSize(size);
+        }
+    }
+
+    private void dispatch(Runnable task) {
+        try {
+            dispatcher.execute(task);
+        } catch (RejectedExecutionException e) {
+            // Shutting down
+        }
+    }
+
+    private SubmissionResponseDto load(Long submissionId) {
+        return submissionRepository.findWithDetailsById(submissionId).map(SubmissionResponseDto::new).orElse(null);
+    }
+
+    private Set<Stream> streams(String key) {
+        return streams.getOrDefault(key, Set.of());
+    }
+
+    // A builder is consumed by the send, so each stream builds its own
+    private static Supplier<SseEmitter.SseEventBuilder> event(String name, Object data) {
+        return () -> SseEmitter.event().name(name).data(data);
+    }
+
+    private static String submissionKey(Long submissionId) {
+        return "submission:" + submissionId;
+    }
+
+    private static String userKey(Long userId, Long contestId) {
+        return "user:" + contestId + ":" + userId;
+    }
+
+    /**
+     * One client's stream and the events waiting to be written to it. At most one sender
+     * thread drains a stream at a time, so its events go out in order.
+     */
+    private class Stream {
+        private final String key;
+        private final SseEmitter emitter;
+        private final Deque<Supplier<SseEmitter.SseEventBuilder>> pending = new ArrayDeque<>();
+        private boolean sending;
+        // No more events are taken; the emitter completes once the queue is written out
+        private boolean completing;
+        private boolean closed;
+        // Given up on while blocked in a write; its sender thread was replaced
+        private boolean abandoned;
+        // Start and thread of the write in progress, 0 and null when none
+        private long sendingSince;
+        private Thread sendingThread;
+
+        Stream(String key, SseEmitter emitter) {
+            this.key = key;
+            this.emitter = emitter;
+        }
+
+        void offer(Supplier<SseEmitter.SseEventBuilder> event, boolean last) {
+            boolean ending;
+            boolean startDrain;
+            synchronized (this) {
+                if (closed || completing) {
+                    return;
+                }
+                if (pending.size() >= maxPendingEvents) {
+                    logger.debug("Closing submission stream {}, {} events behind", key, pending.size());
+                    pending.clear();
+                    completing = true;
+                } else {
+                    pending.add(event);
+                    completing = last;
+                }
+                ending = completing;
+                startDrain = !sending;
+                sending = true;
+            }
+            afterOffer(ending, startDrain);
+        }
+
+        void complete() {
+            boolean startDrain;
+            synchronized (this) {
+                if (closed || completing) {
+                    return;
+                }
+                completing = true;
+                startDrain = !sending;
+                sending = true;
+            }
+            afterOffer(true, startDrain);
+        }
+
+        private void afterOffer(boolean ending, boolean startDrain) {
+            if (ending) {
+                unregister(this);
+            }
+            if (startDrain) {
+                try {
+                    sender.execute(this::drain);
+                } catch (RejectedExecutionException e) {
+                    // Shutting down
+                }
+            }
+        }
+
+        // Sender thread only; the emitter is written outside the lock, a blocked write blocks just this stream
+        private void drain() {
+            while (true) {
+                Supplier<SseEmitter.SseEventBuilder> event;
+                synchronized (this) {
+                    event = closed ? null : pending.poll();
+                    if (event == null) {
+                        sending = false;
+                        if (closed || !completing) {
+                            return;
+                        }
+                        closed = true;
+                    }
+                }
+                if (event == null) {
+                    emitter.complete();
+                    return;
+                }
+                Exception failure = null;
+                synchronized (this) {
+                    sendingThread = Thread.currentThread();
+                    sendingSince = System.nanoTime();
+                }
+                writing.add(this);
+                try {
+                    emitter.send(event.get());
+                } catch (IOException | IllegalStateException e) {
+                    failure = e;
+                } finally {
+                    writing.remove(this);
+                }
+                boolean wasAbandoned;
+                synchronized (this) {
+                    sendingSince = 0;
+                    sendingThread = null;
+                    wasAbandoned = abandoned;
+                }
+                // Only set while the write was in progress
+                Thread.interrupted();
+                if (wasAbandoned) {
+                    // A replacement thread took over meanwhile; this one leaves the pool
+                    resizeSender(-1);
+                }
+                if (failure != null) {
+                    // Client went away; completing runs the removal callback
+                    logger.debug("Dropping submission stream: {}", failure.getMessage());
+                    closed();
+                    emitter.completeWithError(failure);
+                    return;
+                }
+                if (wasAbandoned) {
+                    emitter.complete();
+                    return;
+                }
+            }
+        }
+
+        void abandonIfStalled(long now) {
+            synchronized (this) {
+                if (abandoned || sendingThread == null
+                        || now - sendingSince < TimeUnit.MILLISECONDS.toNanos(sendTimeoutMs)) {
+                    return;
+                }
+                abandoned = true;
+                closed = true;
+                pending.clear();
+                // Ends the write where the container allows it, otherwise its own write timeout does;
+                // under the lock, so the interrupt never reaches the thread once it left this write
+                sendingThread.interrupt();
+                // Before the write's thread can see it abandoned and leave the pool
+                resizeSender(1);
+            }
+            logger.debug("Dropping submission stream {}, a write has been blocked for over {} ms", key, sendTimeoutMs);
+            unregister(this);
+        }
+
+        void closed() {
+            synchronized (this) {
+                closed = true;
+                pending.clear();
+            }
+            unregister(this);
+        }
+    }
+}
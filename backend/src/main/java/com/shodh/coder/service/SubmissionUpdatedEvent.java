@@ -0,0 +1,52 @@
+package com.shodh.coder.service;
+
+import com.shodh.coder.entity.SubmissionStatus;
+
+/**
+ * Published when a submission's status changed: it was queued, started running or got its
+ * verdict. Carries the new status and test counts as written; listeners that read the
+ * rest of the submission must wait for the publishing transaction to commit.
+ */
+public class SubmissionUpdatedEvent {
+
+    private final Long submissionId;
+    private final Long userId;
+    private final Long contestId;
+    private final SubmissionStatus status;
+    private final int testCasesPassed;
+    private final int totalTestCases;
+
+    public SubmissionUpdatedEvent(Long submissionId, Long userId, Long contestId, SubmissionStatus status,
+            int testCasesPassed, int totalTestCases) {
+        this.submissionId = submissionId;
+        this.userId = userId;
+        this.contestId = contestId;
+        this.status = status;
+        this.testCasesPassed = testCasesPassed;
+        this.totalTestCases = totalTestCases;
+    }
+
+    public Long getSubmissionId() {
+        return submissionId;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public Long getContestId() {
+        return contestId;
+    }
+
+    public SubmissionStatus getStatus() {
+        return status;
+    }
+
+    public int getTestCasesPassed() {
+        return testCasesPassed;
+    }
+
+    public int getTotalTestCases() {
+        return totalTestCases;
+    }
+}
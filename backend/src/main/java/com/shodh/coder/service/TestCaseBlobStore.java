@@ -0,0 +1,220 @@
+package com.shodh.coder.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.shodh.coder.repository.TestCaseRepository;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Content-addressed store for test case inputs and expected outputs. A blob lives at
+ * {@code app.judge.blob-store.dir}/&lt;first two hex digits&gt;/&lt;sha-256&gt; and never
+ * changes once written, so the same data is stored once however many test cases use it.
+ *
+ * Test cases only keep the hash and size of their data (see {@link com.shodh.coder.entity.TestCase});
+ * the judge links blobs into staged test sets and reads them through memory-mapped files,
+ * so test data never has to fit on the heap.
+ *
+ * Blobs no test case refers to any more are removed by a periodic sweep once they are older
+ * than {@code app.judge.blob-store.retention-minutes}. Storing data that is already present
+ * renews its blob, so a test case being written meanwhile never loses its data.
+ */
+@Service
+public class TestCaseBlobStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(TestCaseBlobStore.class);
+
+    private static final String TEMP_PREFIX = "upload-";
+
+    @Value("${app.judge.blob-store.dir:${java.io.tmpdir}/shodh-blobs}")
+    private String blobDir;
+
+    @Value("${app.judge.blob-store.retention-minutes:60}")
+    private long retentionMinutes;
+
+    @Autowired
+    private TestCaseRepository testCaseRepository;
+
+    @PostConstruct
+    public void init() throws IOException {
+        Files.createDirectories(getRoot());
+    }
+
+    public Path getRoot() {
+        return Paths.get(blobDir);
+    }
+
+    /**
+     * Location of the blob with the given hash; it may not exist.
+     */
+    public Path path(String hash) {
+        return getRoot().resolve(hash.substring(0, 2)).resolve(hash);
+    }
+
+    public Blob put(String content) throws IOException {
+        byte[] bytes = content.getBytes(StandardCharsets.UTF_8);
+        String hash = ContentHash.sha256(bytes);
+        Path blob = path(hash);
+        if (Files.exists(blob)) {
+            touch(blob);
+        } else {
+            Path temp = tempFile();
+            Files.write(temp, bytes);
+            commit(temp, blob);
+        }
+        return new Blob(hash, bytes.length);
+    }
+
+    /**
+     * Removes blobs that no test case refers to and interrupted writes, once they are past
+     * the retention period.
+     */
+    @Scheduled(fixedDelayString = "${app.judge.blob-store.sweep-interval-ms:3600000}")
+    public void sweep() {
+        long cutoff = System.currentTimeMillis() - TimeUnit.MINUTES.toMillis(retentionMinutes);
+        Set<String> referenced = new HashSet<>();
+        for (Object[] hashes : testCaseRepository.findAllBlobHashes()) {
+            referenced.add((String) hashes[0]);
+            referenced.add((String) hashes[1]);
+        }
+        int removed = 0;
+        try (Stream<Path> paths = Files.walk(getRoot(), 2)) {
+            for (Path file : paths.filter(Files::isRegularFile).toList()) {
+                String name = file.getFileName().toString();
+                boolean unused = name.startsWith(TEMP_PREFIX) || !referenced.contains(name);
+                if (unused && Files.getLastModifiedTime(file).toMillis() < cutoff && Files.deleteIfExists(file)) {
+                    removed++;
+                }
+            }
+        } catch (IOException e) {
+            logger.warn("Could not sweep test data blobs: {}", e.getMessage());
+        }
+        if (removed > 0) {
+            logger.info("Removed {} unreferenced test data blobs", removed);
+        }
+    }
+
+    /**
+     * Reads a file through a read-only memory mapping: the data is paged in from the page
+     * cache as it is consumed and never copied onto the heap as a whole.
+     */
+    public static InputStream openMapped(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size == 0) {
+                return InputStream.nullInputStream();
+            }
+            if (size > Integer.MAX_VALUE) {
+                // A single mapping is limited to 2 GB
+                return Files.newInputStream(file);
+            }
+            // The mapping stays valid after the channel is closed
+            return new MappedInputStream(channel.map(FileChannel.MapMode.READ_ONLY, 0, size));
+        }
+    }
+
+    private Path tempFile() throws IOException {
+        return Files.createTempFile(getRoot(), TEMP_PREFIX, ".tmp");
+    }
+
+    private void touch(Path blob) {
+        try {
+            Files.setLastModifiedTime(blob, FileTime.fromMillis(System.currentTimeMillis()));
+        } catch (IOException e) {
+            // Only matters to a sweep running right now
+        }
+    }
+
+    private void commit(Path temp, Path blob) throws IOException {
+        try {
+            Files.createDirectories(blob.getParent());
+            try {
+                Files.setPosixFilePermissions(temp, PosixFilePermissions.fromString("r--r--r--"));
+            } catch (UnsupportedOperationException e) {
+                // Not a POSIX file system
+            }
+            Files.move(temp, blob, StandardCopyOption.ATOMIC_MOVE);
+            logger.info("Stored test data blob {} ({} bytes)", blob.getFileName(), Files.size(blob));
+        } catch (FileAlreadyExistsException e) {
+            // Stored concurrently with the same content
+            Files.deleteIfExists(temp);
+        } catch (IOException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+    }
+
+    public static class Blob {
+        private final String hash;
+        private final long size;
+
+        public Blob(String hash, long size) {
+            this.hash = hash;
+            this.size = size;
+        }
+
+        public String getHash() { return hash; }
+        public long getSize() { return size; }
+    }
+
+    private static class MappedInputStream extends InputStream {
+        private final ByteBuffer buffer;
+
+        MappedInputStream(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? buffer.get() & 0xff : -1;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            if (len == 0) {
+                return 0;
+            }
+            if (!buffer.hasRemaining()) {
+                return -1;
+            }
+            int n = Math.min(len, buffer.remaining());
+            buffer.get(b, off, n);
+            return n;
+        }
+
+        @Override
+        public long skip(long n) {
+            int skipped = (int) Math.max(0, Math.min(n, buffer.remaining()));
+            buffer.position(buffer.position() + skipped);
+            return skipped;
+        }
+
+        @Override
+        public int available() {
+            return buffer.remaining();
+        }
+    }
+}
@@ -0,0 +1,276 @@
+package com.shodh.coder.service;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileSystemException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.security.MessageDigest;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.shodh.coder.entity.TestCase;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Writes the test data of a problem to disk once and lets every submission read it from
+ * there. The inputs of a test set live in {@code app.judge.test-data.dir}/&lt;fingerprint&gt;
+ * as {@code <n>.in}, the expected outputs in {@code app.judge.test-data.answer-dir}/&lt;fingerprint&gt;
+ * as {@code <n>.ans}; both are read-only once staged. Answers are only ever read by the
+ * checker on the host: the answer tree is private to the judge's user and never mounted.
+ * A sandbox gets the inputs of the set it is judging, and nothing else, at
+ * {@link #CONTAINER_TEST_DATA_ROOT} (see {@link SandboxRunner#attachTestData}).
+ *
+ * The files are hard links to the {@link TestCaseBlobStore} blobs, or copies when the two
+ * directories are on different file systems, so staging never loads test data into memory.
+ * The fingerprint covers the ids and blob hashes of the test cases, so a changed test set is
+ * staged under a new path; sets no problem refers to any more are removed after
+ * {@code app.judge.test-data.retention-minutes}.
+ */
+@Service
+public class TestDataStager {
+
+    private static final Logger logger = LoggerFactory.getLogger(TestDataStager.class);
+
+    public static final String CONTAINER_TEST_DATA_ROOT = "/testdata";
+
+    private static final Set<PosixFilePermission> READ_ONLY_FILE = PosixFilePermissions.fromString("r--r--r--");
+    private static final Set<PosixFilePermission> READ_ONLY_DIR = PosixFilePermissions.fromString("r-xr-xr-x");
+    private static final Set<PosixFilePermission> WRITABLE_DIR = PosixFilePermissions.fromString("rwxr-xr-x");
+    private static final Set<PosixFilePermission> PRIVATE_DIR = PosixFilePermissions.fromString("rwx------");
+
+    @Value("${app.judge.test-data.dir:${java.io.tmpdir}/shodh-testdata}")
+    private String testDataDir;
+
+    @Value("${app.judge.test-data.answer-dir:${java.io.tmpdir}/shodh-answers}")
+    private String answerDir;
+
+    @Value("${app.judge.test-data.retention-minutes:10}")
+    private long retentionMinutes;
+
+    @Autowired
+    private TestCaseBlobStore blobStore;
+
+    // Last test set fingerprint seen per problem, kept from sweeps
+    private final Map<Long, String> fingerprints = new ConcurrentHashMap<>();
+    private final Map<String, Object> stagingLocks = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void init() throws IOException {
+        Files.createDirectories(getRoot());
+        // Local runs as another user must not reach the answers
+        setPermissions(Files.createDirectories(getAnswerRoot()), PRIVATE_DIR);
+    }
+
+    public Path getRoot() {
+        return Paths.get(testDataDir);
+    }
+
+    private Path getAnswerRoot() {
+        return Paths.get(answerDir);
+    }
+
+    /**
+     * Fingerprint of a problem's test set. Computed from the blob hashes on every call, so a
+     * node sees test changes made through another node without being told.
+     */
+    public String fingerprint(Long problemId, List<TestCase> testCases) {
+        MessageDigest digest = ContentHash.newDigest();
+        for (TestCase testCase : testCases) {
+            digest.update(String.valueOf(testCase.getId()).getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            digest.update(testCase.getInputHash().getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            digest.update(testCase.getExpectedOutputHash().getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+        }
+        String fingerprint = ContentHash.toHex(digest.digest());
+        fingerprints.put(problemId, fingerprint);
+        return fingerprint;
+    }
+
+    /**
+     * Called when a test case of the problem changed; its staged set may be swept.
+     */
+    public void invalidate(Long problemId) {
+        fingerprints.remove(problemId);
+    }
+
+    /**
+     * Returns the staged test set of the problem, writing it first if this is the first
+     * submission since the tests changed.
+     */
+    public StagedTestSet stage(Long problemId, List<TestCase> testCases) throws IOException {
+        String fingerprint = fingerprint(problemId, testCases);
+        Path inputs = getRoot().resolve(fingerprint);
+        Path answers = getAnswerRoot().resolve(fingerprint);
+        if (Files.isDirectory(inputs) && Files.isDirectory(answers)) {
+            touch(inputs);
+            touch(answers);
+            return new StagedTestSet(inputs, answers, testCases.size());
+        }
+        synchronized (stagingLocks.computeIfAbsent(fingerprint, key -> new Object())) {
+            try {
+                if (!Files.isDirectory(answers)) {
+                    write(answers, testCases.stream().map(TestCase::getExpectedOutputHash).toList(), ".ans");
+                }
+                if (!Files.isDirectory(inputs)) {
+                    write(inputs, testCases.stream().map(TestCase::getInputHash).toList(), ".in");
+                    logger.info("Staged {} test cases of problem {} at {}", testCases.size(), problemId, inputs);
+                }
+            } finally {
+                stagingLocks.remove(fingerprint);
+            }
+        }
+        return new StagedTestSet(inputs, answers, testCases.size());
+    }
+
+    private void write(Path directory, List<String> hashes, String suffix) throws IOException {
+        Path staging = directory.resolveSibling(directory.getFileName() + ".tmp-" + Thread.currentThread().getId());
+        try {
+            Files.createDirectories(staging);
+            for (int i = 0; i < hashes.size(); i++) {
+                link(staging.resolve((i + 1) + suffix), blobStore.path(hashes.get(i)));
+            }
+            setPermissions(staging, READ_ONLY_DIR);
+            Files.move(staging, directory, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            deleteRecursively(staging);
+            throw e;
+        }
+    }
+
+    /**
+     * Makes the inputs of a staged set the only contents of {@code target}, a directory a
+     * sandbox mounts read-only. Whatever an earlier lease left there is removed first.
+     */
+    public static void linkInputs(StagedTestSet tests, Path target) throws IOException {
+        clear(target);
+        for (int i = 1; i <= tests.size(); i++) {
+            link(target.resolve(i + ".in"), tests.input(i));
+        }
+    }
+
+    /**
+     * Removes the files linked into {@code directory}, keeping the directory.
+     */
+    public static void clear(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+            for (Path file : files) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    private static void link(Path target, Path source) throws IOException {
+        try {
+            Files.createLink(target, source);
+        } catch (FileSystemException | UnsupportedOperationException e) {
+            // Different file system, e.g. test data on a tmpfs
+            Files.copy(source, target);
+            setPermissions(target, READ_ONLY_FILE);
+        }
+    }
+
+    /**
+     * Removes staged sets that no problem currently uses and that were not read recently,
+     * as well as leftovers of interrupted staging.
+     */
+    @Scheduled(fixedDelayString = "${app.judge.test-data.sweep-interval-ms:300000}")
+    public void sweep() {
+        Set<String> current = Set.copyOf(fingerprints.values());
+        long cutoff = System.currentTimeMillis() - TimeUnit.MINUTES.toMillis(retentionMinutes);
+        sweep(getRoot(), current, cutoff);
+        sweep(getAnswerRoot(), current, cutoff);
+    }
+
+    private void sweep(Path root, Set<String> current, long cutoff) {
+        try (DirectoryStream<Path> sets = Files.newDirectoryStream(root, Files::isDirectory)) {
+            for (Path set : sets) {
+                String name = set.getFileName().toString();
+                if (current.contains(name) || Files.getLastModifiedTime(set).toMillis() > cutoff) {
+                    continue;
+                }
+                logger.info("Removing unused staged test set {}", set);
+                deleteRecursively(set);
+            }
+        } catch (IOException e) {
+            logger.warn("Could not sweep staged test data: {}", e.getMessage());
+        }
+    }
+
+    private void touch(Path directory) {
+        try {
+            Files.setLastModifiedTime(directory, FileTime.fromMillis(System.currentTimeMillis()));
+        } catch (IOException e) {
+            // Only delays the sweep
+        }
+    }
+
+    private static void setPermissions(Path path, Set<PosixFilePermission> permissions) throws IOException {
+        try {
+            Files.setPosixFilePermissions(path, permissions);
+        } catch (UnsupportedOperationException e) {
+            // Not a POSIX file system; sandboxes still mount the directory read-only
+        }
+    }
+
+    private static void deleteRecursively(Path directory) {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            List<Path> children = paths.sorted(Comparator.reverseOrder()).toList();
+            // Read-only directories have to become writable before their entries can go
+            for (Path path : children) {
+                if (Files.isDirectory(path)) {
+                    setPermissions(path, WRITABLE_DIR);
+                }
+            }
+            for (Path path : children) {
+                Files.deleteIfExists(path);
+            }
+        } catch (IOException e) {
+            logger.warn("Could not delete {}: {}", directory, e.getMessage());
+        }
+    }
+
+    /**
+     * A staged test set; test cases are numbered from 1 in judge order.
+     */
+    public static class StagedTestSet {
+        private final Path directory;
+        private final Path answerDirectory;
+        private final int size;
+
+        StagedTestSet(Path directory, Path answerDirectory, int size) {
+            this.directory = directory;
+            this.answerDirectory = answerDirectory;
+            this.size = size;
+        }
+
+        // Holds the inputs only
+        public Path getDirectory() { return directory; }
+        public int size() { return size; }
+        public Path input(int index) { return directory.resolve(index + ".in"); }
+        // On the host, for the checker; never inside a sandbox
+        public Path expectedOutput(int index) { return answerDirectory.resolve(index + ".ans"); }
+    }
+}
@@ -0,0 +1,110 @@
+package com.shodh.coder.service;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.shodh.coder.entity.Problem;
+import com.shodh.coder.entity.Submission;
+import com.shodh.coder.entity.SubmissionStatus;
+import com.shodh.coder.entity.TestCase;
+
+/**
+ * Remembers judge results of byte-identical submissions. A key is built from the content
+ * of everything that decides the verdict: the code hash, the language, the problem's
+ * limits and checker settings and the fingerprint of its test set (the one the
+ * {@link TestDataStager} stages the tests under). An edited problem or test set therefore
+ * yields new keys, and a verdict judged against the old one can never be served for it,
+ * whenever the edit commits.
+ *
+ * A problem's verdicts are also dropped once a change to one of its {@link TestCase} rows
+ * commits, which only frees the entries nothing can match anymore.
+ */
+@Service
+public class VerdictCacheService {
+
+    private static final Logger logger = LoggerFactory.getLogger(VerdictCacheService.class);
+
+    // Only verdicts identical code always gets again. Time and memory limits, runtime errors (a
+    // crash can come from the machine, e.g. a killed process) and system errors are re-judged
+    private static final Set<SubmissionStatus> CACHEABLE_STATUSES = EnumSet.of(
+            SubmissionStatus.ACCEPTED,
+            SubmissionStatus.WRONG_ANSWER,
+            SubmissionStatus.OUTPUT_LIMIT_EXCEEDED,
+            SubmissionStatus.COMPILATION_ERROR);
+
+    @Value("${app.judge.verdict-cache.enabled:true}")
+    private boolean enabled;
+
+    @Autowired
+    private TestDataStager testDataStager;
+
+    private final Map<String, CodeJudgeService.ExecutionResult> verdicts;
+
+    public VerdictCacheService(@Value("${app.judge.verdict-cache.max-entries:10000}") int maxEntries) {
+        this.verdicts = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CodeJudgeService.ExecutionResult> eldest) {
+                return size() > maxEntries;
+            }
+        });
+    }
+
+    public String key(Submission submission, List<TestCase> testCases) {
+        Problem problem = submission.getProblem();
+        return problem.getId() + ":" + testDataStager.fingerprint(problem.getId(), testCases)
+                + ":" + problem.getTimeLimit() + ":" + problem.getMemoryLimit() + ":" + problem.getOutputLimit()
+                + ":" + problem.getCheckerMode() + ":" + problem.getFloatTolerance()
+                + ":" + submission.getLanguage().toLowerCase()
+                + ":" + ContentHash.sha256(submission.getCode());
+    }
+
+    public Optional<CodeJudgeService.ExecutionResult> get(String key) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(verdicts.get(key)).map(VerdictCacheService::copyOf);
+    }
+
+    public void put(String key, CodeJudgeService.ExecutionResult result) {
+        if (!enabled || !CACHEABLE_STATUSES.contains(result.getStatus())) {
+            return;
+        }
+        verdicts.put(key, copyOf(result));
+    }
+
+    /**
+     * Drops every cached verdict of the problem.
+     */
+    public void invalidateProblem(Long problemId) {
+        String prefix = problemId + ":";
+        synchronized (verdicts) {
+            verdicts.keySet().removeIf(key -> key.startsWith(prefix));
+        }
+        logger.info("Invalidated cached verdicts for problem ID: {}", problemId);
+    }
+
+    private static CodeJudgeService.ExecutionResult copyOf(CodeJudgeService.ExecutionResult source) {
+        CodeJudgeService.ExecutionResult copy = new CodeJudgeService.ExecutionResult();
+        copy.setStatus(source.getStatus());
+        copy.setErrorMessage(source.getErrorMessage());
+        copy.setTestCasesPassed(source.getTestCasesPassed());
+        copy.setTotalTestCases(source.getTotalTestCases());
+        copy.setExecutionTime(source.getExecutionTime());
+        copy.setCpuTime(source.getCpuTime());
+        copy.setMemoryUsed(source.getMemoryUsed());
+        copy.setConsoleOutput(source.getConsoleOutput());
+        copy.setCompilationError(source.getCompilationError());
+        return copy;
+    }
+}
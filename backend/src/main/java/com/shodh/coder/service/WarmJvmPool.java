@@ -0,0 +1,67 @@
+package com.shodh.coder.service;
+
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+/**
+ * Pool of long-lived JVM workers for Java submissions. Each worker is a runner container
+ * whose main process is {@code JudgeJvmWorker} (baked into the code-runner image); it loads
+ * the compiled Solution in a fresh class loader per test, so only the first run pays JVM
+ * startup.
+ *
+ * Workers are replaced after a crash, a time limit kill, an OutOfMemoryError, a run that
+ * leaves threads or changed JVM-wide state behind, or {@code app.judge.warm-jvm.max-runs}
+ * runs.
+ */
+@Service
+public class WarmJvmPool extends WarmWorkerPool {
+
+    @Value("${app.judge.warm-jvm.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.judge.warm-jvm.size:2}")
+    private int poolSize;
+
+    @Value("${app.judge.warm-jvm.max-runs:200}")
+    private int maxRuns;
+
+    @Value("${app.judge.warm-jvm.lease-timeout:2}")
+    private int leaseTimeoutSeconds;
+
+    @Override
+    protected String getKind() {
+        return "warm JVM";
+    }
+
+    @Override
+    protected String getContainerNamePrefix() {
+        return "shodh-jvm";
+    }
+
+    @Override
+    protected boolean isConfiguredEnabled() {
+        return enabled;
+    }
+
+    @Override
+    protected int getPoolSize() {
+        return poolSize;
+    }
+
+    @Override
+    protected int getMaxRuns() {
+        return maxRuns;
+    }
+
+    @Override
+    protected int getLeaseTimeoutSeconds() {
+        return leaseTimeoutSeconds;
+    }
+
+    @Override
+    protected List<String> getWorkerCommand() {
+        return List.of("java", "-Djava.security.manager=allow", "-cp", "/opt/judge", "JudgeJvmWorker");
+    }
+}
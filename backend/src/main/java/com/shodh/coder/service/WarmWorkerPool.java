@@ -0,0 +1,398 @@
+package com.shodh.coder.service;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+
+import com.shodh.coder.config.NodeRole;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Pool of long-lived workers that run test cases without paying runtime startup per test.
+ * Each worker is a runner container whose main process is a judge worker baked into the
+ * code-runner image, all speaking the same line protocol (see {@code JudgeJvmWorker}):
+ * a session token handshake, then one {@code RUN} command and one {@code DONE} reply per
+ * test.
+ *
+ * Workers run as the unprivileged {@code judge} user of the image on a read-only root file
+ * system, with a small tmpfs at /tmp. Every worker mounts a private directory of its own at
+ * {@link SandboxContainerPool#CONTAINER_WORK_ROOT}; a lease stages a copy of the submission's
+ * workspace into it and the copy is wiped when the worker is released, so no run sees the
+ * files of another submission. The inputs of the test set being judged, and nothing else,
+ * are linked into a second directory mounted read-only at
+ * {@link TestDataStager#CONTAINER_TEST_DATA_ROOT}.
+ *
+ * Workers are replaced after a crash, after a run whose {@code DONE} reply says the worker
+ * exits, and after {@link #getMaxRuns()} runs.
+ */
+public abstract class WarmWorkerPool {
+
+    private static final String WORKER_DIRS = "workers";
+    private static final String WORKER_USER = "judge";
+    // The worker user writes program output where the backend staged the workspace
+    private static final Set<PosixFilePermission> SHARED_DIR = PosixFilePermissions.fromString("rwxrwxrwx");
+
+    private final Logger logger = LoggerFactory.getLogger(getClass());
+
+    @Value("${app.judge.sandbox:docker}")
+    private String sandbox;
+
+    @Value("${app.docker.memory-limit:128m}")
+    private String memoryLimit;
+
+    @Value("${app.docker.image-name:shodh-code-runner}")
+    private String dockerImageName;
+
+    @Autowired
+    private SandboxContainerPool containerPool;
+
+    @Autowired
+    private NodeRole nodeRole;
+
+    private volatile boolean enabled;
+
+    private final BlockingQueue<Worker> idle = new LinkedBlockingQueue<>();
+    private final ExecutorService maintenanceExecutor = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, getClass().getSimpleName() + "Maintenance");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * Name of the workers in log messages, e.g. "warm JVM".
+     */
+    protected abstract String getKind();
+
+    protected abstract String getContainerNamePrefix();
+
+    protected abstract boolean isConfiguredEnabled();
+
+    protected abstract int getPoolSize();
+
+    protected abstract int getMaxRuns();
+
+    protected abstract int getLeaseTimeoutSeconds();
+
+    /**
+     * Command started in the runner image as the worker's main process.
+     */
+    protected abstract List<String> getWorkerCommand();
+
+    @PostConstruct
+    public void warmUp() {
+        // Workers are runner containers, so they come with the docker sandbox only, on judging nodes
+        enabled = isConfiguredEnabled() && "docker".equalsIgnoreCase(sandbox) && nodeRole.judges();
+        if (!enabled) {
+            return;
+        }
+        maintenanceExecutor.submit(() -> {
+            for (int i = 0; i < getPoolSize(); i++) {
+                Worker worker = start();
+                if (worker == null) {
+                    logger.warn("Could not start {} workers, runs fall back to the regular runner", getKind());
+                    return;
+                }
+                idle.offer(worker);
+            }
+            logger.info("Started {} {} workers", getPoolSize(), getKind());
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        maintenanceExecutor.shutdownNow();
+        List<Worker> workers = new ArrayList<>();
+        idle.drainTo(workers);
+        workers.forEach(Worker::destroy);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Leases an idle worker, or returns {@code null} so the caller uses the regular runner.
+     */
+    public Worker lease() {
+        if (!enabled) {
+            return null;
+        }
+        try {
+            return idle.poll(getLeaseTimeoutSeconds(), TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+    }
+
+    public void release(Worker worker) {
+        if (worker == null) {
+            return;
+        }
+        if (worker.healthy && !worker.clear()) {
+            worker.healthy = false;
+        }
+        if (!worker.healthy || worker.runs >= getMaxRuns()) {
+            logger.info("Recycling {} worker {} after {} runs", getKind(), worker.name, worker.runs);
+            worker.destroy();
+            maintenanceExecutor.submit(() -> {
+                Worker fresh = start();
+                if (fresh != null) {
+                    idle.offer(fresh);
+                }
+            });
+            return;
+        }
+        idle.offer(worker);
+    }
+
+    private Worker start() {
+        String name = getContainerNamePrefix() + "-" + UUID.randomUUID().toString().substring(0, 8);
+        // Private to this worker; no other sandbox mounts it
+        Path hostDir = containerPool.getWorkRoot().resolve(WORKER_DIRS).resolve(name);
+        Path testDataDir = containerPool.getWorkRoot().resolve(SandboxContainerPool.TEST_DATA_DIRS).resolve(name);
+        try {
+            Files.createDirectories(hostDir);
+            makeShared(hostDir);
+            Files.createDirectories(testDataDir);
+            List<String> command = new ArrayList<>(List.of("docker", "run", "-i", "--rm",
+                    "--name", name,
+                    "--user", WORKER_USER,
+                    "--read-only",
+                    "--tmpfs", "/tmp:rw,nosuid,size=64m",
+                    "--memory=" + memoryLimit,
+                    "--cpus=0.5",
+                    // Per container; an nproc ulimit would count every worker of the judge user on the host
+                    "--pids-limit", "128",
+                    "-v", hostDir.toString() + ":" + SandboxContainerPool.CONTAINER_WORK_ROOT,
+                    "-v", testDataDir.toString() + ":" + TestDataStager.CONTAINER_TEST_DATA_ROOT + ":ro",
+                    "-w", SandboxContainerPool.CONTAINER_WORK_ROOT,
+                    dockerImageName));
+            command.addAll(getWorkerCommand());
+            Process process = new ProcessBuilder(command)
+                    .redirectError(ProcessBuilder.Redirect.DISCARD)
+                    .start();
+            Worker worker = new Worker(name, process, hostDir, testDataDir);
+            if (!worker.handshake()) {
+                worker.destroy();
+                return null;
+            }
+            return worker;
+        } catch (IOException e) {
+            logger.warn("Failed to start {} worker: {}", getKind(), e.getMessage());
+            SandboxContainerPool.deleteRecursively(hostDir);
+            SandboxContainerPool.deleteRecursively(testDataDir);
+            return null;
+        }
+    }
+
+    private static void makeShared(Path directory) throws IOException {
+        try {
+            Files.setPosixFilePermissions(directory, SHARED_DIR);
+        } catch (UnsupportedOperationException e) {
+            // Not a POSIX file system
+        }
+    }
+
+    public static class Worker {
+        private final String name;
+        private final Process process;
+        private final Path hostDir;
+        private final Path testDataDir;
+        private final BufferedWriter commands;
+        private final BufferedReader replies;
+        // Only replies carrying this token come from the worker, not from submission code
+        private final String token = UUID.randomUUID().toString();
+        private int runs;
+        private boolean healthy = true;
+
+        Worker(String name, Process process, Path hostDir, Path testDataDir) {
+            this.name = name;
+            this.process = process;
+            this.hostDir = hostDir;
+            this.testDataDir = testDataDir;
+            this.commands = new BufferedWriter(new OutputStreamWriter(process.getOutputStream(), StandardCharsets.UTF_8));
+            this.replies = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8));
+        }
+
+        boolean handshake() {
+            try {
+                commands.write(token);
+                commands.newLine();
+                commands.flush();
+                String reply = readReply(60);
+                return reply != null && reply.equals("READY");
+            } catch (IOException e) {
+                return false;
+            }
+        }
+
+        /**
+         * Copies a submission's workspace into the worker's private directory for this lease,
+         * with an {@code out} directory the worker can write program output to.
+         *
+         * @return the copy, on the host side
+         */
+        public Path stage(Path workspace) throws IOException {
+            Path staged = hostDir.resolve(workspace.getFileName().toString());
+            SandboxContainerPool.copyTree(workspace, staged);
+            makeShared(Files.createDirectories(staged.resolve("out")));
+            return staged;
+        }
+
+        /**
+         * Links the inputs of a staged test set into the worker's read-only test data
+         * directory and returns where the worker sees them.
+         */
+        public String stageTestData(TestDataStager.StagedTestSet tests) throws IOException {
+            TestDataStager.linkInputs(tests, testDataDir);
+            return TestDataStager.CONTAINER_TEST_DATA_ROOT;
+        }
+
+        /**
+         * Path under which a staged file or directory is visible inside the worker.
+         */
+        public String containerPath(Path hostPath) {
+            return SandboxContainerPool.containerPath(hostDir, hostPath);
+        }
+
+        // Wipes what the lease left in the private directory; false if the wipe failed
+        boolean clear() {
+            try {
+                TestDataStager.clear(testDataDir);
+                // As root: the staged files belong to the backend, not to the worker user
+                Process wipe = new ProcessBuilder("docker", "exec", "--user", "root", name, "sh", "-c",
+                        "rm -rf " + SandboxContainerPool.CONTAINER_WORK_ROOT + "/* "
+                                + SandboxContainerPool.CONTAINER_WORK_ROOT + "/.[!.]* /tmp/* 2>/dev/null; true")
+                        .redirectErrorStream(true)
+                        .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                        .start();
+                return wipe.waitFor(10, TimeUnit.SECONDS) && wipe.exitValue() == 0;
+            } catch (IOException e) {
+                return false;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+
+        /**
+         * Runs the compiled or source solution in {@code workDir} (paths as seen inside the
+         * container). Returns {@code null} when the worker died or stopped answering.
+         */
+        public RunResult run(String workDir, String input, String output, String error, long timeLimitMillis,
+                long outputLimitBytes) {
+            runs++;
+            try {
+                commands.write("RUN " + workDir + " " + input + " " + output + " " + error + " " + timeLimitMillis
+                        + " " + outputLimitBytes);
+                commands.newLine();
+                commands.flush();
+                // The worker enforces the limit itself; this only guards against a hung worker
+                String reply = readReply(2 * timeLimitMillis / 1000 + 10);
+                if (reply == null || !reply.startsWith("DONE ")) {
+                    healthy = false;
+                    return null;
+                }
+                String[] parts = reply.split(" ");
+                RunResult result = new RunResult(Integer.parseInt(parts[1]), Long.parseLong(parts[2]),
+                        Long.parseLong(parts[3]), parts.length > 4 ? parts[4] : "",
+                        parts.length > 5 ? Long.parseLong(parts[5]) : 0);
+                if (parts.length > 6 && "1".equals(parts[6])) {
+                    // The worker exits after this reply
+                    healthy = false;
+                }
+                return result;
+            } catch (IOException | RuntimeException e) {
+                healthy = false;
+                return null;
+            }
+        }
+
+        /**
+         * False once the worker died or retired itself; it takes no further runs.
+         */
+        public boolean isHealthy() {
+            return healthy;
+        }
+
+        private String readReply(long timeoutSeconds) throws IOException {
+            CompletableFuture<Void> watchdog = CompletableFuture.runAsync(this::destroy,
+                    CompletableFuture.delayedExecutor(timeoutSeconds, TimeUnit.SECONDS));
+            try {
+                String line;
+                while ((line = replies.readLine()) != null) {
+                    if (line.startsWith(token + " ")) {
+                        return line.substring(token.length() + 1);
+                    }
+                }
+                return null;
+            } finally {
+                watchdog.cancel(false);
+            }
+        }
+
+        void destroy() {
+            healthy = false;
+            process.destroyForcibly();
+            try {
+                new ProcessBuilder("docker", "rm", "-f", name)
+                        .redirectErrorStream(true)
+                        .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                        .start()
+                        .waitFor(10, TimeUnit.SECONDS);
+            } catch (Exception e) {
+                // Container is started with --rm, it goes away with its main process
+            }
+            SandboxContainerPool.deleteRecursively(hostDir);
+            SandboxContainerPool.deleteRecursively(testDataDir);
+        }
+    }
+
+    public static class RunResult {
+        private final int exitCode;
+        private final long wallTime;
+        private final long cpuTime;
+        private final String reason;
+        private final long peakMemoryBytes;
+
+        public RunResult(int exitCode, long wallTime, long cpuTime, String reason, long peakMemoryBytes) {
+            this.exitCode = exitCode;
+            this.wallTime = wallTime;
+            this.cpuTime = cpuTime;
+            this.reason = reason;
+            this.peakMemoryBytes = peakMemoryBytes;
+        }
+
+        public int getExitCode() { return exitCode; }
+        public long getWallTime() { return wallTime; }
+        public long getCpuTime() { return cpuTime; }
+        public String getReason() { return reason; }
+        // Heap for the JVM worker, resident set size for the Python zygote
+        public long getPeakMemoryBytes() { return peakMemoryBytes; }
+    }
+}
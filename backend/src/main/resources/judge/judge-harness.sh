@@ -0,0 +1,69 @@
+#!/bin/bash
+# Runs a compiled submission against every <tests dir>/<n>.in inside one sandbox.
+#
+# Usage: judge-harness.sh <time limit seconds> <test count> <output limit bytes> <tests dir> -- <run command...>
+#
+# The tests dir holds the read-only inputs of the problem's staged test set, nothing else.
+#
+# Program output goes to out/<n>.out and out/<n>.err. Each file may grow one block
+# past the output limit, so the backend can tell an over-long output from one that
+# exactly fits; a program that writes further is killed by SIGXFSZ (exit code 153).
+# When GNU time is installed, out/<n>.usage holds "<wall s> <user s> <sys s> <max rss KB>"
+# of the test.
+# For every test one line is reported on stdout:
+#   @@RESULT <n> <exit code> <wall ms> <cpu ms>
+# The harness stops after the first test that exits non-zero (runtime error or
+# time limit), mirroring the early exit of the sequential judge.
+
+LIMIT="$1"
+COUNT="$2"
+OUTPUT_LIMIT="$3"
+TESTS="$4"
+shift 5
+
+# Harness diagnostics share stdout with the result lines; the backend logs them
+exec 2>&1
+mkdir -p out
+
+MEASURE=()
+if [ -x /usr/bin/time ]; then
+    MEASURE=(/usr/bin/time -q -f "%e %U %S %M")
+fi
+
+# Converts a bash `times` value such as 1m2.345s to milliseconds
+to_ms() {
+    local value="$1" minutes seconds
+    minutes="${value%%m*}"
+    seconds="${value#*m}"
+    seconds="${seconds%s}"
+    echo $(( 10#$minutes * 60000 + 10#${seconds%.*} * 1000 + 10#${seconds#*.} ))
+}
+
+# Sets CPU to the user+system time consumed by finished children so far.
+# `times` must run in this shell, not in a subshell, to see them.
+read_cpu() {
+    times > out/.times
+    { read -r _ _; read -r user sys; } < out/.times
+    CPU=$(( $(to_ms "$user") + $(to_ms "$sys") ))
+}
+
+for (( i = 1; i <= COUNT; i++ )); do
+    read_cpu
+    cpu_start=$CPU
+    start=${EPOCHREALTIME/./}
+
+    # ulimit counts 1024-byte blocks and is set in a subshell so the harness keeps writing freely
+    ( ulimit -f $(( OUTPUT_LIMIT / 1024 + 1 )); exec "${MEASURE[@]}" ${MEASURE:+-o "out/$i.usage"} timeout -k 1 "${LIMIT}s" "$@" ) \
+        < "$TESTS/$i.in" > "out/$i.out" 2> "out/$i.err"
+    code=$?
+
+    end=${EPOCHREALTIME/./}
+    read_cpu
+    echo "@@RESULT $i $code $(( (end - start) / 1000 )) $(( CPU - cpu_start ))"
+
+    if [ "$code" -ne 0 ]; then
+        break
+    fi
+done
+
+exit 0
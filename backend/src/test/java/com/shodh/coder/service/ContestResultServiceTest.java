@@ -0,0 +1,207 @@
+package com.shodh.coder.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.shodh.coder.entity.Contest;
+import com.shodh.coder.entity.ContestUserProblemResult;
+import com.shodh.coder.entity.Problem;
+import com.shodh.coder.entity.Submission;
+import com.shodh.coder.entity.SubmissionStatus;
+import com.shodh.coder.entity.User;
+import com.shodh.coder.repository.ContestRepository;
+import com.shodh.coder.repository.ContestUserProblemResultRepository;
+import com.shodh.coder.repository.SubmissionRepository;
+
+class ContestResultServiceTest {
+
+    private static final Long CONTEST = 1L;
+    private static final Long USER = 7L;
+    private static final Long PROBLEM = 10L;
+    private static final LocalDateTime START = LocalDateTime.of(2025, 3, 1, 10, 0);
+
+    private final SubmissionRepository submissionRepository = mock(SubmissionRepository.class);
+    private final ContestUserProblemResultRepository resultRepository = mock(ContestUserProblemResultRepository.class);
+    private final ContestRepository contestRepository = mock(ContestRepository.class);
+    private final PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+    private final ContestResultService service = new ContestResultService();
+    private final Contest contest = new Contest();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(service, "submissionRepository", submissionRepository);
+        ReflectionTestUtils.setField(service, "resultRepository", resultRepository);
+        ReflectionTestUtils.setField(service, "contestRepository", contestRepository);
+        ReflectionTestUtils.setField(service, "transactionManager", transactionManager);
+        ReflectionTestUtils.setField(service, "penaltyMinutesPerAttempt", 20L);
+        contest.setId(CONTEST);
+        contest.setStartTime(START);
+        when(contestRepository.findById(CONTEST)).thenReturn(Optional.of(contest));
+        when(submissionRepository.applyVerdict(any(), any(), any(), any(), any(), any(), any(), any(), any(), any(),
+                any())).thenReturn(1);
+    }
+
+    private Submission submission(int minute) {
+        User user = new User();
+        user.setId(USER);
+        Problem problem = new Problem();
+        problem.setId(PROBLEM);
+        problem.setPoints(100);
+        Submission submission = new Submission();
+        submission.setId(100L + minute);
+        submission.setUser(user);
+        submission.setProblem(problem);
+        submission.setContest(contest);
+        submission.setSubmittedAt(START.plusMinutes(minute));
+        return submission;
+    }
+
+    private ContestUserProblemResult stored(Integer solvedAtMinute, int attempts) {
+        ContestUserProblemResult result = new ContestUserProblemResult(CONTEST, USER, PROBLEM);
+        result.setAttempts(attempts);
+        if (solvedAtMinute != null) {
+            result.setFirstAcceptedAt(START.plusMinutes(solvedAtMinute));
+            result.setBestScore(100);
+            result.setPenaltyMinutes(solvedAtMinute + 20L * attempts);
+        }
+        when(resultRepository.findForUpdate(CONTEST, USER, PROBLEM)).thenReturn(Optional.of(result));
+        return result;
+    }
+
+    private void verdict(Submission submission, SubmissionStatus status) {
+        CodeJudgeService.ExecutionResult result = new CodeJudgeService.ExecutionResult();
+        result.setStatus(status);
+        service.applyVerdict(submission, result, status.name(), LocalDateTime.now());
+    }
+
+    private void rejectedBefore(int minute, long count) {
+        when(submissionRepository.countVerdictsBefore(eq(CONTEST), eq(USER), eq(PROBLEM), any(),
+                eq(START.plusMinutes(minute)))).thenReturn(count);
+    }
+
+    @Test
+    void penaltyIsMinutesToTheSolvePlusEarlierRejections() {
+        ContestUserProblemResult result = stored(null, 2);
+        rejectedBefore(45, 2);
+
+        verdict(submission(45), SubmissionStatus.ACCEPTED);
+
+        assertEquals(START.plusMinutes(45), result.getFirstAcceptedAt());
+        assertEquals(100, result.getBestScore());
+        assertEquals(2, result.getAttempts());
+        assertEquals(85L, result.getPenaltyMinutes());
+        verify(resultRepository).save(result);
+    }
+
+    @Test
+    void earlierAcceptedArrivingLateMovesTheSolve() {
+        ContestUserProblemResult result = stored(60, 2);
+        rejectedBefore(30, 1);
+
+        verdict(submission(30), SubmissionStatus.ACCEPTED);
+
+        assertEquals(START.plusMinutes(30), result.getFirstAcceptedAt());
+        assertEquals(1, result.getAttempts());
+        assertEquals(50L, result.getPenaltyMinutes());
+    }
+
+    @Test
+    void laterAcceptedChangesNothing() {
+        ContestUserProblemResult result = stored(30, 1);
+
+        verdict(submission(60), SubmissionStatus.ACCEPTED);
+
+        assertEquals(START.plusMinutes(30), result.getFirstAcceptedAt());
+        assertEquals(50L, result.getPenaltyMinutes());
+        verify(resultRepository, never()).save(any(ContestUserProblemResult.class));
+    }
+
+    @Test
+    void rejectionMadeBeforeTheSolveArrivingLateCounts() {
+        ContestUserProblemResult result = stored(30, 0);
+        rejectedBefore(30, 1);
+
+        verdict(submission(10), SubmissionStatus.WRONG_ANSWER);
+
+        assertEquals(START.plusMinutes(30), result.getFirstAcceptedAt());
+        assertEquals(1, result.getAttempts());
+        assertEquals(50L, result.getPenaltyMinutes());
+    }
+
+    @Test
+    void rejectionAfterTheSolveIsIgnored() {
+        ContestUserProblemResult result = stored(30, 0);
+
+        verdict(submission(40), SubmissionStatus.TIME_LIMIT_EXCEEDED);
+
+        assertEquals(0, result.getAttempts());
+        assertEquals(30L, result.getPenaltyMinutes());
+        verify(resultRepository, never()).save(any(ContestUserProblemResult.class));
+    }
+
+    @Test
+    void rejectionsOfAnUnsolvedProblemAreCounted() {
+        ContestUserProblemResult result = stored(null, 1);
+        when(submissionRepository.countVerdicts(eq(CONTEST), eq(USER), eq(PROBLEM), any())).thenReturn(3L);
+
+        verdict(submission(20), SubmissionStatus.WRONG_ANSWER);
+
+        assertEquals(3, result.getAttempts());
+        assertNull(result.getFirstAcceptedAt());
+        assertEquals(0, result.getBestScore());
+        assertEquals(0L, result.getPenaltyMinutes());
+    }
+
+    @Test
+    void compilationErrorIsNotHeldAgainstTheUser() {
+        verdict(submission(20), SubmissionStatus.COMPILATION_ERROR);
+
+        verify(resultRepository, never()).findForUpdate(any(), any(), any());
+    }
+
+    @Test
+    void missingResultIsInsertedInItsOwnTransaction() {
+        ContestUserProblemResult inserted = new ContestUserProblemResult(CONTEST, USER, PROBLEM);
+        when(resultRepository.findForUpdate(CONTEST, USER, PROBLEM)).thenReturn(Optional.empty(), Optional.of(inserted));
+        when(submissionRepository.countVerdicts(eq(CONTEST), eq(USER), eq(PROBLEM), any())).thenReturn(1L);
+
+        verdict(submission(20), SubmissionStatus.WRONG_ANSWER);
+
+        verify(resultRepository).saveAndFlush(any(ContestUserProblemResult.class));
+        verify(transactionManager).commit(any());
+        assertEquals(1, inserted.getAttempts());
+        verify(resultRepository).save(inserted);
+    }
+
+    @Test
+    void resultInsertedConcurrentlyIsReadAgain() {
+        // Another node inserts the row between the lookup and this node's insert
+        ContestUserProblemResult theirs = new ContestUserProblemResult(CONTEST, USER, PROBLEM);
+        when(resultRepository.findForUpdate(CONTEST, USER, PROBLEM)).thenReturn(Optional.empty(), Optional.of(theirs));
+        when(resultRepository.saveAndFlush(any(ContestUserProblemResult.class)))
+                .thenThrow(new DataIntegrityViolationException("uk_contest_user_problem"));
+        rejectedBefore(45, 0);
+
+        verdict(submission(45), SubmissionStatus.ACCEPTED);
+
+        verify(transactionManager).rollback(any());
+        assertEquals(START.plusMinutes(45), theirs.getFirstAcceptedAt());
+        assertEquals(45L, theirs.getPenaltyMinutes());
+        verify(resultRepository).save(theirs);
+    }
+}
@@ -0,0 +1,87 @@
+package com.shodh.coder.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.shodh.coder.service.FairShareScheduler.QueueHead;
+
+class FairShareSchedulerTest {
+
+    private final FairShareScheduler scheduler = new FairShareScheduler();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(scheduler, "maxInFlightPerUser", 2);
+    }
+
+    private static QueueHead head(long contestId, long userId, long jobId) {
+        return new QueueHead(contestId, userId, jobId);
+    }
+
+    @Test
+    void contestsTakeTurnsBeforeASecondUserOfTheSameContest() {
+        List<QueueHead> heads = List.of(head(1, 10, 1), head(1, 11, 2), head(1, 12, 3), head(2, 20, 4));
+
+        assertEquals(List.of(1L, 4L, 2L, 3L), scheduler.pick(heads, Map.of(), 10));
+    }
+
+    @Test
+    void userServedLastWaitsForTheOthers() {
+        scheduler.pick(List.of(head(1, 10, 1)), Map.of(), 1);
+
+        // User 10's next job is older, but users 11 and 12 have not had a turn yet
+        List<QueueHead> heads = List.of(head(1, 10, 5), head(1, 11, 6), head(1, 12, 7));
+        assertEquals(List.of(6L), scheduler.pick(heads, Map.of(), 1));
+        assertEquals(List.of(7L), scheduler.pick(heads, Map.of(), 1));
+        assertEquals(List.of(5L), scheduler.pick(heads, Map.of(), 1));
+    }
+
+    @Test
+    void contestServedLastWaitsForTheOthers() {
+        scheduler.pick(List.of(head(1, 10, 1)), Map.of(), 1);
+
+        List<QueueHead> heads = List.of(head(1, 11, 2), head(2, 20, 3));
+        assertEquals(List.of(3L, 2L), scheduler.pick(heads, Map.of(), 2));
+    }
+
+    @Test
+    void usersAtTheirCapAreSkipped() {
+        List<QueueHead> heads = List.of(head(1, 10, 1), head(1, 11, 2));
+
+        assertEquals(List.of(2L), scheduler.pick(heads, Map.of(10L, 2L), 10));
+    }
+
+    @Test
+    void userQueuedInSeveralContestsGetsOneJobPerRound() {
+        List<QueueHead> heads = List.of(head(1, 10, 1), head(2, 10, 2), head(2, 20, 3));
+
+        assertEquals(List.of(1L, 3L), scheduler.pick(heads, Map.of(), 10));
+    }
+
+    @Test
+    void idleContestsAndUsersStartAFreshTurn() {
+        scheduler.pick(List.of(head(2, 20, 2)), Map.of(), 1);
+        scheduler.pick(List.of(head(1, 10, 1)), Map.of(), 1);
+
+        // Contest 1 and user 10 had nothing left, so they no longer count as served
+        scheduler.forgetIdle(List.of(head(2, 20, 3)), Set.of());
+        List<QueueHead> heads = List.of(head(1, 10, 4), head(2, 20, 3));
+        assertEquals(List.of(4L, 3L), scheduler.pick(heads, Map.of(), 2));
+    }
+
+    @Test
+    void usersStillBeingJudgedKeepTheirTurn() {
+        scheduler.pick(List.of(head(1, 10, 1)), Map.of(), 1);
+
+        scheduler.forgetIdle(List.of(), Set.of(10L));
+        List<QueueHead> heads = List.of(head(1, 10, 2), head(1, 11, 3));
+        assertEquals(List.of(3L), scheduler.pick(heads, Map.of(), 1));
+    }
+}
@@ -0,0 +1,86 @@
+package com.shodh.coder.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+
+import org.junit.jupiter.api.Test;
+
+class IndexedSkipListTest {
+
+    @Test
+    void keepsElementsSortedAndIndexed() {
+        IndexedSkipList<Integer> list = new IndexedSkipList<>(Comparator.reverseOrder());
+        for (int value : new int[] {5, 1, 9, 3, 7}) {
+            assertTrue(list.add(value));
+        }
+        assertFalse(list.add(3));
+
+        assertEquals(5, list.size());
+        assertEquals(List.of(9, 7, 5, 3, 1), list.range(0, 5));
+        assertEquals(0, list.indexOf(9));
+        assertEquals(3, list.indexOf(3));
+        assertEquals(-1, list.indexOf(4));
+        assertEquals(7, list.get(1));
+    }
+
+    @Test
+    void rangeIsClampedToTheList() {
+        IndexedSkipList<Integer> list = new IndexedSkipList<>(Comparator.naturalOrder());
+        for (int i = 0; i < 10; i++) {
+            list.add(i);
+        }
+        assertEquals(List.of(8, 9), list.range(8, 20));
+        assertEquals(List.of(0, 1), list.range(-3, 2));
+        assertEquals(List.of(), list.range(12, 15));
+        assertThrows(IndexOutOfBoundsException.class, () -> list.get(10));
+    }
+
+    @Test
+    void removeKeepsRanksConsistent() {
+        IndexedSkipList<Integer> list = new IndexedSkipList<>(Comparator.naturalOrder());
+        for (int i = 0; i < 100; i++) {
+            list.add(i);
+        }
+        for (int i = 0; i < 100; i += 2) {
+            assertTrue(list.remove(i));
+        }
+        assertFalse(list.remove(0));
+
+        assertEquals(50, list.size());
+        assertEquals(0, list.indexOf(1));
+        assertEquals(49, list.indexOf(99));
+        assertEquals(List.of(41, 43, 45), list.range(20, 23));
+    }
+
+    @Test
+    void matchesSortedSetUnderRandomChanges() {
+        Random random = new Random(42);
+        IndexedSkipList<Integer> list = new IndexedSkipList<>(Comparator.naturalOrder());
+        TreeSet<Integer> expected = new TreeSet<>();
+        for (int step = 0; step < 20_000; step++) {
+            int value = random.nextInt(2_000);
+            if (random.nextBoolean()) {
+                assertEquals(expected.add(value), list.add(value));
+            } else {
+                assertEquals(expected.remove(value), list.remove(value));
+            }
+        }
+
+        List<Integer> sorted = new ArrayList<>(expected);
+        assertEquals(sorted.size(), list.size());
+        assertEquals(sorted, list.range(0, list.size()));
+        for (int i = 0; i < sorted.size(); i += 37) {
+            assertEquals(i, list.indexOf(sorted.get(i)));
+            assertEquals(sorted.get(i), list.get(i));
+            assertEquals(sorted.subList(i, Math.min(sorted.size(), i + 10)), list.range(i, i + 10));
+        }
+    }
+}
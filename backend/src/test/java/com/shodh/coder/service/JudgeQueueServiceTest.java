@@ -0,0 +1,223 @@
+package com.shodh.coder.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.shodh.coder.config.NodeRole;
+import com.shodh.coder.entity.JudgeJob;
+import com.shodh.coder.entity.JudgeJobStatus;
+import com.shodh.coder.entity.Submission;
+import com.shodh.coder.entity.SubmissionStatus;
+import com.shodh.coder.entity.User;
+import com.shodh.coder.repository.JudgeJobRepository;
+import com.shodh.coder.repository.SubmissionRepository;
+import com.shodh.coder.repository.UserRepository;
+
+class JudgeQueueServiceTest {
+
+    private static final String NODE = "judge-1-worker";
+
+    private final JudgeJobRepository judgeJobRepository = mock(JudgeJobRepository.class);
+    private final SubmissionRepository submissionRepository = mock(SubmissionRepository.class);
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final ApplicationEventPublisher eventPublisher = mock(ApplicationEventPublisher.class);
+    private final FairShareScheduler scheduler = new FairShareScheduler();
+    private final JudgeQueueService queue = new JudgeQueueService();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(queue, "judgeJobRepository", judgeJobRepository);
+        ReflectionTestUtils.setField(queue, "submissionRepository", submissionRepository);
+        ReflectionTestUtils.setField(queue, "userRepository", userRepository);
+        ReflectionTestUtils.setField(queue, "eventPublisher", eventPublisher);
+        ReflectionTestUtils.setField(scheduler, "maxInFlightPerUser", 2);
+        ReflectionTestUtils.setField(queue, "scheduler", scheduler);
+        ReflectionTestUtils.setField(queue, "nodeId", NODE);
+        ReflectionTestUtils.setField(queue, "leaseSeconds", 60);
+        ReflectionTestUtils.setField(queue, "maxAttempts", 3);
+        ReflectionTestUtils.setField(queue, "retryDelaySeconds", 5);
+    }
+
+    private static JudgeJob leased(long id, String owner, int attempts) {
+        JudgeJob job = new JudgeJob(100 + id, 1L, 7L);
+        job.setId(id);
+        job.setStatus(JudgeJobStatus.LEASED);
+        job.setLeaseOwner(owner);
+        job.setLeaseExpiresAt(LocalDateTime.now().minusSeconds(1));
+        job.setAttempts(attempts);
+        return job;
+    }
+
+    private static JudgeJob queued(long id, long userId) {
+        JudgeJob job = new JudgeJob(100 + id, 1L, userId);
+        job.setId(id);
+        return job;
+    }
+
+    private static User user(long id) {
+        User user = new User();
+        user.setId(id);
+        return user;
+    }
+
+    @Test
+    void claimMovesPastJobsAnotherNodeTook() {
+        JudgeJob taken = queued(1, 7);
+        JudgeJob free = queued(2, 8);
+        when(judgeJobRepository.findQueueHeads(any())).thenReturn(
+                List.of(new Object[] {1L, 7L, 1L}, new Object[] {1L, 8L, 2L}));
+        // The first round only gets job 1, which another node locked meanwhile
+        when(judgeJobRepository.findClaimableByIdIn(any())).thenReturn(List.of(), List.of(free));
+        when(userRepository.findLockableByIdIn(any())).thenReturn(List.of(user(8)));
+
+        List<JudgeJob> claimed = queue.claim(1);
+
+        assertEquals(List.of(free), claimed);
+        assertEquals(JudgeJobStatus.LEASED, free.getStatus());
+        assertEquals(NODE, free.getLeaseOwner());
+        assertEquals(JudgeJobStatus.QUEUED, taken.getStatus());
+    }
+
+    @Test
+    void claimChecksTheUserCapWithTheUserLocked() {
+        JudgeJob job = queued(1, 7);
+        when(judgeJobRepository.findQueueHeads(any())).thenReturn(List.<Object[]>of(new Object[] {1L, 7L, 1L}));
+        when(judgeJobRepository.findClaimableByIdIn(any())).thenReturn(List.of(job));
+        when(userRepository.findLockableByIdIn(any())).thenReturn(List.of(user(7)));
+        // Another node leased the user's second job after the heads were read
+        when(judgeJobRepository.countLeasedByUserIdIn(any())).thenReturn(List.<Object[]>of(new Object[] {7L, 2L}));
+
+        assertTrue(queue.claim(4).isEmpty());
+        assertEquals(JudgeJobStatus.QUEUED, job.getStatus());
+    }
+
+    @Test
+    void claimSkipsUsersAnotherNodeIsClaimingFor() {
+        JudgeJob job = queued(1, 7);
+        when(judgeJobRepository.findQueueHeads(any())).thenReturn(List.<Object[]>of(new Object[] {1L, 7L, 1L}));
+        when(judgeJobRepository.findClaimableByIdIn(any())).thenReturn(List.of(job));
+        when(userRepository.findLockableByIdIn(any())).thenReturn(List.of());
+
+        assertTrue(queue.claim(4).isEmpty());
+        assertEquals(JudgeJobStatus.QUEUED, job.getStatus());
+    }
+
+    @Test
+    void expiredLeaseIsQueuedAgainWithBackoff() {
+        JudgeJob job = leased(1, "judge-2-worker", 2);
+        when(judgeJobRepository.findExpiredLeases(any())).thenReturn(List.of(job));
+
+        LocalDateTime before = LocalDateTime.now();
+        queue.reclaimExpiredLeases();
+
+        assertEquals(JudgeJobStatus.QUEUED, job.getStatus());
+        assertNull(job.getLeaseOwner());
+        assertNull(job.getLeaseExpiresAt());
+        // Retry delay grows with the attempts used
+        assertTrue(!job.getAvailableAt().isBefore(before.plusSeconds(10)));
+        assertTrue(job.getLastError().contains("judge-2-worker"));
+        verify(eventPublisher, never()).publishEvent(any(Object.class));
+    }
+
+    @Test
+    void expiredLeaseOfLastAttemptGivesUp() {
+        JudgeJob job = leased(1, "judge-2-worker", 3);
+        Submission submission = new Submission();
+        submission.setId(job.getSubmissionId());
+        submission.setStatus(SubmissionStatus.RUNNING);
+        when(judgeJobRepository.findExpiredLeases(any())).thenReturn(List.of(job));
+        when(submissionRepository.findById(job.getSubmissionId())).thenReturn(Optional.of(submission));
+
+        queue.reclaimExpiredLeases();
+
+        assertEquals(JudgeJobStatus.FAILED, job.getStatus());
+        assertNull(job.getLeaseExpiresAt());
+        assertEquals(SubmissionStatus.SYSTEM_ERROR, submission.getStatus());
+        ArgumentCaptor<Object> event = ArgumentCaptor.forClass(Object.class);
+        verify(eventPublisher).publishEvent(event.capture());
+        SubmissionUpdatedEvent updated = (SubmissionUpdatedEvent) event.getValue();
+        assertEquals(job.getSubmissionId(), updated.getSubmissionId());
+        assertEquals(SubmissionStatus.SYSTEM_ERROR, updated.getStatus());
+    }
+
+    @Test
+    void failureIsIgnoredOnceTheLeaseMovedOn() {
+        JudgeJob job = leased(1, "judge-2-worker", 1);
+        when(judgeJobRepository.findById(1L)).thenReturn(Optional.of(job));
+
+        queue.fail(1L, "sandbox crashed");
+
+        assertEquals(JudgeJobStatus.LEASED, job.getStatus());
+        assertEquals("judge-2-worker", job.getLeaseOwner());
+        assertNull(job.getLastError());
+    }
+
+    @Test
+    void failureOfOwnLeaseRetriesUntilAttemptsRunOut() {
+        JudgeJob job = leased(1, NODE, 1);
+        when(judgeJobRepository.findById(1L)).thenReturn(Optional.of(job));
+
+        queue.fail(1L, "sandbox crashed");
+
+        assertEquals(JudgeJobStatus.QUEUED, job.getStatus());
+        assertEquals("sandbox crashed", job.getLastError());
+    }
+
+    @Test
+    void recoveryRequeuesOwnLeasesAndOrphanedSubmissions() {
+        JudgeJob own = leased(1, NODE, 1);
+        when(judgeJobRepository.findByStatusAndLeaseOwner(JudgeJobStatus.LEASED, NODE)).thenReturn(List.of(own));
+        Submission orphaned = new Submission();
+        orphaned.setId(200L);
+        orphaned.setStatus(SubmissionStatus.RUNNING);
+        Submission queued = new Submission();
+        queued.setId(201L);
+        queued.setStatus(SubmissionStatus.PENDING);
+        when(submissionRepository.findByStatusIn(any())).thenReturn(List.of(orphaned, queued));
+        when(judgeJobRepository.existsBySubmissionIdAndStatusIn(eq(200L), anyCollection())).thenReturn(false);
+        when(judgeJobRepository.existsBySubmissionIdAndStatusIn(eq(201L), anyCollection())).thenReturn(true);
+        when(judgeJobRepository.save(any(JudgeJob.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        queue.recover();
+
+        assertEquals(JudgeJobStatus.QUEUED, own.getStatus());
+        assertNull(own.getLeaseOwner());
+        assertEquals(SubmissionStatus.PENDING, orphaned.getStatus());
+        ArgumentCaptor<JudgeJob> saved = ArgumentCaptor.forClass(JudgeJob.class);
+        verify(judgeJobRepository).save(saved.capture());
+        assertEquals(200L, saved.getValue().getSubmissionId());
+    }
+
+    @Test
+    void workerWithoutNodeIdRefusesToStart() {
+        NodeRole worker = new NodeRole();
+        ReflectionTestUtils.setField(worker, "role", "worker");
+        ReflectionTestUtils.setField(queue, "nodeRole", worker);
+        ReflectionTestUtils.setField(queue, "configuredNodeId", "");
+
+        assertThrows(IllegalStateException.class, queue::init);
+
+        ReflectionTestUtils.setField(queue, "configuredNodeId", "judge-2-worker");
+        queue.init();
+        assertEquals("judge-2-worker", queue.getNodeId());
+    }
+}
@@ -0,0 +1,131 @@
+package com.shodh.coder.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.shodh.coder.dto.LeaderboardEntryDto;
+import com.shodh.coder.entity.ContestUserProblemResult;
+import com.shodh.coder.entity.SubmissionStatus;
+import com.shodh.coder.repository.ContestUserProblemResultRepository;
+
+class LeaderboardServiceTest {
+
+    private static final Long CONTEST = 1L;
+
+    private final ContestUserProblemResultRepository resultRepository = mock(ContestUserProblemResultRepository.class);
+    private final LeaderboardService leaderboard = new LeaderboardService();
+    private final List<Object[]> stored = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(leaderboard, "resultRepository", resultRepository);
+        ReflectionTestUtils.setField(leaderboard, "idleMinutes", 10L);
+        when(resultRepository.findAllWithUsername()).thenReturn(stored);
+    }
+
+    private static Object[] result(long userId, long problemId, int score, long penalty, long version) {
+        ContestUserProblemResult result = new ContestUserProblemResult(CONTEST, userId, problemId);
+        result.setBestScore(score);
+        result.setPenaltyMinutes(penalty);
+        if (score > 0) {
+            result.setFirstAcceptedAt(LocalDateTime.now());
+        }
+        result.setVersion(version);
+        return new Object[] {result, "user" + userId};
+    }
+
+    private void verdict(long submissionId, long userId, Object[] row) {
+        when(resultRepository.findWithUsernameBySubmissionId(submissionId)).thenReturn(List.<Object[]>of(row));
+        leaderboard.onSubmissionUpdated(new SubmissionUpdatedEvent(submissionId, userId, CONTEST,
+                SubmissionStatus.ACCEPTED, 1, 1));
+    }
+
+    private List<String> ranking() {
+        return leaderboard.getLeaderboard(CONTEST).stream().map(LeaderboardEntryDto::getUsername).toList();
+    }
+
+    @Test
+    void ranksByScoreThenPenaltyThenUser() {
+        stored.add(result(1, 10, 100, 50, 1));
+        stored.add(result(2, 10, 100, 30, 1));
+        stored.add(result(3, 10, 200, 90, 1));
+        stored.add(result(4, 10, 100, 30, 1));
+
+        assertEquals(List.of("user3", "user2", "user4", "user1"), ranking());
+        assertEquals(List.of(1, 2, 3, 4), leaderboard.getLeaderboard(CONTEST).stream()
+                .map(LeaderboardEntryDto::getRank).toList());
+    }
+
+    @Test
+    void verdictReKeysTheUser() {
+        stored.add(result(1, 10, 100, 50, 1));
+        stored.add(result(2, 10, 100, 30, 1));
+        assertEquals(List.of("user2", "user1"), ranking());
+
+        // User 1 solves a second problem and moves to the top
+        verdict(7, 1, result(1, 11, 100, 80, 1));
+
+        assertEquals(List.of("user1", "user2"), ranking());
+        LeaderboardEntryDto first = leaderboard.getRankOf(CONTEST, 1L).orElseThrow();
+        assertEquals(200L, first.getScore());
+        assertEquals(2, first.getProblemsSolved());
+        assertEquals(130L, first.getPenalty());
+        assertEquals(1, first.getRank());
+        assertEquals(2, leaderboard.getRankOf(CONTEST, 2L).orElseThrow().getRank());
+    }
+
+    @Test
+    void olderCopyOfAResultIsIgnored() {
+        stored.add(result(1, 10, 100, 50, 3));
+        stored.add(result(2, 10, 100, 30, 1));
+        leaderboard.getLeaderboard(CONTEST);
+
+        verdict(7, 1, result(1, 10, 100, 10, 2));
+
+        assertEquals(List.of("user2", "user1"), ranking());
+        assertEquals(50L, leaderboard.getRankOf(CONTEST, 1L).orElseThrow().getPenalty());
+    }
+
+    @Test
+    void pagesAndNeighbours() {
+        for (long user = 1; user <= 5; user++) {
+            stored.add(result(user, 10, (int) (100 * user), 0, 1));
+        }
+
+        LeaderboardService.LeaderboardPage page = leaderboard.getLeaderboardPage(CONTEST, 1, 2);
+        assertEquals(5, page.getTotal());
+        assertEquals(List.of("user3", "user2"), page.getEntries().stream().map(LeaderboardEntryDto::getUsername).toList());
+        assertEquals(List.of(3, 4), page.getEntries().stream().map(LeaderboardEntryDto::getRank).toList());
+        assertEquals(List.of("user5", "user4"), leaderboard.getAround(CONTEST, 5L, 1).orElseThrow().stream()
+                .map(LeaderboardEntryDto::getUsername).toList());
+        assertTrue(leaderboard.getAround(CONTEST, 9L, 1).isEmpty());
+    }
+
+    @Test
+    void idleStandingsAreDroppedAndRebuiltOnTheNextRead() {
+        stored.add(result(1, 10, 100, 0, 1));
+        leaderboard.getLeaderboard(CONTEST);
+        assertTrue(leaderboard.isFollowingVerdicts());
+
+        ReflectionTestUtils.setField(leaderboard, "lastReadAt", System.currentTimeMillis() - 11 * 60_000);
+        leaderboard.dropIdleStandings();
+        assertFalse(leaderboard.isFollowingVerdicts());
+
+        stored.add(result(2, 10, 200, 0, 1));
+        assertEquals(List.of("user2", "user1"), ranking());
+        verify(resultRepository, times(2)).findAllWithUsername();
+    }
+}
@@ -0,0 +1,106 @@
+package com.shodh.coder.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.StringReader;
+
+import org.junit.jupiter.api.Test;
+
+import com.shodh.coder.entity.CheckerMode;
+
+class OutputCheckerTest {
+
+    private final OutputChecker checker = new OutputChecker();
+
+    private OutputChecker.CheckResult check(String actual, String expected, CheckerMode mode) throws IOException {
+        return checker.check(new StringReader(actual), new StringReader(expected), mode, 1e-6);
+    }
+
+    @Test
+    void exactIgnoresSurroundingWhitespaceOnly() throws IOException {
+        assertTrue(check("  0 1\n\n", "0 1", CheckerMode.EXACT).isAccepted());
+        assertFalse(check("0  1", "0 1", CheckerMode.EXACT).isAccepted());
+        assertFalse(check("0\n1", "0 1", CheckerMode.EXACT).isAccepted());
+    }
+
+    @Test
+    void exactReportsMismatchPosition() throws IOException {
+        OutputChecker.CheckResult result = check("120\n5041\n", "120\n5040\n", CheckerMode.EXACT);
+        assertFalse(result.isAccepted());
+        assertEquals(2, result.getLine());
+        assertEquals(4, result.getPosition());
+    }
+
+    @Test
+    void whitespaceInsensitiveComparesTokens() throws IOException {
+        assertTrue(check("1\n2   3\n", "1 2 3", CheckerMode.WHITESPACE_INSENSITIVE).isAccepted());
+        assertFalse(check("1 2", "1 2 3", CheckerMode.WHITESPACE_INSENSITIVE).isAccepted());
+        assertFalse(check("1 2 3 4", "1 2 3", CheckerMode.WHITESPACE_INSENSITIVE).isAccepted());
+    }
+
+    @Test
+    void longTokensAreComparedWithoutParsing() throws IOException {
+        String token = "9".repeat(10_000);
+        assertTrue(check(token, token, CheckerMode.FLOAT_TOLERANCE).isAccepted());
+        assertFalse(check(token + "8", token + "9", CheckerMode.FLOAT_TOLERANCE).isAccepted());
+        assertFalse(check(token, token + "9", CheckerMode.WHITESPACE_INSENSITIVE).isAccepted());
+    }
+
+    @Test
+    void floatToleranceAcceptsSmallDifferences() throws IOException {
+        assertTrue(check("0.3333333", "0.33333333", CheckerMode.FLOAT_TOLERANCE).isAccepted());
+        assertTrue(check("1000000.5", "1000000.50000001", CheckerMode.FLOAT_TOLERANCE).isAccepted());
+        assertFalse(check("0.334", "0.333", CheckerMode.FLOAT_TOLERANCE).isAccepted());
+        assertFalse(check("NaN", "NaN0", CheckerMode.FLOAT_TOLERANCE).isAccepted());
+        assertFalse(check("0.3333333", "0.33333333", CheckerMode.WHITESPACE_INSENSITIVE).isAccepted());
+    }
+
+    @Test
+    void missingModeFallsBackToExact() throws IOException {
+        assertTrue(checker.check(new StringReader("1 2\n"), new StringReader("1 2"), null, 1e-6).isAccepted());
+        assertFalse(checker.check(new StringReader("1\n2"), new StringReader("1 2"), null, 1e-6).isAccepted());
+    }
+
+    @Test
+    void exactTreatsLineEndingsAsWhitespaceThatMustMatch() throws IOException {
+        assertTrue(check("1\n2\r\n", "1\n2\n", CheckerMode.EXACT).isAccepted());
+        assertFalse(check("1\r\n2", "1\n2", CheckerMode.EXACT).isAccepted());
+        assertTrue(check("1\r\n2", "1\n2", CheckerMode.WHITESPACE_INSENSITIVE).isAccepted());
+    }
+
+    @Test
+    void tokenModesReportTheFirstDifferingToken() throws IOException {
+        OutputChecker.CheckResult result = check("1 2\n3 5\n", "1 2\n3 4\n", CheckerMode.WHITESPACE_INSENSITIVE);
+        assertFalse(result.isAccepted());
+        assertEquals(2, result.getLine());
+        assertEquals(4, result.getPosition());
+
+        OutputChecker.CheckResult missing = check("1 2", "1 2 3", CheckerMode.FLOAT_TOLERANCE);
+        assertFalse(missing.isAccepted());
+        assertEquals(3, missing.getPosition());
+    }
+
+    @Test
+    void floatToleranceIsAbsoluteOrRelative() throws IOException {
+        // Absolute near zero, relative for large values
+        assertTrue(checker.check(new StringReader("0.0000005"), new StringReader("0"), CheckerMode.FLOAT_TOLERANCE,
+                1e-6).isAccepted());
+        assertTrue(checker.check(new StringReader("1000000001"), new StringReader("1000000000"),
+                CheckerMode.FLOAT_TOLERANCE, 1e-6).isAccepted());
+        assertFalse(checker.check(new StringReader("1000001001"), new StringReader("1000000000"),
+                CheckerMode.FLOAT_TOLERANCE, 1e-6).isAccepted());
+        assertFalse(checker.check(new StringReader("abc"), new StringReader("abd"), CheckerMode.FLOAT_TOLERANCE,
+                1e-6).isAccepted());
+    }
+
+    @Test
+    void longTokensMustEndTogether() throws IOException {
+        String head = "7".repeat(200);
+        assertFalse(check(head, head + "7", CheckerMode.WHITESPACE_INSENSITIVE).isAccepted());
+        assertFalse(check(head + "7 1", head + " 1", CheckerMode.WHITESPACE_INSENSITIVE).isAccepted());
+        assertTrue(check(head + "\n1", head + " 1", CheckerMode.WHITESPACE_INSENSITIVE).isAccepted());
+    }
+}
@@ -0,0 +1,101 @@
+package com.shodh.coder.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.shodh.coder.dto.SubmissionProgressDto;
+import com.shodh.coder.dto.SubmissionStatusDto;
+import com.shodh.coder.entity.SubmissionStatus;
+import com.shodh.coder.repository.SubmissionRepository;
+
+class SubmissionStatusCacheTest {
+
+    private final SubmissionRepository submissionRepository = mock(SubmissionRepository.class);
+    private final SubmissionStatusCache cache = new SubmissionStatusCache();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(cache, "submissionRepository", submissionRepository);
+        ReflectionTestUtils.setField(cache, "retentionMinutes", 30L);
+    }
+
+    private void updated(long id, SubmissionStatus status, int passed, int total) {
+        cache.onSubmissionUpdated(new SubmissionUpdatedEvent(id, 7L, 1L, status, passed, total));
+    }
+
+    @Test
+    void unknownSubmissionsAreReadOnceAndKept() {
+        when(submissionRepository.findStatusesByIdIn(any())).thenReturn(
+                List.<Object[]>of(new Object[] {5L, SubmissionStatus.ACCEPTED, 3, 3}));
+
+        assertEquals(SubmissionStatus.ACCEPTED, cache.getStatuses(List.of(5L)).get(0).getStatus());
+        assertEquals(1, cache.getStatuses(List.of(5L)).size());
+        verify(submissionRepository).findStatusesByIdIn(any());
+    }
+
+    @Test
+    void statusesFollowEventsInRequestOrder() {
+        updated(1, SubmissionStatus.RUNNING, 0, 4);
+        updated(2, SubmissionStatus.PENDING, 0, 0);
+        cache.onProgress(new SubmissionProgressEvent(7L, 1L,
+                new SubmissionProgressDto(1L, 2, 4, 2, SubmissionStatus.ACCEPTED)));
+
+        List<SubmissionStatusDto> statuses = cache.getStatuses(List.of(2L, 1L));
+
+        assertEquals(List.of(2L, 1L), statuses.stream().map(SubmissionStatusDto::getId).toList());
+        assertEquals(2, statuses.get(1).getTestCasesPassed());
+        assertEquals(SubmissionStatus.RUNNING, statuses.get(1).getStatus());
+        verify(submissionRepository, never()).findStatusesByIdIn(any());
+    }
+
+    @Test
+    void verdictIsNotOverwrittenByLateProgressOrRunningState() {
+        updated(1, SubmissionStatus.WRONG_ANSWER, 2, 4);
+        updated(1, SubmissionStatus.RUNNING, 0, 4);
+        cache.onProgress(new SubmissionProgressEvent(7L, 1L,
+                new SubmissionProgressDto(1L, 3, 4, 3, SubmissionStatus.ACCEPTED)));
+
+        SubmissionStatusDto status = cache.getStatuses(List.of(1L)).get(0);
+        assertEquals(SubmissionStatus.WRONG_ANSWER, status.getStatus());
+        assertEquals(2, status.getTestCasesPassed());
+        assertFalse(cache.hasOpenSubmissions());
+    }
+
+    @Test
+    void etagChangesWithAnyStatus() {
+        updated(1, SubmissionStatus.RUNNING, 1, 4);
+        String running = SubmissionStatusCache.etag(cache.getStatuses(List.of(1L)));
+        assertTrue(cache.hasOpenSubmissions());
+
+        updated(1, SubmissionStatus.RUNNING, 2, 4);
+        String progressed = SubmissionStatusCache.etag(cache.getStatuses(List.of(1L)));
+
+        assertNotEquals(running, progressed);
+        assertEquals(progressed, SubmissionStatusCache.etag(cache.getStatuses(List.of(1L))));
+    }
+
+    @Test
+    void sweepDropsOnlyOldVerdicts() {
+        updated(1, SubmissionStatus.ACCEPTED, 4, 4);
+        updated(2, SubmissionStatus.RUNNING, 0, 4);
+        ReflectionTestUtils.setField(cache, "retentionMinutes", -1L);
+
+        cache.sweep();
+
+        when(submissionRepository.findStatusesByIdIn(any())).thenReturn(List.of());
+        assertEquals(List.of(2L), cache.getStatuses(List.of(1L, 2L)).stream().map(SubmissionStatusDto::getId).toList());
+    }
+}
@@ -0,0 +1,86 @@
+package com.shodh.coder.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.shodh.coder.entity.TestCase;
+
+class TestDataStagerTest {
+
+    private final TestCaseBlobStore blobStore = new TestCaseBlobStore();
+    private final TestDataStager stager = new TestDataStager();
+    private Path root;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        root = Files.createTempDirectory("stager-test");
+        ReflectionTestUtils.setField(blobStore, "blobDir", root.resolve("blobs").toString());
+        ReflectionTestUtils.setField(stager, "testDataDir", root.resolve("testdata").toString());
+        ReflectionTestUtils.setField(stager, "answerDir", root.resolve("answers").toString());
+        ReflectionTestUtils.setField(stager, "blobStore", blobStore);
+        blobStore.init();
+        stager.init();
+    }
+
+    private TestCase testCase(long id, String input, String expectedOutput) throws IOException {
+        TestCase testCase = new TestCase();
+        testCase.setId(id);
+        testCase.setInputHash(blobStore.put(input).getHash());
+        testCase.setExpectedOutputHash(blobStore.put(expectedOutput).getHash());
+        return testCase;
+    }
+
+    private static List<String> names(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(file -> file.getFileName().toString()).sorted().toList();
+        }
+    }
+
+    @Test
+    void answersAreStagedOutsideTheInputTree() throws IOException {
+        TestDataStager.StagedTestSet tests = stager.stage(1L, List.of(testCase(1, "1 2", "3"), testCase(2, "2 2", "4")));
+
+        assertEquals(List.of("1.in", "2.in"), names(tests.getDirectory()));
+        assertEquals("2 2", Files.readString(tests.input(2)));
+        assertEquals("4", Files.readString(tests.expectedOutput(2)));
+        assertFalse(tests.expectedOutput(1).startsWith(stager.getRoot()));
+    }
+
+    @Test
+    void sameTestSetIsStagedOnce() throws IOException {
+        List<TestCase> testCases = List.of(testCase(1, "1 2", "3"));
+
+        TestDataStager.StagedTestSet first = stager.stage(1L, testCases);
+        TestDataStager.StagedTestSet second = stager.stage(1L, testCases);
+
+        assertEquals(first.getDirectory(), second.getDirectory());
+        assertEquals(List.of(first.getDirectory().getFileName().toString()), names(stager.getRoot()));
+    }
+
+    @Test
+    void linkedInputsReplaceThoseOfTheLastLease() throws IOException {
+        TestDataStager.StagedTestSet previous = stager.stage(1L,
+                List.of(testCase(1, "a", "A"), testCase(2, "b", "B"), testCase(3, "c", "C")));
+        TestDataStager.StagedTestSet current = stager.stage(2L, List.of(testCase(4, "d", "D")));
+        Path mount = root.resolve("sandbox-testdata");
+
+        TestDataStager.linkInputs(previous, mount);
+        TestDataStager.linkInputs(current, mount);
+
+        assertEquals(List.of("1.in"), names(mount));
+        assertEquals("d", Files.readString(mount.resolve("1.in")));
+        TestDataStager.clear(mount);
+        assertTrue(names(mount).isEmpty());
+    }
+}
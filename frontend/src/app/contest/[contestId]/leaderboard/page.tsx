@@ -191,6 +191,9 @@ export default function LeaderboardPage() {
                           <span>
                             <strong>Solved:</strong> {entry.problemsSolved}
                           </span>
+                          <span>
+                            <strong>Penalty:</strong> {entry.penalty}
+                          </span>
                         </div>
                       </div>
                     </div>
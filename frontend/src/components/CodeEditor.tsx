@@ -1,11 +1,16 @@
 "use client";
 
 import { useStore } from "@/store/useStore";
-import { submissionApi } from "@/services/api";
+import {
+  applyProgress,
+  isFinalStatus,
+  submissionApi,
+  submissionStreams,
+} from "@/services/api";
 import { Monaco } from "@monaco-editor/react";
 import dynamic from "next/dynamic";
 import { Play, Code, Clock } from "lucide-react";
-import { useState } from "react";
+import { useEffect, useRef, useState } from "react";
 
 // Dynamically import Monaco Editor to avoid SSR issues
 const MonacoEditor = dynamic(() => import("@monaco-editor/react"), {
@@ -41,6 +46,15 @@ export default function CodeEditor() {
   } = useStore();
 
   const [submitError, setSubmitError] = useState("");
+  const submissionSource = useRef<EventSource | null>(null);
+
+  // Stop following the last submission when the editor goes away
+  useEffect(() => {
+    return () => {
+      submissionSource.current?.close();
+      submissionSource.current = null;
+    };
+  }, []);
 
   const handleEditorDidMount = (editor: any, monaco: Monaco) => {
     // Configure editor
@@ -86,8 +100,8 @@ export default function CodeEditor() {
 
       addSubmission(submission);
 
-      // Start polling for submission status
-      pollSubmissionStatus(submission.id);
+      // Follow the submission until its verdict
+      followSubmission(submission.id);
     } catch (error: any) {
       setSubmitError(
         error.response?.data?.message || "Failed to submit code. Please try again."
@@ -98,39 +112,43 @@ export default function CodeEditor() {
     }
   };
 
-  const pollSubmissionStatus = async (submissionId: number) => {
-    const maxAttempts = 30; // 30 attempts = 30 seconds max
-    let attempts = 0;
-
-    const poll = async () => {
-      try {
-        const submission = await submissionApi.getSubmission(submissionId);
-        
-        // Update the submission in store
-        const { updateSubmission } = useStore.getState();
-        updateSubmission(submission);
-
-        // Check if submission is complete
-        const isComplete = [
-          "ACCEPTED",
-          "WRONG_ANSWER",
-          "TIME_LIMIT_EXCEEDED",
-          "MEMORY_LIMIT_EXCEEDED",
-          "RUNTIME_ERROR",
-          "COMPILATION_ERROR",
-          "SYSTEM_ERROR",
-        ].includes(submission.status);
-
-        if (!isComplete && attempts < maxAttempts) {
-          attempts++;
-          setTimeout(poll, 1000); // Poll every 1 second
+  const followSubmission = (submissionId: number) => {
+    // One followed submission at a time; the history stream still covers earlier ones
+    submissionSource.current?.close();
+    const isDone = () => {
+      const current = useStore
+        .getState()
+        .submissions.find((s) => s.id === submissionId);
+      return current !== undefined && isFinalStatus(current.status);
+    };
+    const stop = () => {
+      source.close();
+      if (submissionSource.current === source) {
+        submissionSource.current = null;
+      }
+    };
+    const source = submissionStreams.streamSubmission(submissionId, {
+      onSubmission: (submission) => {
+        useStore.getState().updateSubmission(submission);
+        if (isFinalStatus(submission.status)) {
+          stop();
         }
-      } catch (error) {
-        console.error("Failed to poll submission status:", error);
+      },
+      onProgress: (progress) => {
+        const { submissions, updateSubmission } = useStore.getState();
+        const current = submissions.find((s) => s.id === submissionId);
+        if (current) {
+          updateSubmission(applyProgress(current, progress));
+        }
+      },
+    });
+    // The server ends the stream after the verdict; don't let EventSource reconnect then
+    source.onerror = () => {
+      if (isDone()) {
+        stop();
       }
     };
-
-    setTimeout(poll, 1000); // Start polling after 1 second
+    submissionSource.current = source;
   };
 
   const getLanguageMode = (language: string) => {
@@ -133,6 +133,14 @@ export default function ConsoleOutput() {
                   </span>
                 </div>
               )}
+              {currentSubmission.cpuTime && (
+                <div className="flex justify-between">
+                  <span className="text-gray-600">CPU Time:</span>
+                  <span className="font-mono">
+                    {currentSubmission.cpuTime}ms
+                  </span>
+                </div>
+              )}
               {currentSubmission.memoryUsed && (
                 <div className="flex justify-between">
                   <span className="text-gray-600">Memory Used:</span>
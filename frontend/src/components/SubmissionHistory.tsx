@@ -3,7 +3,11 @@
 import { useStore } from "@/store/useStore";
 import { Clock, CheckCircle, XCircle, AlertCircle, Loader } from "lucide-react";
 import { useEffect } from "react";
-import { submissionApi } from "@/services/api";
+import {
+  applyProgress,
+  isFinalStatus,
+  submissionStreams,
+} from "@/services/api";
 
 const statusConfig = {
   PENDING: {
@@ -42,6 +46,12 @@ const statusConfig = {
     bg: "bg-purple-50 border-purple-200",
     label: "Memory Limit Exceeded",
   },
+  OUTPUT_LIMIT_EXCEEDED: {
+    icon: AlertCircle,
+    color: "text-purple-600",
+    bg: "bg-purple-50 border-purple-200",
+    label: "Output Limit Exceeded",
+  },
   RUNTIME_ERROR: {
     icon: AlertCircle,
     color: "text-red-600",
@@ -65,32 +75,25 @@ const statusConfig = {
 export default function SubmissionHistory() {
   const { user, contest, submissions, updateSubmission } = useStore();
 
-  // Poll pending/running submissions
-  useEffect(() => {
-    if (!submissions.length) return;
-
-    const pendingSubmissions = submissions.filter(
-      (sub) => sub.status === "PENDING" || sub.status === "RUNNING"
-    );
-
-    if (pendingSubmissions.length === 0) return;
-
-    const pollSubmissions = async () => {
-      try {
-        await Promise.all(
-          pendingSubmissions.map(async (sub) => {
-            const updated = await submissionApi.getSubmission(sub.id);
-            updateSubmission(updated);
-          })
-        );
-      } catch (error) {
-        console.error("Failed to poll submissions:", error);
-      }
-    };
+  const hasPending = submissions.some((sub) => !isFinalStatus(sub.status));
 
-    const interval = setInterval(pollSubmissions, 2000); // Poll every 2 seconds
-    return () => clearInterval(interval);
-  }, [submissions, updateSubmission]);
+  // Stream updates of this user's submissions while any is still being judged
+  useEffect(() => {
+    if (!user || !contest || !hasPending) return;
+
+    const source = submissionStreams.streamSubmissions(user.id, contest.id, {
+      onSubmission: (submission) => updateSubmission(submission),
+      onProgress: (progress) => {
+        const current = useStore
+          .getState()
+          .submissions.find((s) => s.id === progress.submissionId);
+        if (current) {
+          updateSubmission(applyProgress(current, progress));
+        }
+      },
+    });
+    return () => source.close();
+  }, [user, contest, hasPending, updateSubmission]);
 
   const formatTime = (dateString: string) => {
     return new Date(dateString).toLocaleTimeString([], {
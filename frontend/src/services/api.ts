@@ -5,6 +5,7 @@ import {
   User,
   SubmissionRequest,
   Submission,
+  SubmissionProgress,
   LeaderboardEntry,
 } from "@/types/api";
 
@@ -27,6 +28,37 @@ export const contestApi = {
     const response = await api.get(`/contests/${contestId}/leaderboard`);
     return response.data;
   },
+
+  // Zero-based page; total is the number of ranked users
+  getLeaderboardPage: async (
+    contestId: number,
+    page: number,
+    size: number
+  ): Promise<{ entries: LeaderboardEntry[]; total: number }> => {
+    const response = await api.get(`/contests/${contestId}/leaderboard`, {
+      params: { page, size },
+    });
+    return {
+      entries: response.data,
+      total: Number(response.headers["x-total-count"] ?? response.data.length),
+    };
+  },
+
+  getRankOf: async (contestId: number, userId: number): Promise<LeaderboardEntry> => {
+    const response = await api.get(`/contests/${contestId}/leaderboard/rank-of/${userId}`);
+    return response.data;
+  },
+
+  getLeaderboardAround: async (
+    contestId: number,
+    userId: number,
+    radius = 5
+  ): Promise<LeaderboardEntry[]> => {
+    const response = await api.get(`/contests/${contestId}/leaderboard/around/${userId}`, {
+      params: { radius },
+    });
+    return response.data;
+  },
 };
 
 export const problemApi = {
@@ -72,4 +104,54 @@ export const submissionApi = {
   },
 };
 
+export interface SubmissionStreamHandlers {
+  onSubmission: (submission: Submission) => void;
+  onProgress?: (progress: SubmissionProgress) => void;
+}
+
+const openSubmissionStream = (
+  path: string,
+  handlers: SubmissionStreamHandlers
+): EventSource => {
+  const source = new EventSource(`${API_BASE_URL}/api${path}`);
+  source.addEventListener("submission", (event) =>
+    handlers.onSubmission(JSON.parse((event as MessageEvent).data))
+  );
+  source.addEventListener("progress", (event) =>
+    handlers.onProgress?.(JSON.parse((event as MessageEvent).data))
+  );
+  return source;
+};
+
+// Server-Sent Events instead of polling; callers close the stream when done
+export const submissionStreams = {
+  streamSubmission: (
+    submissionId: number,
+    handlers: SubmissionStreamHandlers
+  ): EventSource =>
+    openSubmissionStream(`/submissions/${submissionId}/events`, handlers),
+
+  streamSubmissions: (
+    userId: number,
+    contestId: number,
+    handlers: SubmissionStreamHandlers
+  ): EventSource =>
+    openSubmissionStream(
+      `/submissions/events?userId=${userId}&contestId=${contestId}`,
+      handlers
+    ),
+};
+
+export const applyProgress = (
+  submission: Submission,
+  progress: SubmissionProgress
+): Submission => ({
+  ...submission,
+  testCasesPassed: progress.testCasesPassed,
+  totalTestCases: progress.totalTestCases,
+});
+
+export const isFinalStatus = (status: Submission["status"]) =>
+  status !== "PENDING" && status !== "RUNNING";
+
 export default api;
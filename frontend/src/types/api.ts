@@ -53,6 +53,7 @@ export interface Submission {
   status: SubmissionStatus;
   result: string | null;
   executionTime: number | null;
+  cpuTime: number | null;
   memoryUsed: number | null;
   testCasesPassed: number;
   totalTestCases: number;
@@ -72,13 +73,24 @@ export type SubmissionStatus =
   | "WRONG_ANSWER"
   | "TIME_LIMIT_EXCEEDED"
   | "MEMORY_LIMIT_EXCEEDED"
+  | "OUTPUT_LIMIT_EXCEEDED"
   | "RUNTIME_ERROR"
   | "COMPILATION_ERROR"
   | "SYSTEM_ERROR";
 
+// Pushed on submission event streams after each judged test case
+export interface SubmissionProgress {
+  submissionId: number;
+  testCase: number;
+  totalTestCases: number;
+  testCasesPassed: number;
+  testCaseStatus: SubmissionStatus;
+}
+
 export interface LeaderboardEntry {
   username: string;
   score: number;
   problemsSolved: number;
+  penalty: number;
   rank: number;
 }